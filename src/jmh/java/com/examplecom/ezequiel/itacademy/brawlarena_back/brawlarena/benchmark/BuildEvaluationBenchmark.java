@@ -0,0 +1,110 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.benchmark;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.CharacterAnswerKey;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreCalculator;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreRules;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Evaluación de un build: compilación de la plantilla, comprobación de piezas,
+// progresión de poderes y puntuación. El jugador coloca todas las piezas reales
+// y la mitad de las falsas, en orden aleatorio.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuildEvaluationBenchmark {
+
+    @Param({"8", "16", "32", "64"})
+    public int pieces;
+
+    @Param({"0", "25", "50"})
+    public int fakePercent;
+
+    private Character character;
+    private CharacterAnswerKey answerKey;
+    private List<String> placed;
+    private CharacterAnswerKey.Evaluation evaluation;
+    private ScoreCalculator scoreCalculator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        Power[] powers = {Power.BURBUJA_ANTIGRAVEDAD, Power.CHUPETE_SONICO, Power.ESCAPE_WRAP};
+
+        List<Integer> posiciones = new ArrayList<>();
+        for (int i = 0; i < pieces; i++) {
+            posiciones.add(i);
+        }
+        Collections.shuffle(posiciones, random);
+        int fakeCount = pieces * fakePercent / 100;
+
+        List<Piece> piezas = new ArrayList<>(pieces);
+        placed = new ArrayList<>(pieces);
+        for (int i = 0; i < pieces; i++) {
+            boolean fake = posiciones.indexOf(i) < fakeCount;
+
+            Piece pieza = new Piece();
+            pieza.setId("pieza-" + i);
+            pieza.setName("Pieza " + i);
+            pieza.setFake(fake);
+            pieza.setLevel(1 + i % 4);
+            pieza.setSpecial(i % 7 == 0);
+            pieza.setComboVisual(i % 5 == 0);
+            pieza.setPower(powers[i % powers.length]);
+            piezas.add(pieza);
+
+            if (!fake || i % 2 == 0) {
+                placed.add(pieza.getId());
+            }
+        }
+        Collections.shuffle(placed, random);
+
+        character = new Character();
+        character.setId("bench-" + pieces + "-" + fakePercent);
+        character.setName("Benchmark");
+        character.setPieces(piezas);
+        character.setPowers(List.of(powers));
+
+        answerKey = CharacterAnswerKey.compile(character);
+        evaluation = answerKey.evaluate(placed);
+        scoreCalculator = new ScoreCalculator(ScoreRules.defaults());
+    }
+
+    @Benchmark
+    public CharacterAnswerKey compile() {
+        return CharacterAnswerKey.compile(character);
+    }
+
+    @Benchmark
+    public CharacterAnswerKey.Evaluation evaluate() {
+        return answerKey.evaluate(placed);
+    }
+
+    @Benchmark
+    public Map<Power, Integer> evaluateWithPowerProgress() {
+        return answerKey.evaluate(placed).powerProgress();
+    }
+
+    @Benchmark
+    public int evaluateAndScore() {
+        return scoreCalculator.calculateScore(answerKey.evaluate(placed), 45_000L, true);
+    }
+
+    // Solo la tabla de reglas: debería reportar 0 B/op con -prof gc
+    @Benchmark
+    public int score() {
+        return scoreCalculator.calculateScore(evaluation, 45_000L, true);
+    }
+}
@@ -0,0 +1,62 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.benchmark;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.Role;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Coste de emitir y verificar tokens. El tamaño del token crece con el nickname.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    @Param({"8", "64", "512"})
+    public int nicknameLength;
+
+    private JwtService jwtService;
+    private String nickname;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "clave-de-benchmark-de-al-menos-32-bytes");
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 3600000L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 10000L);
+        jwtService.init();
+
+        nickname = "j".repeat(nicknameLength);
+        token = jwtService.generateToken(nickname, Role.USER);
+        jwtService.authenticate(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(nickname, Role.USER);
+    }
+
+    @Benchmark
+    public Optional<Claims> parseToken() {
+        return jwtService.parseToken(token);
+    }
+
+    @Benchmark
+    public Claims getClaims() {
+        return jwtService.getClaims(token);
+    }
+
+    // Camino habitual de una petición autenticada: el token ya está en la caché de verificados
+    @Benchmark
+    public Optional<Authentication> authenticateCached() {
+        return jwtService.authenticate(token);
+    }
+}
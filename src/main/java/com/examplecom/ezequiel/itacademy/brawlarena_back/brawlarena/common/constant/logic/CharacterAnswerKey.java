@@ -0,0 +1,149 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Plantilla de respuestas inmutable de un personaje: cada pieza recibe un índice denso
+// y sus atributos se guardan en arrays para evaluar un build en una sola pasada.
+public final class CharacterAnswerKey {
+
+    private static final int POWER_PROGRESS_PER_PIECE = 33;
+
+    private final String characterId;
+    private final Map<String, Integer> indices;
+    private final BitSet realPieces;
+    private final int realPieceCount;
+    private final int[] levels;
+    private final boolean[] special;
+    private final boolean[] comboVisual;
+    private final Power[] powers;
+
+    private CharacterAnswerKey(String characterId, Map<String, Integer> indices, BitSet realPieces,
+                               int[] levels, boolean[] special, boolean[] comboVisual, Power[] powers) {
+        this.characterId = characterId;
+        this.indices = indices;
+        this.realPieces = realPieces;
+        this.realPieceCount = realPieces.cardinality();
+        this.levels = levels;
+        this.special = special;
+        this.comboVisual = comboVisual;
+        this.powers = powers;
+    }
+
+    public static CharacterAnswerKey compile(Character character) {
+        List<Piece> piezas = character.getPieces() != null ? character.getPieces() : List.of();
+
+        Map<String, Integer> indices = new HashMap<>(Math.max(16, piezas.size() * 2));
+        BitSet realPieces = new BitSet(piezas.size());
+        int[] levels = new int[piezas.size()];
+        boolean[] special = new boolean[piezas.size()];
+        boolean[] comboVisual = new boolean[piezas.size()];
+        Power[] powers = new Power[piezas.size()];
+
+        int next = 0;
+        for (Piece pieza : piezas) {
+            if (pieza == null || pieza.getId() == null || indices.containsKey(pieza.getId())) {
+                continue;
+            }
+            int index = next++;
+            indices.put(pieza.getId(), index);
+            if (!pieza.isFake()) {
+                realPieces.set(index);
+            }
+            levels[index] = pieza.getLevel();
+            special[index] = pieza.isSpecial();
+            comboVisual[index] = pieza.isComboVisual();
+            powers[index] = pieza.getPower();
+        }
+
+        return new CharacterAnswerKey(character.getId(), Map.copyOf(indices), realPieces,
+                levels, special, comboVisual, powers);
+    }
+
+    public Evaluation evaluate(List<String> piezasColocadasIds) {
+        BitSet colocadas = new BitSet(levels.length);
+        int errores = 0;
+
+        for (String id : piezasColocadasIds) {
+            Integer index = id != null ? indices.get(id) : null;
+            if (index != null && realPieces.get(index)) {
+                colocadas.set(index);
+            } else {
+                errores++;
+            }
+        }
+
+        return new Evaluation(this, colocadas, errores);
+    }
+
+    public String getCharacterId() {
+        return characterId;
+    }
+
+    public int getRealPieceCount() {
+        return realPieceCount;
+    }
+
+    public int levelOf(int index) {
+        return levels[index];
+    }
+
+    public boolean isSpecial(int index) {
+        return special[index];
+    }
+
+    public boolean isComboVisual(int index) {
+        return comboVisual[index];
+    }
+
+    public Power powerOf(int index) {
+        return powers[index];
+    }
+
+    public static final class Evaluation {
+        private final CharacterAnswerKey answerKey;
+        private final BitSet colocadas;
+        private final int errores;
+
+        private Evaluation(CharacterAnswerKey answerKey, BitSet colocadas, int errores) {
+            this.answerKey = answerKey;
+            this.colocadas = colocadas;
+            this.errores = errores;
+        }
+
+        public CharacterAnswerKey getAnswerKey() {
+            return answerKey;
+        }
+
+        public int getErrores() {
+            return errores;
+        }
+
+        public int getPiezasCorrectasColocadas() {
+            return colocadas.cardinality();
+        }
+
+        // Recorre las piezas reales colocadas en orden de índice; -1 marca el final
+        public int nextPlaced(int fromIndex) {
+            return colocadas.nextSetBit(fromIndex);
+        }
+
+        public Map<Power, Integer> powerProgress() {
+            Map<Power, Integer> progresion = new EnumMap<>(Power.class);
+            for (int i = colocadas.nextSetBit(0); i >= 0; i = colocadas.nextSetBit(i + 1)) {
+                Power power = answerKey.powerOf(i);
+                if (power != null) {
+                    progresion.merge(power, POWER_PROGRESS_PER_PIECE, Integer::sum);
+                }
+            }
+            return progresion;
+        }
+    }
+}
@@ -1,65 +1,57 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic;
 
-import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.config.ScoreConfig;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
+// Motor de puntuación: mantiene la tabla de reglas vigente y la sustituye de forma atómica al actualizarla.
+// Cada cálculo lee la referencia una sola vez, así que nunca mezcla reglas antiguas y nuevas.
 @Component
 public class ScoreCalculator {
 
-    public static int calculateScore(List<Piece> piezasColocadas, List<Piece> piezasCorrectas, int errores, long duration, boolean primeraVezCompletado) {
-        if (piezasColocadas == null || piezasCorrectas == null) {
-            throw new IllegalArgumentException("Las listas de piezas no pueden ser null");
-        }
+    private static final Logger logger = LoggerFactory.getLogger(ScoreCalculator.class);
 
-        int score = 0;
+    private final AtomicReference<ScoreRules> rules;
 
-        Set<String> idsCorrectas = new HashSet<>();
-        for (Piece p : piezasCorrectas) {
-            idsCorrectas.add(p.getId());
-        }
-
-        for (Piece colocada : piezasColocadas) {
-            if (idsCorrectas.contains(colocada.getId())) {
-                score += switch (colocada.getLevel()) {
-                    case 1 -> 50;
-                    case 2 -> 100;
-                    case 3 -> 150;
-                    case 4 -> 200;
-                    default -> 0;
-                };
-
-                if (colocada.isSpecial()) {
-                    score += 200;
-                }
-                if (colocada.isComboVisual()) {
-                    score += 100;
-                }
-            } else {
-                score -= 30;
-            }
-        }
-
-        score -= errores * 30;
-
-        if (duration < 60) {
-            score += 150;
-        }
+    @Autowired
+    public ScoreCalculator(ScoreConfig scoreConfig) {
+        this(ScoreRules.compile(scoreConfig, 1));
+        logger.info("Reglas de puntuación cargadas: {}", rules.get().describe());
+    }
 
-        if (errores == 0) {
-            score += 100;
-        }
+    public ScoreCalculator(ScoreRules rules) {
+        this.rules = new AtomicReference<>(rules);
+    }
 
-        score += 300;
+    public int calculateScore(CharacterAnswerKey.Evaluation evaluacion, long duration, boolean primeraVezCompletado) {
+        return rules.get().score(evaluacion, duration, primeraVezCompletado);
+    }
 
-        if (primeraVezCompletado) {
-            score += 200;
-        }
+    public int rescore(Build build, CharacterAnswerKey answerKey, boolean primeraVezCompletado) {
+        return rules.get().rescore(build, answerKey, primeraVezCompletado);
+    }
 
-        return Math.max(score, 0);
+    // Los procesos largos (recálculos masivos) deben fijar una tabla al empezar
+    public ScoreRules currentRules() {
+        return rules.get();
     }
 
-}
\ No newline at end of file
+    // Aplica los cambios sobre una copia de las reglas vigentes y compila una tabla nueva.
+    // Si el resultado no es válido se lanza IllegalArgumentException y se conservan las reglas vigentes.
+    // Los cambios viven en memoria: al reiniciar vuelven a cargarse los valores de score.*
+    public ScoreRules update(Consumer<ScoreConfig> changes) {
+        ScoreRules updated = rules.updateAndGet(current -> {
+            ScoreConfig config = current.toConfig();
+            changes.accept(config);
+            return ScoreRules.compile(config, current.getVersion() + 1);
+        });
+        logger.info("Reglas de puntuación actualizadas: {}", updated.describe());
+        return updated;
+    }
+}
@@ -0,0 +1,177 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.config.ScoreConfig;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Tabla de puntuación inmutable compilada a partir de ScoreConfig.
+// Una instancia no cambia nunca: cambiar las reglas produce una tabla nueva,
+// así que una misma evaluación (o un recálculo masivo) siempre usa reglas coherentes.
+public final class ScoreRules {
+
+    private static final ScoreRules DEFAULTS = compile(new ScoreConfig(), 0);
+
+    // Índice = nivel de la pieza; los niveles fuera de rango puntúan 0
+    private final int[] levelPoints;
+    private final int specialBonus;
+    private final int comboVisualBonus;
+    private final int errorPenalty;
+    private final int baseCompletionBonus;
+    private final int speedBonus;
+    private final long speedThresholdSeconds;
+    private final int flawlessBonus;
+    private final int firstTimeBonus;
+    private final long version;
+    private final String fingerprint;
+
+    private ScoreRules(ScoreConfig config, long version) {
+        this.levelPoints = new int[]{
+                0,
+                requireNonNegative("level1Points", config.getLevel1Points()),
+                requireNonNegative("level2Points", config.getLevel2Points()),
+                requireNonNegative("level3Points", config.getLevel3Points()),
+                requireNonNegative("level4Points", config.getLevel4Points())
+        };
+        this.specialBonus = requireNonNegative("specialBonus", config.getSpecialBonus());
+        this.comboVisualBonus = requireNonNegative("comboVisualBonus", config.getComboVisualBonus());
+        this.errorPenalty = requireNonNegative("errorPenalty", config.getErrorPenalty());
+        this.baseCompletionBonus = requireNonNegative("baseCompletionBonus", config.getBaseCompletionBonus());
+        this.speedBonus = requireNonNegative("speedBonus", config.getSpeedBonus());
+        this.speedThresholdSeconds = config.getSpeedThresholdSeconds();
+        this.flawlessBonus = requireNonNegative("flawlessBonus", config.getFlawlessBonus());
+        this.firstTimeBonus = requireNonNegative("firstTimeBonus", config.getFirstTimeBonus());
+        this.version = version;
+
+        if (speedThresholdSeconds < 0) {
+            throw new IllegalArgumentException("score.speedThresholdSeconds no puede ser negativo");
+        }
+        this.fingerprint = hash(Arrays.toString(levelPoints) + "|" + specialBonus + "|" + comboVisualBonus + "|" + errorPenalty
+                + "|" + baseCompletionBonus + "|" + speedBonus + "|" + speedThresholdSeconds + "|" + flawlessBonus + "|" + firstTimeBonus);
+    }
+
+    public static ScoreRules compile(ScoreConfig config, long version) {
+        if (config == null) {
+            throw new IllegalArgumentException("La configuración de puntuación no puede ser null");
+        }
+        return new ScoreRules(config, version);
+    }
+
+    public static ScoreRules defaults() {
+        return DEFAULTS;
+    }
+
+    // Recorre solo las piezas correctas colocadas; no reserva memoria
+    public int score(CharacterAnswerKey.Evaluation evaluacion, long duration, boolean primeraVezCompletado) {
+        if (evaluacion == null) {
+            throw new IllegalArgumentException("La evaluación de piezas no puede ser null");
+        }
+
+        CharacterAnswerKey answerKey = evaluacion.getAnswerKey();
+        int errores = evaluacion.getErrores();
+        int score = 0;
+
+        for (int i = evaluacion.nextPlaced(0); i >= 0; i = evaluacion.nextPlaced(i + 1)) {
+            int level = answerKey.levelOf(i);
+            if (level > 0 && level < levelPoints.length) {
+                score += levelPoints[level];
+            }
+            if (answerKey.isSpecial(i)) {
+                score += specialBonus;
+            }
+            if (answerKey.isComboVisual(i)) {
+                score += comboVisualBonus;
+            }
+        }
+
+        score -= errores * errorPenalty;
+
+        if (duration < speedThresholdSeconds) {
+            score += speedBonus;
+        }
+        if (errores == 0) {
+            score += flawlessBonus;
+        }
+
+        score += baseCompletionBonus;
+
+        if (primeraVezCompletado) {
+            score += firstTimeBonus;
+        }
+
+        return Math.max(score, 0);
+    }
+
+    // Recalcula un build ya guardado con estas reglas (no modifica el build)
+    public int rescore(Build build, CharacterAnswerKey answerKey, boolean primeraVezCompletado) {
+        if (build == null || build.getPiecesPlaced() == null) {
+            throw new IllegalArgumentException("El build a recalcular debe tener piezas colocadas");
+        }
+        return score(answerKey.evaluate(build.getPiecesPlaced()), build.getDuration(), primeraVezCompletado);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Hash de los valores de la tabla, sin la versión (que es un contador de cada proceso):
+    // dos tablas iguales dan el mismo hash aunque se hayan compilado en instancias o arranques distintos
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    // Copia editable de los valores de esta tabla, base para aplicar cambios parciales
+    public ScoreConfig toConfig() {
+        ScoreConfig config = new ScoreConfig();
+        config.setLevel1Points(levelPoints[1]);
+        config.setLevel2Points(levelPoints[2]);
+        config.setLevel3Points(levelPoints[3]);
+        config.setLevel4Points(levelPoints[4]);
+        config.setSpecialBonus(specialBonus);
+        config.setComboVisualBonus(comboVisualBonus);
+        config.setErrorPenalty(errorPenalty);
+        config.setBaseCompletionBonus(baseCompletionBonus);
+        config.setSpeedBonus(speedBonus);
+        config.setSpeedThresholdSeconds(speedThresholdSeconds);
+        config.setFlawlessBonus(flawlessBonus);
+        config.setFirstTimeBonus(firstTimeBonus);
+        return config;
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> rules = new LinkedHashMap<>();
+        rules.put("version", version);
+        rules.put("levelPoints", Arrays.copyOfRange(levelPoints, 1, levelPoints.length));
+        rules.put("specialBonus", specialBonus);
+        rules.put("comboVisualBonus", comboVisualBonus);
+        rules.put("errorPenalty", errorPenalty);
+        rules.put("baseCompletionBonus", baseCompletionBonus);
+        rules.put("speedBonus", speedBonus);
+        rules.put("speedThresholdSeconds", speedThresholdSeconds);
+        rules.put("flawlessBonus", flawlessBonus);
+        rules.put("firstTimeBonus", firstTimeBonus);
+        return rules;
+    }
+
+    private static String hash(String valores) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(valores.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static int requireNonNegative(String property, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("score." + property + " no puede ser negativo");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,221 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.IdempotencyRecord;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.EntityResponse;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Respuestas de los endpoints de escritura indexadas por la cabecera Idempotency-Key.
+// Un reintento con la misma clave (mismo jugador, método, ruta y query) recibe la respuesta guardada sin volver
+// a ejecutar el pipeline; los reintentos concurrentes esperan a la primera ejecución.
+// Junto a la respuesta se guarda un hash de los parámetros y el cuerpo: reutilizar la clave con otra
+// petición devuelve 422 en lugar de la respuesta de la primera.
+// En memoria está acotado por tamaño y TTL; opcionalmente se guarda también en Mongo (TTL por expiresAt).
+// Los errores y las respuestas 5xx no se guardan: el siguiente reintento vuelve a ejecutar.
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final String CACHE_NAME = "http.idempotency";
+    private static final int MAX_KEY_LENGTH = 128;
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final ObjectMapper objectMapper;
+    private final IdempotencyRecordRepository recordRepository;
+    private final AsyncCache<String, StoredResponse> responses;
+    private final Duration ttl;
+    private final boolean persistent;
+    private final Counter replays;
+
+    @Autowired
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            IdempotencyRecordRepository recordRepository,
+                            @Value("${app.idempotency.max-size:10000}") long maxSize,
+                            @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${app.idempotency.persistent:false}") boolean persistent) {
+        this.objectMapper = objectMapper;
+        this.recordRepository = recordRepository;
+        this.ttl = ttl;
+        this.persistent = persistent;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+        this.replays = Counter.builder(CACHE_NAME + ".replays")
+                .description("Reintentos respondidos con la respuesta guardada")
+                .register(meterRegistry);
+    }
+
+    // Para endpoints sin cuerpo: la petición queda identificada por su query
+    public Mono<ServerResponse> execute(ServerRequest request, String playerId, Supplier<Mono<ServerResponse>> pipeline) {
+        return execute(request, playerId, null, pipeline);
+    }
+
+    // body es el cuerpo ya leído por el handler; entra en el hash que se compara en los reintentos.
+    // Sin cabecera se ejecuta el pipeline tal cual
+    public Mono<ServerResponse> execute(ServerRequest request, String playerId, Object body, Supplier<Mono<ServerResponse>> pipeline) {
+        String idempotencyKey = request.headers().firstHeader(HEADER);
+        if (idempotencyKey == null) {
+            return Mono.defer(pipeline);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ServerResponse.badRequest().bodyValue("Cabecera " + HEADER + " no válida");
+        }
+
+        String rawQuery = request.uri().getRawQuery();
+        String key = request.method().name() + " " + request.path() + (rawQuery != null ? "?" + rawQuery : "")
+                + " " + playerId + " " + idempotencyKey;
+        String fingerprint = fingerprint(request, body);
+
+        // Solo quien ejecuta el pipeline recibe la respuesta original; el resto, la guardada
+        return Mono.deferContextual(context -> {
+            AtomicReference<ServerResponse> original = new AtomicReference<>();
+            return Mono.fromFuture(() -> responses.get(key, (k, executor) -> load(k, fingerprint, pipeline, context, original)), true)
+                    .flatMap(stored -> {
+                        if (stored.status >= 500) {
+                            responses.synchronous().invalidate(key);
+                        }
+                        ServerResponse response = original.get();
+                        if (response != null) {
+                            return Mono.just(response);
+                        }
+                        // Los registros anteriores al hash (sin fingerprint) se siguen reproduciendo
+                        if (stored.fingerprint != null && !stored.fingerprint.equals(fingerprint)) {
+                            logger.warn("{} reutilizada con otra petición: {} {}", HEADER, request.method(), request.path());
+                            return ServerResponse.unprocessableEntity()
+                                    .bodyValue("La cabecera " + HEADER + " ya se usó con otra petición");
+                        }
+                        replays.increment();
+                        logger.info("Reintento con {} respondido desde la respuesta guardada: {} {}", HEADER, request.method(), request.path());
+                        return render(stored);
+                    });
+        });
+    }
+
+    private CompletableFuture<StoredResponse> load(String key, String fingerprint, Supplier<Mono<ServerResponse>> pipeline,
+                                                   ContextView context, AtomicReference<ServerResponse> original) {
+        Mono<StoredResponse> ejecutar = Mono.defer(pipeline)
+                .doOnNext(original::set)
+                .map(response -> toStored(response, fingerprint))
+                .flatMap(stored -> persist(key, stored).thenReturn(stored));
+
+        Mono<StoredResponse> respuesta = persistent
+                ? recordRepository.findById(key)
+                        .filter(record -> record.getExpiresAt().isAfter(Instant.now()))
+                        .map(record -> new StoredResponse(record.getStatus(), record.getContentType(), record.getBody(), record.getFingerprint()))
+                        .onErrorResume(error -> {
+                            logger.warn("No se pudo leer la clave de idempotencia de MongoDB: {}", error.getMessage());
+                            return Mono.empty();
+                        })
+                        .switchIfEmpty(ejecutar)
+                : ejecutar;
+
+        return respuesta.contextWrite(context).toFuture();
+    }
+
+    // Un fallo al guardar en Mongo no cambia la respuesta; queda al menos la copia en memoria
+    private Mono<Void> persist(String key, StoredResponse stored) {
+        if (!persistent || stored.status >= 500) {
+            return Mono.empty();
+        }
+        Instant ahora = Instant.now();
+        IdempotencyRecord record = new IdempotencyRecord(key, stored.status, stored.contentType, stored.body, stored.fingerprint, ahora, ahora.plus(ttl));
+        return recordRepository.save(record)
+                .then()
+                .onErrorResume(error -> {
+                    logger.warn("No se pudo guardar la clave de idempotencia en MongoDB: {}", error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private StoredResponse toStored(ServerResponse response, String fingerprint) {
+        int status = response.statusCode().value();
+        if (!(response instanceof EntityResponse<?> entityResponse) || entityResponse.entity() == null) {
+            return new StoredResponse(status, null, null, fingerprint);
+        }
+
+        Object entity = entityResponse.entity();
+        if (entity instanceof String text) {
+            return new StoredResponse(status, MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8", text.getBytes(StandardCharsets.UTF_8), fingerprint);
+        }
+        try {
+            return new StoredResponse(status, MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(entity), fingerprint);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        }
+    }
+
+    // Parámetros ordenados por nombre más el cuerpo serializado con el ObjectMapper de la aplicación,
+    // así el orden de la query o los espacios del JSON original no cambian el hash
+    private String fingerprint(ServerRequest request, Object body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            new TreeMap<>(request.queryParams()).forEach((name, values) ->
+                    digest.update((name + "=" + values + "&").getBytes(StandardCharsets.UTF_8)));
+            digest.update((byte) '\n');
+            if (body != null) {
+                digest.update(objectMapper.writeValueAsBytes(body));
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el cuerpo de la petición", e);
+        }
+    }
+
+    private static Mono<ServerResponse> render(StoredResponse stored) {
+        ServerResponse.BodyBuilder response = ServerResponse.status(stored.status).header(REPLAYED_HEADER, "true");
+        if (stored.body == null) {
+            return response.build();
+        }
+        return response.contentType(MediaType.parseMediaType(stored.contentType)).bodyValue(stored.body);
+    }
+
+    private static final class StoredResponse {
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+        private final String fingerprint;
+
+        private StoredResponse(int status, String contentType, byte[] body, String fingerprint) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
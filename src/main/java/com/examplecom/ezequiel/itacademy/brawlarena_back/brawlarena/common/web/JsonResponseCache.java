@@ -0,0 +1,202 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Caché de respuestas JSON ya serializadas para endpoints públicos de solo lectura.
+// Guarda los bytes (y su versión gzip) con un ETag fuerte calculado sobre el contenido; cada
+// codificación lleva su propio ETag (la gzip con sufijo -gz). Las escrituras invalidan la clave.
+@Component
+public class JsonResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonResponseCache.class);
+    private static final String CACHE_NAME = "http.response.cache";
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    public static final String CHARACTERS_ALL = "characters:all";
+    public static final String GALLERY_HIGHLIGHTED = "gallery:highlighted";
+
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<String, CachedJson> responses;
+    private final Counter notModified;
+
+    @Autowired
+    public JsonResponseCache(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.response-cache.max-size:512}") long maxSize,
+                             @Value("${app.response-cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+        this.notModified = Counter.builder(CACHE_NAME + ".not_modified")
+                .description("Peticiones condicionales respondidas con 304")
+                .register(meterRegistry);
+    }
+
+    public static String characterKey(String characterId) {
+        return "characters:" + characterId;
+    }
+
+    // El loader solo se ejecuta si la clave no está en caché; si termina vacío o con error no se guarda nada
+    public Mono<ServerResponse> respond(ServerRequest request, String key, Supplier<? extends Mono<?>> loader) {
+        return Mono.fromFuture(() -> responses.get(key, (k, executor) -> load(k, loader)), true)
+                .flatMap(cached -> render(request, cached));
+    }
+
+    public void invalidate(String key) {
+        responses.synchronous().invalidate(key);
+        logger.debug("Respuesta cacheada invalidada: {}", key);
+    }
+
+    // Un cambio en un personaje afecta a su detalle y al listado completo
+    public void invalidateCharacter(String characterId) {
+        invalidate(characterKey(characterId));
+        invalidate(CHARACTERS_ALL);
+    }
+
+    private CompletableFuture<CachedJson> load(String key, Supplier<? extends Mono<?>> loader) {
+        return Mono.defer(loader)
+                .map(this::serialize)
+                .doOnNext(cached -> logger.debug("Respuesta {} serializada ({} bytes, ETag {})", key, cached.json.length, cached.etag))
+                .toFuture();
+    }
+
+    private CachedJson serialize(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] gzip = json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+            String etag = etag(json);
+            return new CachedJson(json, gzip, etag, gzip != null ? gzipEtag(etag) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        }
+    }
+
+    private Mono<ServerResponse> render(ServerRequest request, CachedJson cached) {
+        HttpHeaders headers = request.headers().asHttpHeaders();
+        boolean gzip = cached.gzip != null && acceptsGzip(headers.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? cached.gzipEtag : cached.etag;
+
+        // Cualquiera de las dos variantes identifica el mismo contenido; el 304 lleva el ETag de la que se serviría
+        if (matches(headers.getIfNoneMatch(), cached)) {
+            notModified.increment();
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePublic())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ServerResponse.BodyBuilder response = ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").bodyValue(cached.gzip);
+        }
+        return response.bodyValue(cached.json);
+    }
+
+    // If-None-Match usa comparación débil: se ignora el prefijo W/
+    private static boolean matches(List<String> ifNoneMatch, CachedJson cached) {
+        for (String candidate : ifNoneMatch) {
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(candidate) || cached.etag.equals(tag) || tag.equals(cached.gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .anyMatch(coding -> {
+                    String[] parts = coding.split(";");
+                    if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                        return false;
+                    }
+                    return Arrays.stream(parts).skip(1)
+                            .map(String::trim)
+                            .noneMatch(param -> param.matches("q=0(\\.0*)?"));
+                });
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // "abc" -> "abc-gz"
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    private static final class CachedJson {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        private CachedJson(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+        }
+    }
+}
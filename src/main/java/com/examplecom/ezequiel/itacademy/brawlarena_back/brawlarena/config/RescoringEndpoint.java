@@ -0,0 +1,39 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.config;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.RescoringProgress;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.maintenance.BuildRescoringJob;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// GET    /actuator/rescoring                     -> progreso y throughput del recálculo
+// POST   /actuator/rescoring {"resume": true}    -> lanza el recálculo (resume continúa desde el checkpoint)
+// DELETE /actuator/rescoring                     -> cancela al acabar el tramo en curso; el checkpoint queda CANCELLED
+@Component
+@Endpoint(id = "rescoring")
+public class RescoringEndpoint {
+
+    private final BuildRescoringJob rescoringJob;
+
+    public RescoringEndpoint(BuildRescoringJob rescoringJob) {
+        this.rescoringJob = rescoringJob;
+    }
+
+    @ReadOperation
+    public RescoringProgress status() {
+        return rescoringJob.status();
+    }
+
+    @WriteOperation
+    public RescoringProgress start(@Nullable Boolean resume) {
+        return rescoringJob.start(Boolean.TRUE.equals(resume));
+    }
+
+    @DeleteOperation
+    public RescoringProgress cancel() {
+        return rescoringJob.cancel();
+    }
+}
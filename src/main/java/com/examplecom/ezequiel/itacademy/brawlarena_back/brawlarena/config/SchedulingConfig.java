@@ -0,0 +1,9 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -5,20 +5,22 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+// Los valores por defecto reproducen la puntuación histórica si falta alguna propiedad
 @Getter
 @Setter
 @Configuration
 @ConfigurationProperties(prefix = "score")
 public class ScoreConfig {
-    private int level1Points;
-    private int level2Points;
-    private int level3Points;
-    private int level4Points;
-    private int specialBonus;
-    private int comboVisualBonus;
-    private int errorPenalty;
-    private int baseCompletionBonus;
-    private int speedBonus;
-    private int flawlessBonus;
-    private int firstTimeBonus;
-}
\ No newline at end of file
+    private int level1Points = 50;
+    private int level2Points = 100;
+    private int level3Points = 150;
+    private int level4Points = 200;
+    private int specialBonus = 200;
+    private int comboVisualBonus = 100;
+    private int errorPenalty = 30;
+    private int baseCompletionBonus = 300;
+    private int speedBonus = 150;
+    private long speedThresholdSeconds = 60;
+    private int flawlessBonus = 100;
+    private int firstTimeBonus = 200;
+}
@@ -0,0 +1,66 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.config;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreCalculator;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+// GET  /actuator/scorerules -> reglas vigentes
+// POST /actuator/scorerules -> cuerpo JSON con las reglas a cambiar (p. ej. {"errorPenalty": 40});
+//                              las omitidas conservan su valor y la tabla resultante se valida antes de sustituirse
+@Component
+@Endpoint(id = "scorerules")
+public class ScoreRulesEndpoint {
+
+    private final ScoreCalculator scoreCalculator;
+
+    public ScoreRulesEndpoint(ScoreCalculator scoreCalculator) {
+        this.scoreCalculator = scoreCalculator;
+    }
+
+    @ReadOperation
+    public Map<String, Object> rules() {
+        return scoreCalculator.currentRules().describe();
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Nullable Integer level1Points,
+                                      @Nullable Integer level2Points,
+                                      @Nullable Integer level3Points,
+                                      @Nullable Integer level4Points,
+                                      @Nullable Integer specialBonus,
+                                      @Nullable Integer comboVisualBonus,
+                                      @Nullable Integer errorPenalty,
+                                      @Nullable Integer baseCompletionBonus,
+                                      @Nullable Integer speedBonus,
+                                      @Nullable Long speedThresholdSeconds,
+                                      @Nullable Integer flawlessBonus,
+                                      @Nullable Integer firstTimeBonus) {
+        Consumer<ScoreConfig> changes = config -> {
+            if (level1Points != null) config.setLevel1Points(level1Points);
+            if (level2Points != null) config.setLevel2Points(level2Points);
+            if (level3Points != null) config.setLevel3Points(level3Points);
+            if (level4Points != null) config.setLevel4Points(level4Points);
+            if (specialBonus != null) config.setSpecialBonus(specialBonus);
+            if (comboVisualBonus != null) config.setComboVisualBonus(comboVisualBonus);
+            if (errorPenalty != null) config.setErrorPenalty(errorPenalty);
+            if (baseCompletionBonus != null) config.setBaseCompletionBonus(baseCompletionBonus);
+            if (speedBonus != null) config.setSpeedBonus(speedBonus);
+            if (speedThresholdSeconds != null) config.setSpeedThresholdSeconds(speedThresholdSeconds);
+            if (flawlessBonus != null) config.setFlawlessBonus(flawlessBonus);
+            if (firstTimeBonus != null) config.setFirstTimeBonus(firstTimeBonus);
+        };
+
+        try {
+            return scoreCalculator.update(changes).describe();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception;
+
+public class BuildAlreadyValidatedException extends RuntimeException {
+    public BuildAlreadyValidatedException(String message) {
+        super(message);
+    }
+}
@@ -49,6 +49,12 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    @ExceptionHandler(BuildAlreadyValidatedException.class)
+    public ResponseEntity<ErrorMessage> handleBuildAlreadyValidatedException(BuildAlreadyValidatedException ex) {
+        ErrorMessage error = new ErrorMessage(HttpStatus.CONFLICT, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(BuildNotFoundException.class)
     public ResponseEntity<ErrorMessage> handleBuildNotFoundException(BuildNotFoundException ex) {
         ErrorMessage error = new ErrorMessage(HttpStatus.NOT_FOUND, ex.getMessage());
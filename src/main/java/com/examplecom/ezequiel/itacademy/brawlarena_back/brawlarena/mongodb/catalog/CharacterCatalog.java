@@ -0,0 +1,256 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.CharacterAnswerKey;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Caché de lectura del catálogo de personajes. Todas las lecturas pasan por aquí;
+// las escrituras van directas al repositorio y después invalidan la entrada.
+// Los objetos devueltos son compartidos: no deben modificarse.
+@Component
+public class CharacterCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CharacterCatalog.class);
+    private static final String CACHE_NAME = "character.catalog";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final CharacterRepository characterRepository;
+    private final AsyncCache<String, CatalogEntry> entries;
+    private final AtomicReference<CompletableFuture<CatalogSnapshot>> snapshot = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final long expireAfterWriteNanos;
+    private final Counter snapshotHits;
+    private final Counter snapshotMisses;
+
+    @Autowired
+    public CharacterCatalog(CharacterRepository characterRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.catalog.max-size:256}") long maxSize,
+                            @Value("${app.catalog.expire-after-write:PT30M}") Duration expireAfterWrite) {
+        this.characterRepository = characterRepository;
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+        this.snapshotHits = Counter.builder(CACHE_NAME + ".snapshot")
+                .tag("result", "hit")
+                .description("Lecturas del catálogo completo servidas desde memoria")
+                .register(meterRegistry);
+        this.snapshotMisses = Counter.builder(CACHE_NAME + ".snapshot")
+                .tag("result", "miss")
+                .description("Lecturas del catálogo completo que consultaron MongoDB")
+                .register(meterRegistry);
+    }
+
+    public Mono<Character> findById(String characterId) {
+        return findEntry(characterId).map(CatalogEntry::getCharacter);
+    }
+
+    // Las cargas concurrentes de un mismo id comparten la misma consulta a MongoDB
+    public Mono<CatalogEntry> findEntry(String characterId) {
+        return Mono.fromFuture(() -> entries.get(characterId, (id, executor) -> load(id)), true);
+    }
+
+    public Flux<Character> findAll() {
+        return findSnapshot().flatMapIterable(CatalogSnapshot::getCharacters);
+    }
+
+    public Mono<CatalogSnapshot> findSnapshot() {
+        return Mono.fromFuture(this::snapshotFuture, true);
+    }
+
+    // Se invoca tras cada escritura del personaje; una carga en curso iniciada antes
+    // de la escritura queda descartada y no vuelve a poblar la caché.
+    public void invalidate(String characterId) {
+        entries.synchronous().invalidate(characterId);
+        snapshot.set(null);
+        logger.info("Catálogo invalidado para personaje {}", characterId);
+    }
+
+    public void invalidateAll() {
+        entries.synchronous().invalidateAll();
+        snapshot.set(null);
+        logger.info("Catálogo de personajes invalidado por completo");
+    }
+
+    private CompletableFuture<CatalogEntry> load(String characterId) {
+        return characterRepository.findById(characterId)
+                .doOnNext(character -> {
+                    if (character.getPieces() == null) {
+                        logger.warn("El personaje {} no tiene piezas asignadas", characterId);
+                    }
+                })
+                .map(character -> new CatalogEntry(character, CharacterAnswerKey.compile(character), versions.incrementAndGet()))
+                .doOnNext(entry -> logger.debug("Personaje {} cargado en catálogo (versión {})", characterId, entry.getVersion()))
+                .toFuture();
+    }
+
+    private CompletableFuture<CatalogSnapshot> snapshotFuture() {
+        while (true) {
+            CompletableFuture<CatalogSnapshot> current = snapshot.get();
+            if (current != null && !isStale(current)) {
+                snapshotHits.increment();
+                return current;
+            }
+
+            CompletableFuture<CatalogSnapshot> created = new CompletableFuture<>();
+            if (!snapshot.compareAndSet(current, created)) {
+                continue;
+            }
+
+            snapshotMisses.increment();
+            characterRepository.findAll()
+                    .collectList()
+                    .subscribe(
+                            characters -> created.complete(new CatalogSnapshot(characters, versions.incrementAndGet(), System.nanoTime())),
+                            error -> {
+                                snapshot.compareAndSet(created, null);
+                                created.completeExceptionally(error);
+                            });
+            return created;
+        }
+    }
+
+    private boolean isStale(CompletableFuture<CatalogSnapshot> future) {
+        if (future.isCompletedExceptionally()) {
+            return true;
+        }
+        CatalogSnapshot loaded = future.getNow(null);
+        return loaded != null && System.nanoTime() - loaded.getLoadedAt() > expireAfterWriteNanos;
+    }
+
+    public static final class CatalogEntry {
+        private final Character character;
+        private final CharacterAnswerKey answerKey;
+        private final long version;
+
+        CatalogEntry(Character character, CharacterAnswerKey answerKey, long version) {
+            this.character = character;
+            this.answerKey = answerKey;
+            this.version = version;
+        }
+
+        public Character getCharacter() {
+            return character;
+        }
+
+        public CharacterAnswerKey getAnswerKey() {
+            return answerKey;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    // Además del catálogo completo guarda los personajes gratuitos (los que recibe un usuario al registrarse),
+    // ya filtrados y serializados, para que el registro no tenga que recorrer ni serializar nada
+    public static final class CatalogSnapshot {
+        private final List<Character> characters;
+        private final List<Character> charactersWithoutPieces;
+        private final Map<String, Integer> positions;
+        private final List<String> freeCharacterIds;
+        private final String freeCharacterIdsJson;
+        private final long version;
+        private final long loadedAt;
+
+        CatalogSnapshot(List<Character> characters, long version, long loadedAt) {
+            this.characters = List.copyOf(characters);
+            this.charactersWithoutPieces = this.characters.stream()
+                    .map(CatalogSnapshot::withoutPieces)
+                    .toList();
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < this.characters.size(); i++) {
+                positions.put(this.characters.get(i).getId(), i);
+            }
+            this.positions = positions;
+            this.freeCharacterIds = this.characters.stream()
+                    .filter(character -> character.getCost() == 0)
+                    .map(Character::getId)
+                    .toList();
+            this.freeCharacterIdsJson = toJson(freeCharacterIds);
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+
+        public List<Character> getCharacters() {
+            return characters;
+        }
+
+        // Resuelve solo los ids pedidos, en el orden del catálogo; sin piezas se devuelve la proyección ligera
+        public List<Character> findAllById(Collection<String> ids, boolean includePieces) {
+            List<Character> source = includePieces ? characters : charactersWithoutPieces;
+            return ids.stream()
+                    .map(positions::get)
+                    .filter(Objects::nonNull)
+                    .sorted()
+                    .map(source::get)
+                    .toList();
+        }
+
+        public List<String> getFreeCharacterIds() {
+            return freeCharacterIds;
+        }
+
+        public String getFreeCharacterIdsJson() {
+            return freeCharacterIdsJson;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        long getLoadedAt() {
+            return loadedAt;
+        }
+
+        private static Character withoutPieces(Character character) {
+            Character projection = new Character();
+            projection.setId(character.getId());
+            projection.setName(character.getName());
+            projection.setDescription(character.getDescription());
+            projection.setDifficulty(character.getDifficulty());
+            projection.setPowers(character.getPowers());
+            projection.setImageUrl(character.getImageUrl());
+            projection.setCost(character.getCost());
+            projection.setGameImageUrl(character.getGameImageUrl());
+            return projection;
+        }
+
+        private static String toJson(List<String> ids) {
+            try {
+                return JSON.writeValueAsString(ids);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("No se pudieron serializar los personajes gratuitos", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import org.springframework.http.HttpStatus;
+
+// Resultado de un elemento del lote, en la misma posición que en la petición.
+// status es el código HTTP que habría devuelto /builds/validate para ese build.
+public record BuildBatchResult(
+        int index,
+        String characterId,
+        int status,
+        Build build,
+        String error
+) {
+    public static BuildBatchResult validated(int index, Build build) {
+        return new BuildBatchResult(index, build.getCharacterId(), HttpStatus.OK.value(), build, null);
+    }
+
+    public static BuildBatchResult failed(int index, String characterId, HttpStatus status, String error) {
+        return new BuildBatchResult(index, characterId, status.value(), null, error);
+    }
+}
@@ -0,0 +1,7 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto;
+
+// "Has superado al X %": puntuación más alta y tiempo más bajo que ese porcentaje de montajes
+public record BuildPercentiles(
+        double scoreBeatsPercent,
+        double durationBeatsPercent
+) {}
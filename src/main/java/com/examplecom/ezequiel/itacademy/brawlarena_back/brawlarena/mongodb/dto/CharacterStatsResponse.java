@@ -0,0 +1,7 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto;
+
+public record CharacterStatsResponse(
+        String characterId,
+        PercentileSummary score,
+        PercentileSummary duration
+) {}
@@ -0,0 +1,29 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// Posición opaca en la galería: último (sharedAt, id) devuelto en la página anterior
+public record GalleryCursor(Instant sharedAt, String id) {
+
+    public String encode() {
+        String raw = sharedAt.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static GalleryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new GalleryCursor(
+                    Instant.ofEpochMilli(Long.parseLong(raw.substring(0, separator))),
+                    raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
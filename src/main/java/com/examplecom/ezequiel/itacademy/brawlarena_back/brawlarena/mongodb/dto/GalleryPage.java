@@ -0,0 +1,11 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.SharedModel;
+
+import java.util.List;
+
+// nextCursor es null cuando no hay más páginas
+public record GalleryPage(
+        List<SharedModel> items,
+        String nextCursor
+) {}
@@ -0,0 +1,8 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto;
+
+// Ranking de competición: los empates comparten posición (1, 2, 2, 4...)
+public record LeaderboardEntry(
+        int rank,
+        String playerId,
+        int score
+) {}
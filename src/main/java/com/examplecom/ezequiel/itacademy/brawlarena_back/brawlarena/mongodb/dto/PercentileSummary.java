@@ -0,0 +1,11 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto;
+
+// Valores aproximados (error relativo < 3 %) calculados sobre el histograma del personaje
+public record PercentileSummary(
+        long count,
+        long min,
+        long p50,
+        long p90,
+        long p99,
+        long max
+) {}
@@ -0,0 +1,11 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+
+import java.util.Map;
+
+// Incluye todos los poderes, con 0 los que el jugador todavía no ha trabajado
+public record PowerMasteryResponse(
+        String playerId,
+        Map<Power, Integer> mastery
+) {}
@@ -0,0 +1,17 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto;
+
+import java.time.Instant;
+
+// Estado del recálculo de puntuaciones; buildsPerSecond se mide sobre la ejecución actual
+public record RescoringProgress(
+        String state,
+        long rulesVersion,
+        long processed,
+        long changed,
+        long skipped,
+        String lastBuildId,
+        Instant startedAt,
+        Instant updatedAt,
+        double buildsPerSecond,
+        String error
+) {}
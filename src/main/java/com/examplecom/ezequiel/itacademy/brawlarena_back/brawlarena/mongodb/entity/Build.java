@@ -4,9 +4,12 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import nonapi.io.github.classgraph.json.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.annotation.Transient;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.BuildPercentiles;
 
 
 
@@ -18,6 +21,18 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "builds")
+@CompoundIndexes({
+        @CompoundIndex(name = "player_character_valid_idx", def = "{'playerId': 1, 'characterId': 1, 'valid': 1}"),
+        // Un único build pendiente por jugador y personaje (en bases existentes, antes db/dedupe_pending_builds.js)
+        @CompoundIndex(name = "pending_build_unique_idx", def = "{'playerId': 1, 'characterId': 1}",
+                unique = true, partialFilter = "{'valid': false}"),
+        // Carga inicial de las clasificaciones: builds válidos por personaje y puntuación
+        @CompoundIndex(name = "leaderboard_idx", def = "{'characterId': 1, 'score': -1}",
+                partialFilter = "{'valid': true}"),
+        // Limpieza de builds pendientes abandonados, del más antiguo al más reciente
+        @CompoundIndex(name = "pending_created_idx", def = "{'createdAt': 1}",
+                partialFilter = "{'valid': false}")
+})
 public class Build {
 
     @Id
@@ -39,4 +54,7 @@ public class Build {
     @Transient
     private Map<Power, Integer> powerProgress;
 
+    @Transient
+    private BuildPercentiles percentiles;
+
 }
@@ -0,0 +1,34 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+// Checkpoint de los histogramas en memoria de un personaje (_id = characterId)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "character_histograms")
+public class CharacterHistogram {
+
+    @Id
+    private String id;
+
+    private Counts score;
+    private Counts duration;
+    private Instant checkpointAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Counts {
+        private List<Long> buckets;
+        private long min;
+        private long max;
+    }
+}
@@ -0,0 +1,32 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Respuesta guardada para una Idempotency-Key (_id = método, ruta con query, jugador y clave).
+// fingerprint es el hash de los parámetros y el cuerpo de la petición que la generó.
+// El índice TTL borra el documento cuando se alcanza expiresAt.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    private String id;
+
+    private int status;
+    private String contentType;
+    private byte[] body;
+    private String fingerprint;
+    private Instant createdAt;
+
+    @Indexed(name = "idempotency_ttl_idx", expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
@@ -0,0 +1,30 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Intento de login fallido compartido entre nodos (key = "nick:..." o "ip:...").
+// El índice TTL borra el documento cuando sale de la ventana de bloqueo.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "login_failures")
+@CompoundIndex(name = "login_failures_key_at_idx", def = "{'key': 1, 'at': 1}")
+public class LoginFailure {
+
+    @Id
+    private String id;
+
+    private String key;
+    private Instant at;
+
+    @Indexed(name = "login_failures_ttl_idx", expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
@@ -0,0 +1,42 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Resumen acumulado de un jugador con un personaje. Se actualiza con un único upsert atómico
+// al validar cada build; el _id compuesto permite consultarlo con una lectura por clave.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "player_stats")
+public class PlayerStats {
+
+    @Id
+    private String id;
+
+    @Indexed(name = "player_stats_player_idx")
+    private String playerId;
+    private String characterId;
+
+    private long completions;
+    private int bestScore;
+    private Long bestDuration;
+
+    private String lastBuildId;
+    private int lastScore;
+    private Instant lastCompletedAt;
+
+    private long totalScore;
+    private long totalDuration;
+    private long totalErrors;
+
+    public static String idOf(String playerId, String characterId) {
+        return playerId + ":" + characterId;
+    }
+}
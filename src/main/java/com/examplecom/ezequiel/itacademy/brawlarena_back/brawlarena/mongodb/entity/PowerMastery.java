@@ -0,0 +1,35 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+// Dominio acumulado de poderes de un jugador (_id = playerId).
+// progress es un array compacto indexado por Power.ordinal(); cada build validado suma con $inc.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "power_mastery")
+public class PowerMastery {
+
+    @Id
+    private String id;
+
+    private List<Integer> progress;
+    private Instant updatedAt;
+
+    // Los poderes añadidos después de crear el documento (o posiciones aún no escritas) valen 0
+    public int progressOf(Power power) {
+        if (progress == null || power.ordinal() >= progress.size()) {
+            return 0;
+        }
+        Integer value = progress.get(power.ordinal());
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Punto de reanudación del recálculo de puntuaciones: último _id procesado y contadores acumulados.
+// rulesHash identifica las reglas con las que se empezó; solo se reanuda si las vigentes son las mismas.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "rescoring_checkpoints")
+public class RescoringCheckpoint {
+
+    @Id
+    private String id;
+
+    private String lastBuildId;
+    private long rulesVersion;
+    private String rulesHash;
+    private long processed;
+    private long changed;
+    private long skipped;
+    private String state;
+    private Instant startedAt;
+    private Instant updatedAt;
+}
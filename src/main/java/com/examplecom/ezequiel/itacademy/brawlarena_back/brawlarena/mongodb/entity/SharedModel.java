@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import nonapi.io.github.classgraph.json.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -13,6 +15,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "shared_models")
+// Índices para la paginación por cursor de la galería: igualdad, orden y rango (score) en ese orden
+@CompoundIndexes({
+        @CompoundIndex(name = "gallery_keyset_idx", def = "{'sharedAt': -1, '_id': -1, 'score': 1}"),
+        @CompoundIndex(name = "gallery_character_keyset_idx", def = "{'characterId': 1, 'sharedAt': -1, '_id': -1, 'score': 1}")
+})
 public class SharedModel {
 
     @Id
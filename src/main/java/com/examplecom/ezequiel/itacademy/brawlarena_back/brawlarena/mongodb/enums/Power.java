@@ -1,5 +1,6 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums;
 
+// El ordinal se persiste en power_mastery: los poderes nuevos se añaden al final, nunca se reordenan
 public enum Power {
 
     //!* Cullien
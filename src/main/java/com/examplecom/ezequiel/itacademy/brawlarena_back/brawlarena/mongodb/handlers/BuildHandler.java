@@ -1,16 +1,21 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.validator.BuildValidator;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.IdempotencyStore;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.BuildAlreadyExistsException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.BuildAlreadyValidatedException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterAccessDeniedException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.NoPendingBuildException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.BuildBatchResult;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.BuildService;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.JwtService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -35,10 +40,12 @@ public class BuildHandler {
     private static final Logger logger = LoggerFactory.getLogger(CharacterHandler.class);
     private final BuildService buildService;
     private final JwtService jwtService;
+    private final IdempotencyStore idempotencyStore;
 
-    public BuildHandler(BuildService buildService, JwtService jwtService) {
+    public BuildHandler(BuildService buildService, JwtService jwtService, IdempotencyStore idempotencyStore) {
         this.buildService = buildService;
         this.jwtService = jwtService;
+        this.idempotencyStore = idempotencyStore;
 
     }
 
@@ -109,6 +116,9 @@ public class BuildHandler {
             description = "Valida un intento de construcción para un personaje previamente desbloqueado. Calcula la puntuación y marca el build como válido.",
             operationId = "validateBuild",
             security = @SecurityRequirement(name = "bearerAuth"),
+            parameters = {
+                    @Parameter(name = IdempotencyStore.HEADER, in = ParameterIn.HEADER, required = false, description = "Clave única del intento; un reintento con la misma clave recibe la respuesta guardada sin repetir la operación. Reutilizarla con otros parámetros o cuerpo devuelve 422")
+            },
             requestBody = @RequestBody(
                     description = "Datos necesarios para validar el build: ID del personaje, piezas colocadas y duración.",
                     required = true,
@@ -146,6 +156,14 @@ public class BuildHandler {
                             responseCode = "404",
                             description = "No hay una sesión de montaje pendiente para este personaje"
                     ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "El montaje ya se ha validado en otra petición"
+                    ),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "La cabecera Idempotency-Key ya se usó con otra petición"
+                    ),
                     @ApiResponse(
                             responseCode = "500",
                             description = "Error interno al validar el montaje"
@@ -157,24 +175,92 @@ public class BuildHandler {
                 .switchIfEmpty(Mono.error(new UserNotFoundException("Autenticación requerida")))
                 .cast(Authentication.class)
                 .map(Authentication::getName)
-                .flatMap(playerId ->
-                        request.bodyToMono(Build.class)
-                                .flatMap(buildData -> {
-                                    try {
-                                        BuildValidator.validateBuildData(buildData);
-                                    } catch (IllegalArgumentException ex) {
-                                        logger.warn("Validación fallida para build del jugador {}: {}", playerId, ex.getMessage());
-                                        return ServerResponse.badRequest().bodyValue(ex.getMessage());
-                                    }
+                // El cuerpo se lee antes para que entre en el hash de la Idempotency-Key
+                .flatMap(playerId -> request.bodyToMono(Build.class)
+                        .flatMap(buildData -> idempotencyStore.execute(request, playerId, buildData, () -> {
+                            try {
+                                BuildValidator.validateBuildData(buildData);
+                            } catch (IllegalArgumentException ex) {
+                                logger.warn("Validación fallida para build del jugador {}: {}", playerId, ex.getMessage());
+                                return ServerResponse.badRequest().bodyValue(ex.getMessage());
+                            }
 
-                                    logger.info("Solicitud recibida para validar build de jugador {}", playerId);
-                                    return buildService.validateBuild(playerId, buildData)
-                                            .flatMap(dto -> ServerResponse.ok().bodyValue(dto));
-                                })
-                )
+                            logger.info("Solicitud recibida para validar build de jugador {}", playerId);
+                            return buildService.validateBuild(playerId, buildData)
+                                    .flatMap(dto -> ServerResponse.ok().bodyValue(dto))
+                                    .onErrorResume(NoPendingBuildException.class, e ->
+                                            ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(e.getMessage()))
+                                    .onErrorResume(BuildAlreadyValidatedException.class, e ->
+                                            ServerResponse.status(HttpStatus.CONFLICT).bodyValue(e.getMessage()));
+                        })))
                 .doOnError(error -> logger.error("Error al validar build: {}", error.getMessage()));
     }
 
+    @Operation(
+            summary = "Validar un lote de montajes",
+            description = "Valida en una sola petición los montajes que el cliente encoló sin conexión (máximo 50). Cada elemento se procesa como en /builds/validate y devuelve su propio código de estado; un error en uno no afecta a los demás.",
+            operationId = "validateBuildsBatch",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            parameters = {
+                    @Parameter(name = IdempotencyStore.HEADER, in = ParameterIn.HEADER, required = false, description = "Clave única del intento; un reintento con la misma clave recibe la respuesta guardada sin repetir la operación. Reutilizarla con otros parámetros o cuerpo devuelve 422")
+            },
+            requestBody = @RequestBody(
+                    description = "Lista de montajes a validar, con el mismo formato que /builds/validate.",
+                    required = true,
+                    content = @Content(
+                            array = @ArraySchema(schema = @Schema(implementation = Build.class)),
+                            examples = @ExampleObject(
+                                    name = "Ejemplo de lote",
+                                    value = """
+                                [
+                                  { "characterId": "680743b8485a1c9f6c909003", "piecesPlaced": ["piece223", "piece556"], "duration": 52 },
+                                  { "characterId": "680743b8485a1c9f6c909004", "piecesPlaced": ["piece101"], "duration": 75 }
+                                ]
+                                """
+                            )
+                    )
+            )
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Lote procesado; cada elemento indica su estado (200, 400, 403, 404 o 409)",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = BuildBatchResult.class)))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Lote vacío o con más elementos de los permitidos"
+                    ),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "La cabecera Idempotency-Key ya se usó con otra petición"
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Error interno al validar el lote"
+                    )
+            }
+    )
+    public Mono<ServerResponse> validateBuildsBatch(ServerRequest request) {
+        return request.principal()
+                .switchIfEmpty(Mono.error(new UserNotFoundException("Autenticación requerida")))
+                .cast(Authentication.class)
+                .map(Authentication::getName)
+                .flatMap(playerId -> request.bodyToFlux(Build.class)
+                        .collectList()
+                        .flatMap(builds -> idempotencyStore.execute(request, playerId, builds, () -> {
+                            logger.info("Solicitud recibida para validar un lote de {} builds del jugador {}", builds.size(), playerId);
+                            return Mono.defer(() -> buildService.validateBuilds(playerId, builds))
+                                    .flatMap(resultados -> ServerResponse.ok().bodyValue(resultados))
+                                    .onErrorResume(IllegalArgumentException.class, e -> {
+                                        logger.warn("Lote rechazado para el jugador {}: {}", playerId, e.getMessage());
+                                        return ServerResponse.badRequest().bodyValue(e.getMessage());
+                                    });
+                        })))
+                .doOnError(error -> logger.error("Error al validar lote de builds: {}", error.getMessage()));
+    }
+
     @Operation(
             summary = "Obtener historial de montajes",
             description = "Devuelve el historial de montajes validados realizados por el jugador autenticado, ordenados por fecha de creación.",
@@ -280,4 +366,44 @@ public class BuildHandler {
                 });
     }
 
-}
\ No newline at end of file
+    @Operation(
+            summary = "Obtener estadísticas del jugador",
+            description = "Devuelve, por personaje, los montajes completados, la mejor puntuación, el mejor tiempo, el último build y los totales acumulados del jugador autenticado.",
+            operationId = "getPlayerStats",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Estadísticas obtenidas correctamente",
+                            content = @Content(schema = @Schema(implementation = PlayerStats.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "204",
+                            description = "El jugador todavía no ha completado ningún montaje"
+                    ),
+                    @ApiResponse(
+                            responseCode = "401",
+                            description = "Autenticación requerida o token inválido"
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Error interno al recuperar las estadísticas"
+                    )
+            }
+    )
+    public Mono<ServerResponse> getPlayerStats(ServerRequest request) {
+        return request.principal()
+                .switchIfEmpty(Mono.error(new UserNotFoundException("Autenticación requerida")))
+                .cast(Authentication.class)
+                .map(Authentication::getName)
+                .flatMap(playerId -> buildService.getPlayerStats(playerId)
+                        .collectList()
+                        .flatMap(stats -> stats.isEmpty()
+                                ? ServerResponse.noContent().build()
+                                : ServerResponse.ok().bodyValue(stats)))
+                .doOnError(error -> logger.error("Error al recuperar estadísticas del jugador: {}", error.getMessage()));
+    }
+
+}
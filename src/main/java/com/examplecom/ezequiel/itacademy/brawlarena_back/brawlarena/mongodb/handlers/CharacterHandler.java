@@ -1,5 +1,7 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.IdempotencyStore;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.JsonResponseCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterResponse;
@@ -52,20 +54,25 @@ public class CharacterHandler {
     private final UserRepository userRepository;
     private final ObjectMapper objectMapper;
     private final PieceRepository pieceRepository;
-
+    private final JsonResponseCache responseCache;
+    private final IdempotencyStore idempotencyStore;
 
     public CharacterHandler(
             CharacterService characterService,
             JwtService jwtService,
             UserRepository userRepository,
             ObjectMapper objectMapper,
-            PieceRepository pieceRepository
+            PieceRepository pieceRepository,
+            JsonResponseCache responseCache,
+            IdempotencyStore idempotencyStore
     ) {
         this.characterService = characterService;
         this.jwtService = jwtService;
         this.userRepository = userRepository;
         this.objectMapper = objectMapper;
         this.pieceRepository = pieceRepository;
+        this.responseCache = responseCache;
+        this.idempotencyStore = idempotencyStore;
     }
 
 
@@ -109,12 +116,10 @@ public class CharacterHandler {
             }
     )
     public Mono<ServerResponse> getAllCharacters(ServerRequest request) {
-        return characterService.getAllCharacters()
-                .map(this::mapToPublicResponse)
-                .collectList()
-                .flatMap(list -> ServerResponse.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(list));
+        return responseCache.respond(request, JsonResponseCache.CHARACTERS_ALL, () ->
+                characterService.getAllCharacters()
+                        .map(this::mapToPublicResponse)
+                        .collectList());
     }
 
     private CharacterResponse mapToPublicResponse(Character character) {
@@ -133,28 +138,32 @@ public class CharacterHandler {
     }
 
     @Operation(
-            summary = "Desbloquear personaje",
-            description = "Permite desbloquear un personaje específico para el jugador autenticado mediante su ID.",
-            operationId = "unlockCharacter",
-            security = @SecurityRequirement(name = "bearerAuth")
+            summary = "Obtener personajes desbloqueados",
+            description = "Devuelve los personajes que el jugador autenticado tiene desbloqueados, en el orden del catálogo.",
+            operationId = "getUnlockedCharacters",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            parameters = {
+                    @Parameter(
+                            name = "includePieces",
+                            in = ParameterIn.QUERY,
+                            required = false,
+                            description = "Si es true incluye las piezas de cada personaje; por defecto se omiten"
+                    )
+            }
     )
     @ApiResponses(
             value = {
                     @ApiResponse(
                             responseCode = "200",
-                            description = "Personaje desbloqueado correctamente o ya estaba desbloqueado"
+                            description = "Personajes desbloqueados obtenidos correctamente"
                     ),
                     @ApiResponse(
-                            responseCode = "400",
-                            description = "Falta el parámetro 'characterId'"
-                    ),
-                    @ApiResponse(
-                            responseCode = "404",
-                            description = "Personaje no encontrado"
+                            responseCode = "204",
+                            description = "El jugador no tiene personajes desbloqueados"
                     ),
                     @ApiResponse(
                             responseCode = "500",
-                            description = "Error interno al intentar desbloquear el personaje"
+                            description = "Error interno al obtener los personajes desbloqueados"
                     )
             }
     )
@@ -164,7 +173,10 @@ public class CharacterHandler {
                 .map(Authentication::getName)
                 .flatMap(playerId -> {
                     logger.info("Solicitud recibida: obtener personajes desbloqueados para playerId: {}", playerId);
-                    return characterService.getUnlockedCharacters(playerId)
+                    boolean includePieces = request.queryParam("includePieces")
+                            .map(Boolean::parseBoolean)
+                            .orElse(false);
+                    return characterService.getUnlockedCharacters(playerId, includePieces)
                             .collectList()
                             .flatMap(characters -> {
                                 if (characters.isEmpty()) {
@@ -186,7 +198,8 @@ public class CharacterHandler {
                             in = ParameterIn.QUERY,
                             required = true,
                             description = "ID del personaje que se desea desbloquear"
-                    )
+                    ),
+                    @Parameter(name = IdempotencyStore.HEADER, in = ParameterIn.HEADER, required = false, description = "Clave única del intento; un reintento con la misma clave recibe la respuesta guardada sin repetir la operación. Reutilizarla con otros parámetros o cuerpo devuelve 422")
             }
     )
     @ApiResponses(
@@ -203,6 +216,10 @@ public class CharacterHandler {
                             responseCode = "404",
                             description = "Personaje no encontrado"
                     ),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "La cabecera Idempotency-Key ya se usó con otra petición"
+                    ),
                     @ApiResponse(
                             responseCode = "500",
                             description = "Error interno al intentar desbloquear el personaje"
@@ -221,7 +238,7 @@ public class CharacterHandler {
         return request.principal()
                 .cast(Authentication.class)
                 .map(Authentication::getName)
-                .flatMap(playerId -> {
+                .flatMap(playerId -> idempotencyStore.execute(request, playerId, () -> {
                     logger.info("Solicitud de desbloqueo de personaje {} por parte de playerId: {}", characterId, playerId);
                     return characterService.unlockCharacter(playerId, characterId)
                             .flatMap(unlocked -> {
@@ -231,7 +248,7 @@ public class CharacterHandler {
                                     return ServerResponse.ok().bodyValue("El personaje ya estaba desbloqueado");
                                 }
                             });
-                });
+                }));
     }
 
     @Operation(
@@ -268,8 +285,8 @@ public class CharacterHandler {
         String characterId = request.pathVariable("id");
         logger.info("Solicitud recibida: detalles del personaje con ID {}", characterId);
 
-        return characterService.getCharacterDetail(characterId)
-                .flatMap(character -> ServerResponse.ok().bodyValue(character));
+        return responseCache.respond(request, JsonResponseCache.characterKey(characterId), () ->
+                characterService.getCharacterDetail(characterId));
     }
 
     @Operation(
@@ -1,5 +1,7 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.IdempotencyStore;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.JsonResponseCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.*;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.SharedModel;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.GalleryService;
@@ -28,17 +30,28 @@ import reactor.core.publisher.Mono;
 public class GalleryHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GalleryHandler.class);
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final GalleryService galleryService;
+    private final JsonResponseCache responseCache;
+    private final IdempotencyStore idempotencyStore;
 
-    public GalleryHandler(GalleryService galleryService) {
+    public GalleryHandler(GalleryService galleryService, JsonResponseCache responseCache, IdempotencyStore idempotencyStore) {
         this.galleryService = galleryService;
+        this.responseCache = responseCache;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @Operation(
             summary = "Obtener galería pública",
-            description = "Devuelve la lista de todos los modelos compartidos públicamente por los jugadores.",
+            description = "Devuelve una página de modelos compartidos, del más reciente al más antiguo. Si hay más resultados, la cabecera 'X-Next-Cursor' contiene el cursor de la página siguiente.",
             security = @SecurityRequirement(name = "bearerAuth"),
-            operationId = "getPublicGallery"
+            operationId = "getPublicGallery",
+            parameters = {
+                    @Parameter(name = "limit", in = ParameterIn.QUERY, description = "Tamaño de página (1-100, por defecto 20)", example = "20"),
+                    @Parameter(name = "cursor", in = ParameterIn.QUERY, description = "Cursor opaco devuelto en 'X-Next-Cursor'"),
+                    @Parameter(name = "characterId", in = ParameterIn.QUERY, description = "Filtra por personaje", example = "680743b8485a1c9f6c909003"),
+                    @Parameter(name = "minScore", in = ParameterIn.QUERY, description = "Puntuación mínima", example = "500")
+            }
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -46,6 +59,10 @@ public class GalleryHandler {
                     description = "Modelos compartidos obtenidos correctamente",
                     content = @Content(schema = @Schema(implementation = SharedModel.class))
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Parámetros de paginación inválidos"
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Error interno al recuperar la galería"
@@ -54,12 +71,36 @@ public class GalleryHandler {
     public Mono<ServerResponse> getPublicGallery(ServerRequest request) {
         logger.info("Solicitud recibida: obtener galería pública de modelos compartidos");
 
-        return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(galleryService.getPublicGallery(), SharedModel.class)
+        return Mono.defer(() -> galleryService.getPublicGallery(
+                        integerParam(request, "limit"),
+                        request.queryParam("cursor").orElse(null),
+                        request.queryParam("characterId").orElse(null),
+                        integerParam(request, "minScore")))
+                .flatMap(page -> {
+                    ServerResponse.BodyBuilder response = ServerResponse.ok().contentType(MediaType.APPLICATION_JSON);
+                    if (page.nextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return response.bodyValue(page.items());
+                })
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        ServerResponse.badRequest().bodyValue(e.getMessage()))
                 .doOnError(error -> logger.error("Error al procesar galería pública: {}", error.getMessage()));
     }
 
+    private static Integer integerParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .filter(StringUtils::hasText)
+                .map(value -> {
+                    try {
+                        return Integer.valueOf(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Parámetro '" + name + "' inválido");
+                    }
+                })
+                .orElse(null);
+    }
+
     @Operation(
             summary = "Compartir modelo completado",
             description = "Permite al jugador compartir un modelo completado en la galería pública. Requiere autenticación.",
@@ -72,7 +113,8 @@ public class GalleryHandler {
                             required = true,
                             description = "ID del personaje completado que se quiere compartir",
                             example = "680743b8485a1c9f6c909003"
-                    )
+                    ),
+                    @Parameter(name = IdempotencyStore.HEADER, in = ParameterIn.HEADER, required = false, description = "Clave única del intento; un reintento con la misma clave recibe la respuesta guardada sin repetir la operación. Reutilizarla con otros parámetros o cuerpo devuelve 422")
             }
     )
     @ApiResponses(
@@ -94,6 +136,10 @@ public class GalleryHandler {
                     responseCode = "404",
                     description = "Build válido no encontrado"
             ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "La cabecera Idempotency-Key ya se usó con otra petición"
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Error interno al compartir modelo"
@@ -104,19 +150,19 @@ public class GalleryHandler {
                 .switchIfEmpty(Mono.error(new UserNotFoundException("Autenticación requerida")))
                 .cast(Authentication.class)
                 .map(Authentication::getName)
-                .flatMap(playerId -> {
+                .flatMap(playerId -> idempotencyStore.execute(request, playerId, () -> {
                     String characterId = request.queryParam("characterId").orElse(null);
                     if (!StringUtils.hasText(characterId)) {
                         return Mono.error(new IllegalArgumentException("characterId no puede estar vacío"));
                     }
 
                     logger.info("Solicitud para compartir modelo: playerId={}, characterId={}", playerId, characterId);
-                    return galleryService.shareModel(playerId, characterId);
-                })
-                .flatMap(shared -> {
-                    logger.info("Modelo compartido exitosamente");
-                    return ServerResponse.ok().bodyValue(shared);
-                });
+                    return galleryService.shareModel(playerId, characterId)
+                            .flatMap(shared -> {
+                                logger.info("Modelo compartido exitosamente");
+                                return ServerResponse.ok().bodyValue(shared);
+                            });
+                }));
     }
 
     @Operation(
@@ -140,12 +186,10 @@ public class GalleryHandler {
             )
     })
     public Mono<ServerResponse> getHighlightedModel(ServerRequest request) {
-        return galleryService.getHighlightedModel()
-                .switchIfEmpty(Mono.error(new ModelNotFoundException("No hay jugador destacado actualmente"))) // Lanzar error si no se encuentra el modelo destacado
-                .flatMap(model -> {
-                    logger.info("Modelo destacado encontrado: playerId={}, characterId={}", model.getPlayerId(), model.getCharacterId());
-                    return ServerResponse.ok().bodyValue(model);
-                });
+        return responseCache.respond(request, JsonResponseCache.GALLERY_HIGHLIGHTED, () ->
+                galleryService.getHighlightedModel()
+                        .switchIfEmpty(Mono.error(new ModelNotFoundException("No hay jugador destacado actualmente"))) // Lanzar error si no se encuentra el modelo destacado
+                        .doOnNext(model -> logger.info("Modelo destacado encontrado: playerId={}, characterId={}", model.getPlayerId(), model.getCharacterId())));
     }
 
     @Operation(
@@ -0,0 +1,116 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.BuildNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.LeaderboardEntry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.LeaderboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+@Component
+public class LeaderboardHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardHandler.class);
+    private final LeaderboardService leaderboardService;
+
+    public LeaderboardHandler(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @Operation(
+            summary = "Obtener clasificación de un personaje",
+            description = "Devuelve las mejores puntuaciones de un personaje, una por jugador, de mayor a menor. Los empates comparten posición.",
+            operationId = "getLeaderboard",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            parameters = {
+                    @Parameter(name = "characterId", in = ParameterIn.PATH, required = true, description = "ID del personaje"),
+                    @Parameter(name = "limit", in = ParameterIn.QUERY, description = "Número de posiciones (1-100, por defecto 10)", example = "10")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Clasificación obtenida correctamente",
+                    content = @Content(schema = @Schema(implementation = LeaderboardEntry.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Parámetro 'limit' inválido"),
+            @ApiResponse(responseCode = "404", description = "Personaje no encontrado"),
+            @ApiResponse(responseCode = "500", description = "Error interno al recuperar la clasificación")
+    })
+    public Mono<ServerResponse> getLeaderboard(ServerRequest request) {
+        String characterId = request.pathVariable("characterId");
+        logger.info("Solicitud recibida: clasificación del personaje {}", characterId);
+
+        return Mono.defer(() -> leaderboardService.getTop(characterId, integerParam(request, "limit")))
+                .flatMap(top -> ServerResponse.ok().bodyValue(top))
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        ServerResponse.badRequest().bodyValue(e.getMessage()))
+                .onErrorResume(CharacterNotFoundException.class, e ->
+                        ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(e.getMessage()))
+                .doOnError(error -> logger.error("Error al recuperar clasificación: {}", error.getMessage()));
+    }
+
+    @Operation(
+            summary = "Obtener mi posición en la clasificación",
+            description = "Devuelve la posición y la mejor puntuación del jugador autenticado en la clasificación de un personaje.",
+            operationId = "getMyRank",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            parameters = {
+                    @Parameter(name = "characterId", in = ParameterIn.PATH, required = true, description = "ID del personaje")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Posición obtenida correctamente",
+                    content = @Content(schema = @Schema(implementation = LeaderboardEntry.class))
+            ),
+            @ApiResponse(responseCode = "401", description = "Autenticación requerida o token inválido"),
+            @ApiResponse(responseCode = "404", description = "Personaje no encontrado o el jugador no tiene montajes válidos"),
+            @ApiResponse(responseCode = "500", description = "Error interno al recuperar la posición")
+    })
+    public Mono<ServerResponse> getMyRank(ServerRequest request) {
+        String characterId = request.pathVariable("characterId");
+
+        return request.principal()
+                .switchIfEmpty(Mono.error(new UserNotFoundException("Autenticación requerida")))
+                .cast(Authentication.class)
+                .map(Authentication::getName)
+                .flatMap(playerId -> leaderboardService.getPlayerRank(characterId, playerId))
+                .flatMap(rank -> ServerResponse.ok().bodyValue(rank))
+                .onErrorResume(CharacterNotFoundException.class, e ->
+                        ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(e.getMessage()))
+                .onErrorResume(BuildNotFoundException.class, e ->
+                        ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(e.getMessage()))
+                .doOnError(error -> logger.error("Error al recuperar posición en la clasificación: {}", error.getMessage()));
+    }
+
+    private static Integer integerParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .filter(StringUtils::hasText)
+                .map(value -> {
+                    try {
+                        return Integer.valueOf(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Parámetro '" + name + "' inválido");
+                    }
+                })
+                .orElse(null);
+    }
+}
@@ -0,0 +1,65 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.PowerMasteryResponse;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.PowerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+@Component
+public class PowerHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PowerHandler.class);
+    private final PowerService powerService;
+
+    public PowerHandler(PowerService powerService) {
+        this.powerService = powerService;
+    }
+
+    @Operation(
+            summary = "Obtener dominio de poderes",
+            description = "Devuelve el progreso acumulado de cada poder para el jugador autenticado, sumado a partir de todos sus montajes validados.",
+            operationId = "getPowerMastery",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Dominio de poderes obtenido correctamente",
+                            content = @Content(schema = @Schema(implementation = PowerMasteryResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "401",
+                            description = "Autenticación requerida o token inválido"
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Error interno al recuperar el dominio de poderes"
+                    )
+            }
+    )
+    public Mono<ServerResponse> getPowerMastery(ServerRequest request) {
+        return request.principal()
+                .switchIfEmpty(Mono.error(new UserNotFoundException("Autenticación requerida")))
+                .cast(Authentication.class)
+                .map(Authentication::getName)
+                .flatMap(playerId -> {
+                    logger.info("Solicitud recibida para obtener dominio de poderes del jugador {}", playerId);
+                    return powerService.getPowerMastery(playerId);
+                })
+                .flatMap(mastery -> ServerResponse.ok().bodyValue(mastery))
+                .doOnError(error -> logger.error("Error al obtener dominio de poderes: {}", error.getMessage()));
+    }
+}
@@ -0,0 +1,60 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterStatsResponse;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.CharacterStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+@Component
+public class StatsHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsHandler.class);
+    private final CharacterStatsService characterStatsService;
+
+    public StatsHandler(CharacterStatsService characterStatsService) {
+        this.characterStatsService = characterStatsService;
+    }
+
+    @Operation(
+            summary = "Obtener percentiles de un personaje",
+            description = "Devuelve p50, p90 y p99 de puntuación y duración de los montajes validados de un personaje, calculados sobre histogramas en memoria.",
+            operationId = "getCharacterStats",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            parameters = {
+                    @Parameter(name = "characterId", in = ParameterIn.PATH, required = true, description = "ID del personaje")
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Percentiles obtenidos correctamente",
+                    content = @Content(schema = @Schema(implementation = CharacterStatsResponse.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Personaje no encontrado"),
+            @ApiResponse(responseCode = "500", description = "Error interno al recuperar las estadísticas")
+    })
+    public Mono<ServerResponse> getCharacterStats(ServerRequest request) {
+        String characterId = request.pathVariable("characterId");
+        logger.info("Solicitud recibida: percentiles del personaje {}", characterId);
+
+        return characterStatsService.getCharacterStats(characterId)
+                .flatMap(stats -> ServerResponse.ok().bodyValue(stats))
+                .onErrorResume(CharacterNotFoundException.class, e ->
+                        ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(e.getMessage()))
+                .doOnError(error -> logger.error("Error al recuperar percentiles: {}", error.getMessage()));
+    }
+}
@@ -0,0 +1,115 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.LeaderboardEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+// Clasificación en memoria de un personaje: mejor puntuación de cada jugador.
+// - ranking (árbol ordenado por score desc, playerId asc) sirve el top-K en O(log n + K)
+// - un árbol de Fenwick sobre cubetas de puntuación da la posición de un jugador en O(log S)
+// El acceso está serializado por instancia; cada personaje tiene la suya.
+public final class CharacterLeaderboard {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final Comparator<Score> ORDEN = Comparator.comparingInt(Score::score).reversed()
+            .thenComparing(Score::playerId);
+
+    private final Map<String, Integer> bestScores = new HashMap<>();
+    private final TreeSet<Score> ranking = new TreeSet<>(ORDEN);
+
+    // Índice i (1..capacity) = número de jugadores con puntuación i-1
+    private int[] fenwick = new int[INITIAL_CAPACITY + 1];
+
+    // Devuelve true si la puntuación mejora la anterior del jugador
+    public synchronized boolean record(String playerId, int score) {
+        int normalizado = Math.max(score, 0);
+        Integer actual = bestScores.get(playerId);
+        if (actual != null && actual >= normalizado) {
+            return false;
+        }
+
+        if (actual != null) {
+            ranking.remove(new Score(playerId, actual));
+            add(actual, -1);
+            bestScores.remove(playerId);
+        }
+        ensureCapacity(normalizado);
+        bestScores.put(playerId, normalizado);
+        ranking.add(new Score(playerId, normalizado));
+        add(normalizado, 1);
+        return true;
+    }
+
+    public synchronized List<LeaderboardEntry> top(int limit) {
+        List<LeaderboardEntry> top = new ArrayList<>(Math.min(limit, ranking.size()));
+        Iterator<Score> it = ranking.iterator();
+        int posicion = 0;
+        int rank = 0;
+        int scoreAnterior = Integer.MIN_VALUE;
+
+        while (it.hasNext() && top.size() < limit) {
+            Score entry = it.next();
+            posicion++;
+            if (entry.score() != scoreAnterior) {
+                rank = posicion;
+                scoreAnterior = entry.score();
+            }
+            top.add(new LeaderboardEntry(rank, entry.playerId(), entry.score()));
+        }
+        return top;
+    }
+
+    public synchronized Optional<LeaderboardEntry> rankOf(String playerId) {
+        Integer score = bestScores.get(playerId);
+        if (score == null) {
+            return Optional.empty();
+        }
+        // Jugadores con puntuación estrictamente mayor = total - (puntuación <= score)
+        int porEncima = bestScores.size() - prefixSum(score);
+        return Optional.of(new LeaderboardEntry(porEncima + 1, playerId, score));
+    }
+
+    public synchronized int size() {
+        return bestScores.size();
+    }
+
+    private void add(int score, int delta) {
+        for (int i = score + 1; i < fenwick.length; i += i & -i) {
+            fenwick[i] += delta;
+        }
+    }
+
+    // Número de jugadores con puntuación <= score
+    private int prefixSum(int score) {
+        int suma = 0;
+        for (int i = Math.min(score + 1, fenwick.length - 1); i > 0; i -= i & -i) {
+            suma += fenwick[i];
+        }
+        return suma;
+    }
+
+    // Al superar la capacidad se duplica y se reconstruye el árbol: O(n log S), muy poco frecuente
+    private void ensureCapacity(int score) {
+        if (score + 1 < fenwick.length) {
+            return;
+        }
+        int capacity = fenwick.length - 1;
+        while (capacity <= score) {
+            capacity <<= 1;
+        }
+        fenwick = new int[capacity + 1];
+        for (int existente : bestScores.values()) {
+            add(existente, 1);
+        }
+    }
+
+    private record Score(String playerId, int score) {
+    }
+}
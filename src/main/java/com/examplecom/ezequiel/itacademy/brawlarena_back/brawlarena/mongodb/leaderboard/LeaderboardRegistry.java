@@ -0,0 +1,100 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.LeaderboardEntry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Clasificaciones por personaje en memoria. Se cargan una vez al arrancar desde builds
+// (índice leaderboard_idx) y después se mantienen con cada validación, sin consultar la base de datos.
+@Component
+public class LeaderboardRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardRegistry.class);
+
+    private final BuildRepository buildRepository;
+    private final boolean seedOnStartup;
+    private volatile Map<String, CharacterLeaderboard> leaderboards = new ConcurrentHashMap<>();
+    // Clasificaciones en construcción mientras dura un reload(); null si no hay ninguno en curso
+    private volatile Map<String, CharacterLeaderboard> recargando;
+
+    public LeaderboardRegistry(BuildRepository buildRepository,
+                               @Value("${app.leaderboard.seed-on-startup:true}") boolean seedOnStartup) {
+        this.buildRepository = buildRepository;
+        this.seedOnStartup = seedOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        if (seedOnStartup) {
+            seed().subscribe(
+                    count -> logger.info("Clasificaciones cargadas: {} builds válidos en {} personajes", count, leaderboards.size()),
+                    error -> logger.error("Error al cargar las clasificaciones: {}", error.getMessage())
+            );
+        }
+    }
+
+    // record() se queda con la mejor puntuación, así que la carga puede solaparse con validaciones nuevas
+    public Mono<Long> seed() {
+        return buildRepository.findValidBuildSummaries(Sort.by(Sort.Order.asc("characterId"), Sort.Order.desc("score")))
+                .filter(build -> build.getCharacterId() != null && build.getPlayerId() != null)
+                .doOnNext(build -> record(build.getCharacterId(), build.getPlayerId(), build.getScore()))
+                .count();
+    }
+
+    // Tras recalcular puntuaciones: se construyen clasificaciones nuevas y se sustituyen de una vez.
+    // Mientras se cargan, record() escribe en las dos: la consulta puede haber pasado ya por el build
+    // validado y, como record() se queda con la mejor puntuación, registrarlo dos veces no cambia nada.
+    public Mono<Long> reload() {
+        return Mono.defer(() -> {
+            Map<String, CharacterLeaderboard> nuevas = new ConcurrentHashMap<>();
+            recargando = nuevas;
+            return buildRepository.findValidBuildSummaries(Sort.by(Sort.Order.asc("characterId"), Sort.Order.desc("score")))
+                    .filter(build -> build.getCharacterId() != null && build.getPlayerId() != null)
+                    .doOnNext(build -> nuevas.computeIfAbsent(build.getCharacterId(), id -> new CharacterLeaderboard())
+                            .record(build.getPlayerId(), build.getScore()))
+                    .count()
+                    .doOnNext(count -> {
+                        leaderboards = nuevas;
+                        logger.info("Clasificaciones recargadas: {} builds válidos en {} personajes", count, nuevas.size());
+                    })
+                    .doFinally(signal -> recargando = null);
+        });
+    }
+
+    // Se lee recargando antes que leaderboards: si ya es null, el cambio de mapas ya se ha hecho
+    public boolean record(String characterId, String playerId, int score) {
+        Map<String, CharacterLeaderboard> enCarga = recargando;
+        if (enCarga != null) {
+            enCarga.computeIfAbsent(characterId, id -> new CharacterLeaderboard()).record(playerId, score);
+        }
+        return leaderboards.computeIfAbsent(characterId, id -> new CharacterLeaderboard())
+                .record(playerId, score);
+    }
+
+    public List<LeaderboardEntry> top(String characterId, int limit) {
+        CharacterLeaderboard leaderboard = leaderboards.get(characterId);
+        return leaderboard != null ? leaderboard.top(limit) : List.of();
+    }
+
+    public Optional<LeaderboardEntry> rankOf(String characterId, String playerId) {
+        CharacterLeaderboard leaderboard = leaderboards.get(characterId);
+        return leaderboard != null ? leaderboard.rankOf(playerId) : Optional.empty();
+    }
+
+    public int size(String characterId) {
+        CharacterLeaderboard leaderboard = leaderboards.get(characterId);
+        return leaderboard != null ? leaderboard.size() : 0;
+    }
+}
@@ -0,0 +1,268 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.maintenance;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.CharacterAnswerKey;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreCalculator;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreRules;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.RescoringProgress;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.RescoringCheckpoint;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard.LeaderboardRegistry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PlayerStatsRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.RescoringCheckpointRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.stats.CharacterStatsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Recalcula Build.score de todos los builds válidos con las reglas vigentes (ScoreCalculator.currentRules()).
+// Recorre builds por tramos en orden de _id; cada tramo se puntúa en paralelo en un scheduler acotado y los cambios
+// se escriben con un bulkWrite desordenado. Tras cada tramo se guarda un checkpoint para poder reanudar.
+// Al terminar (o cancelarse) se recalculan las clasificaciones, player_stats y los histogramas.
+// Lo lanza un administrador desde /actuator/rescoring; solo puede haber una ejecución a la vez.
+@Component
+public class BuildRescoringJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuildRescoringJob.class);
+    private static final String JOB_ID = "builds";
+
+    public static final String IDLE = "IDLE";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private final BuildRepository buildRepository;
+    private final RescoringCheckpointRepository checkpointRepository;
+    private final CharacterCatalog characterCatalog;
+    private final ScoreCalculator scoreCalculator;
+    private final LeaderboardRegistry leaderboardRegistry;
+    private final PlayerStatsRepository playerStatsRepository;
+    private final CharacterStatsRegistry characterStatsRegistry;
+    private final int chunkSize;
+    private final int parallelism;
+
+    private volatile RescoringProgress progress = new RescoringProgress(IDLE, 0, 0, 0, 0, null, null, null, 0, null);
+    private Disposable running;
+    private volatile boolean cancelRequested;
+
+    @Autowired
+    public BuildRescoringJob(BuildRepository buildRepository,
+                             RescoringCheckpointRepository checkpointRepository,
+                             CharacterCatalog characterCatalog,
+                             ScoreCalculator scoreCalculator,
+                             LeaderboardRegistry leaderboardRegistry,
+                             PlayerStatsRepository playerStatsRepository,
+                             CharacterStatsRegistry characterStatsRegistry,
+                             @Value("${app.rescoring.chunk-size:1000}") int chunkSize,
+                             @Value("${app.rescoring.parallelism:0}") int parallelism) {
+        if (chunkSize <= 0 || parallelism < 0) {
+            throw new IllegalArgumentException("Configuración del recálculo de puntuaciones no válida");
+        }
+        this.buildRepository = buildRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.characterCatalog = characterCatalog;
+        this.scoreCalculator = scoreCalculator;
+        this.leaderboardRegistry = leaderboardRegistry;
+        this.playerStatsRepository = playerStatsRepository;
+        this.characterStatsRegistry = characterStatsRegistry;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public RescoringProgress status() {
+        return progress;
+    }
+
+    // Lanza el recálculo en segundo plano y devuelve el estado inicial.
+    // Una ejecución cancelada que aún termina su tramo también cuenta como en curso
+    public synchronized RescoringProgress start(boolean resume) {
+        if (RUNNING.equals(progress.state()) || (running != null && !running.isDisposed())) {
+            throw new IllegalStateException("Ya hay un recálculo de puntuaciones en curso");
+        }
+        progress = new RescoringProgress(RUNNING, scoreCalculator.currentRules().getVersion(), 0, 0, 0, null, Instant.now(), Instant.now(), 0, null);
+        running = run(resume).subscribe(
+                result -> logger.info("Recálculo terminado: {} builds procesados, {} cambiados, {} omitidos",
+                        result.processed(), result.changed(), result.skipped()),
+                error -> logger.error("Error en el recálculo de puntuaciones: {}", error.getMessage()));
+        return progress;
+    }
+
+    // La ejecución se detiene al acabar el tramo en curso y guarda el checkpoint como CANCELLED;
+    // así ningún guardado de un tramo a medias lo sobrescribe y puede reanudarse después
+    public synchronized RescoringProgress cancel() {
+        if (RUNNING.equals(progress.state())) {
+            cancelRequested = true;
+            progress = withState(progress, CANCELLED, null);
+            logger.warn("Recálculo de puntuaciones cancelado tras {} builds", progress.processed());
+        }
+        return progress;
+    }
+
+    public Mono<RescoringProgress> run(boolean resume) {
+        return Mono.defer(() -> {
+            cancelRequested = false;
+            ScoreRules rules = scoreCalculator.currentRules();
+            Mono<RescoringCheckpoint> inicio = resume
+                    ? checkpointRepository.findById(JOB_ID)
+                            .filter(checkpoint -> !COMPLETED.equals(checkpoint.getState()))
+                            .filter(checkpoint -> mismasReglas(checkpoint, rules))
+                            .doOnNext(checkpoint -> logger.info("Reanudando recálculo después del build {}", checkpoint.getLastBuildId()))
+                            .defaultIfEmpty(nuevoCheckpoint(rules))
+                    : Mono.just(nuevoCheckpoint(rules));
+
+            Scheduler cpu = Schedulers.newParallel("rescoring", parallelism);
+            long inicioNanos = System.nanoTime();
+
+            return inicio
+                    .flatMap(checkpoint -> {
+                        long procesadosAlInicio = checkpoint.getProcessed();
+                        // El hash ya coincide; la versión solo se actualiza al contador de este proceso
+                        checkpoint.setRulesVersion(rules.getVersion());
+                        checkpoint.setState(RUNNING);
+                        publicar(checkpoint, procesadosAlInicio, inicioNanos, null, false);
+
+                        return procesarTramo(checkpoint, rules, cpu)
+                                .expand(hayMas -> hayMas && !cancelRequested ? procesarTramo(checkpoint, rules, cpu) : Mono.empty())
+                                .doOnNext(hayMas -> publicar(checkpoint, procesadosAlInicio, inicioNanos, null, false))
+                                .then(Mono.defer(() -> {
+                                    checkpoint.setState(cancelRequested ? CANCELLED : COMPLETED);
+                                    checkpoint.setUpdatedAt(Instant.now());
+                                    return checkpointRepository.save(checkpoint);
+                                }))
+                                // Los builds ya escritos tienen la puntuación nueva aunque se haya cancelado
+                                .flatMap(saved -> refrescarDerivados().thenReturn(saved))
+                                .map(saved -> publicar(saved, procesadosAlInicio, inicioNanos, null, true))
+                                .onErrorResume(error -> {
+                                    checkpoint.setState(FAILED);
+                                    checkpoint.setUpdatedAt(Instant.now());
+                                    publicar(checkpoint, procesadosAlInicio, inicioNanos, error.getMessage(), true);
+                                    return checkpointRepository.save(checkpoint)
+                                            .onErrorResume(saveError -> {
+                                                logger.error("No se pudo guardar el checkpoint fallido: {}", saveError.getMessage());
+                                                return Mono.empty();
+                                            })
+                                            .then(Mono.error(error));
+                                });
+                    })
+                    .doFinally(signal -> cpu.dispose());
+        });
+    }
+
+    // Un checkpoint empezado con otras reglas no se reanuda: mezclaría puntuaciones de dos tablas
+    private static boolean mismasReglas(RescoringCheckpoint checkpoint, ScoreRules rules) {
+        if (rules.fingerprint().equals(checkpoint.getRulesHash())) {
+            return true;
+        }
+        logger.warn("Las reglas de puntuación han cambiado desde el checkpoint; el recálculo empieza desde el principio");
+        return false;
+    }
+
+    private Mono<Void> refrescarDerivados() {
+        return leaderboardRegistry.reload()
+                .then(playerStatsRepository.rebuildScores())
+                .doOnNext(actualizadas -> logger.info("Estadísticas de jugador recalculadas: {}", actualizadas))
+                .then(characterStatsRegistry.rebuild());
+    }
+
+    // Devuelve true si el tramo venía lleno y puede haber más builds
+    private Mono<Boolean> procesarTramo(RescoringCheckpoint checkpoint, ScoreRules rules, Scheduler cpu) {
+        return buildRepository.findValidChunkAfter(checkpoint.getLastBuildId(), chunkSize)
+                .collectList()
+                .flatMap(tramo -> {
+                    if (tramo.isEmpty()) {
+                        return Mono.just(false);
+                    }
+
+                    return Mono.zip(answerKeys(tramo), buildRepository.findFirstValidBuildIds(tramo))
+                            .flatMap(datos -> Flux.fromIterable(tramo)
+                                    .parallel(parallelism)
+                                    .runOn(cpu)
+                                    .map(build -> Map.entry(build, recalcular(rules, build, datos.getT1(), datos.getT2())))
+                                    .sequential()
+                                    .collectList())
+                            .flatMap(resultados -> {
+                                Map<String, Integer> cambios = new HashMap<>();
+                                long omitidos = 0;
+                                for (Map.Entry<Build, Integer> resultado : resultados) {
+                                    Build build = resultado.getKey();
+                                    if (resultado.getValue() < 0) {
+                                        omitidos++;
+                                    } else if (resultado.getValue() != build.getScore()) {
+                                        cambios.put(build.getId(), resultado.getValue());
+                                    }
+                                }
+                                long omitidosTramo = omitidos;
+
+                                return buildRepository.updateScores(cambios)
+                                        .flatMap(escritos -> {
+                                            checkpoint.setLastBuildId(tramo.get(tramo.size() - 1).getId());
+                                            checkpoint.setProcessed(checkpoint.getProcessed() + tramo.size());
+                                            checkpoint.setChanged(checkpoint.getChanged() + cambios.size());
+                                            checkpoint.setSkipped(checkpoint.getSkipped() + omitidosTramo);
+                                            checkpoint.setUpdatedAt(Instant.now());
+                                            return checkpointRepository.save(checkpoint);
+                                        })
+                                        .thenReturn(tramo.size() == chunkSize);
+                            });
+                });
+    }
+
+    // Puntuación nueva, o -1 si el build no puede recalcularse (personaje borrado o datos incompletos)
+    private static int recalcular(ScoreRules rules, Build build, Map<String, CharacterAnswerKey> answerKeys, Set<String> primeros) {
+        CharacterAnswerKey answerKey = answerKeys.get(build.getCharacterId());
+        if (answerKey == null || build.getPiecesPlaced() == null) {
+            return -1;
+        }
+        return rules.rescore(build, answerKey, primeros.contains(build.getId()));
+    }
+
+    private Mono<Map<String, CharacterAnswerKey>> answerKeys(List<Build> tramo) {
+        return Flux.fromIterable(tramo)
+                .map(Build::getCharacterId)
+                .filter(characterId -> characterId != null)
+                .distinct()
+                .flatMap(characterId -> characterCatalog.findEntry(characterId)
+                        .map(entry -> Map.entry(characterId, entry.getAnswerKey())))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private RescoringProgress publicar(RescoringCheckpoint checkpoint, long procesadosAlInicio, long inicioNanos, String error, boolean terminal) {
+        double segundos = Math.max(Duration.ofNanos(System.nanoTime() - inicioNanos).toMillis(), 1) / 1000.0;
+        double porSegundo = Math.round((checkpoint.getProcessed() - procesadosAlInicio) / segundos * 10) / 10.0;
+        RescoringProgress actual = new RescoringProgress(checkpoint.getState(), checkpoint.getRulesVersion(),
+                checkpoint.getProcessed(), checkpoint.getChanged(), checkpoint.getSkipped(), checkpoint.getLastBuildId(),
+                checkpoint.getStartedAt(), checkpoint.getUpdatedAt(), porSegundo, error);
+        // Una cancelación no se sobrescribe con el progreso del tramo que estaba en vuelo, solo con el estado final
+        if (terminal || !CANCELLED.equals(progress.state())) {
+            progress = actual;
+        }
+        logger.debug("Recálculo: {} builds procesados ({} builds/s), último {}", actual.processed(), porSegundo, actual.lastBuildId());
+        return actual;
+    }
+
+    private static RescoringCheckpoint nuevoCheckpoint(ScoreRules rules) {
+        Instant ahora = Instant.now();
+        return new RescoringCheckpoint(JOB_ID, null, rules.getVersion(), rules.fingerprint(), 0, 0, 0, RUNNING, ahora, ahora);
+    }
+
+    private static RescoringProgress withState(RescoringProgress actual, String state, String error) {
+        return new RescoringProgress(state, actual.rulesVersion(), actual.processed(), actual.changed(), actual.skipped(),
+                actual.lastBuildId(), actual.startedAt(), Instant.now(), actual.buildsPerSecond(), error);
+    }
+}
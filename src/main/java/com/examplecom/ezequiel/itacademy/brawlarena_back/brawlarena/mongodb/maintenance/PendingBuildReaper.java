@@ -0,0 +1,106 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.maintenance;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Borra los builds pendientes (valid=false) que nadie ha validado en app.builds.pending.max-age.
+// Mientras existen bloquean un nuevo startBuild del mismo jugador y personaje.
+// Se borra por lotes acotados para no bloquear la colección; lo que no cabe en una pasada queda para la siguiente.
+@Component
+public class PendingBuildReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingBuildReaper.class);
+    private static final String METRIC_NAME = "builds.pending.reaper";
+    private static final Duration RUN_TIMEOUT = Duration.ofMinutes(5);
+
+    private final BuildRepository buildRepository;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter deleted;
+    private final Counter failures;
+    private final Timer runs;
+
+    @Autowired
+    public PendingBuildReaper(BuildRepository buildRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.builds.pending.reaper-enabled:true}") boolean enabled,
+                              @Value("${app.builds.pending.max-age:PT24H}") Duration maxAge,
+                              @Value("${app.builds.pending.batch-size:500}") int batchSize,
+                              @Value("${app.builds.pending.max-batches-per-run:20}") int maxBatchesPerRun) {
+        if (maxAge.isNegative() || maxAge.isZero() || batchSize <= 0 || maxBatchesPerRun <= 0) {
+            throw new IllegalArgumentException("Configuración de limpieza de builds pendientes no válida");
+        }
+        this.buildRepository = buildRepository;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        this.deleted = Counter.builder(METRIC_NAME + ".deleted")
+                .description("Builds pendientes abandonados eliminados")
+                .register(meterRegistry);
+        this.failures = Counter.builder(METRIC_NAME + ".failures")
+                .description("Pasadas de limpieza terminadas con error")
+                .register(meterRegistry);
+        this.runs = Timer.builder(METRIC_NAME + ".runs")
+                .description("Duración de cada pasada de limpieza")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.builds.pending.reaper-interval:PT10M}",
+            initialDelayString = "${app.builds.pending.reaper-interval:PT10M}")
+    public void scheduledReap() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reap().block(RUN_TIMEOUT);
+        } catch (RuntimeException e) {
+            logger.error("Error al limpiar builds pendientes: {}", e.getMessage());
+        }
+    }
+
+    // Lotes secuenciales: se sigue mientras el último lote venga lleno y no se supere el máximo por pasada
+    public Mono<Long> reap() {
+        return Mono.defer(() -> {
+            Instant cutoff = Instant.now().minus(maxAge);
+            AtomicInteger lotes = new AtomicInteger();
+            long inicio = System.nanoTime();
+
+            return deleteBatch(cutoff, lotes)
+                    .expand(borrados -> borrados == batchSize && lotes.get() < maxBatchesPerRun
+                            ? deleteBatch(cutoff, lotes)
+                            : Mono.empty())
+                    .reduce(0L, Long::sum)
+                    .doOnSuccess(total -> {
+                        if (total > 0) {
+                            logger.info("Eliminados {} builds pendientes anteriores a {} en {} lotes", total, cutoff, lotes.get());
+                        }
+                    })
+                    .doOnError(error -> failures.increment())
+                    .doFinally(signal -> runs.record(Duration.ofNanos(System.nanoTime() - inicio)));
+        });
+    }
+
+    private Mono<Long> deleteBatch(Instant cutoff, AtomicInteger lotes) {
+        lotes.incrementAndGet();
+        return buildRepository.deletePendingCreatedBefore(cutoff, batchSize)
+                .defaultIfEmpty(0L)
+                .doOnNext(deleted::increment);
+    }
+}
@@ -0,0 +1,237 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.persistence;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Escritura diferida de builds (app.builds.write-behind.enabled). Las escrituras se encolan y se envían
+// a Mongo en lotes con un único bulkWrite, cuando se llena un lote o pasa max-delay; quien guarda recibe
+// el build cuando su lote se ha escrito, así que los errores (p. ej. el índice único de pendientes) le llegan igual.
+// La cola es acotada: si está llena se responde 503 en lugar de acumular memoria.
+// Solo hay un lote en vuelo a la vez, de modo que dos escrituras del mismo build no se reordenan.
+@Component
+public class BuildWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuildWriteBuffer.class);
+    private static final String METRIC_NAME = "builds.write_behind";
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final BuildRepository buildRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingWrite> queue;
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final Counter batches;
+    private final Counter writes;
+    private final Counter rejected;
+    private final Disposable ticker;
+    private volatile boolean closed;
+
+    @Autowired
+    public BuildWriteBuffer(BuildRepository buildRepository,
+                            ReactiveMongoTemplate mongoTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.builds.write-behind.enabled:false}") boolean enabled,
+                            @Value("${app.builds.write-behind.max-batch-size:500}") int maxBatchSize,
+                            @Value("${app.builds.write-behind.max-delay:PT0.02S}") Duration maxDelay,
+                            @Value("${app.builds.write-behind.capacity:10000}") int capacity) {
+        if (maxBatchSize <= 0 || capacity < maxBatchSize || maxDelay.isNegative() || maxDelay.isZero()) {
+            throw new IllegalArgumentException("Configuración de escritura diferida de builds no válida");
+        }
+        this.buildRepository = buildRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        this.batches = Counter.builder(METRIC_NAME + ".batches")
+                .description("Lotes de builds enviados con bulkWrite")
+                .register(meterRegistry);
+        this.writes = Counter.builder(METRIC_NAME + ".writes")
+                .description("Escrituras de builds agrupadas en lotes")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Escrituras rechazadas con la cola llena")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".queue", queue, BlockingQueue::size)
+                .description("Escrituras de builds pendientes de enviar")
+                .register(meterRegistry);
+
+        this.ticker = enabled
+                ? Flux.interval(maxDelay).subscribe(tick -> flush())
+                : null;
+    }
+
+    // Sin escritura diferida (o ya cerrando) equivale a buildRepository.save
+    public Mono<Build> save(Build build) {
+        if (!enabled) {
+            return buildRepository.save(build);
+        }
+        return Mono.defer(() -> {
+            if (closed) {
+                return buildRepository.save(build);
+            }
+            // El id se asigna aquí para que el upsert del lote sirva tanto para inserciones como para actualizaciones
+            if (build.getId() == null) {
+                build.setId(new ObjectId().toHexString());
+            }
+
+            PendingWrite pending = new PendingWrite(build);
+            if (!queue.offer(pending)) {
+                rejected.increment();
+                logger.warn("Cola de escritura de builds llena; escritura de {} rechazada", build.getId());
+                return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiadas peticiones, inténtalo de nuevo en unos segundos"));
+            }
+            if (queue.size() >= maxBatchSize) {
+                flush();
+            }
+            return Mono.fromFuture(pending.result, true);
+        });
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    // Envía un lote si no hay otro en vuelo; al terminar sigue mientras quede un lote lleno
+    void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        List<PendingWrite> lote = new ArrayList<>(maxBatchSize);
+        queue.drainTo(lote, maxBatchSize);
+        if (lote.isEmpty()) {
+            flushing.set(false);
+            return;
+        }
+
+        write(lote)
+                .doFinally(signal -> {
+                    flushing.set(false);
+                    if (queue.size() >= maxBatchSize || (closed && !queue.isEmpty())) {
+                        flush();
+                    }
+                })
+                .subscribe(null, error -> logger.error("Error al escribir un lote de {} builds: {}", lote.size(), error.getMessage()));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!enabled) {
+            return;
+        }
+        closed = true;
+        ticker.dispose();
+        long limite = System.nanoTime() + SHUTDOWN_TIMEOUT.toNanos();
+        while ((!queue.isEmpty() || flushing.get()) && System.nanoTime() < limite) {
+            flush();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!queue.isEmpty()) {
+            logger.error("Quedaron {} escrituras de builds sin enviar al cerrar", queue.size());
+        } else {
+            logger.info("Cola de escritura de builds vaciada al cerrar");
+        }
+    }
+
+    private Mono<Void> write(List<PendingWrite> lote) {
+        // Varias escrituras del mismo build en el lote se reducen a la última
+        Map<String, List<PendingWrite>> porBuild = new LinkedHashMap<>();
+        for (PendingWrite pending : lote) {
+            porBuild.computeIfAbsent(pending.build.getId(), id -> new ArrayList<>()).add(pending);
+        }
+
+        List<List<PendingWrite>> grupos = new ArrayList<>(porBuild.values());
+        List<WriteModel<Document>> modelos = new ArrayList<>(grupos.size());
+        for (List<PendingWrite> grupo : grupos) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(grupo.get(grupo.size() - 1).build, document);
+            modelos.add(new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")), document, new ReplaceOptions().upsert(true)));
+        }
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Build.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(modelos, new BulkWriteOptions().ordered(false))))
+                .doOnNext(result -> {
+                    batches.increment();
+                    writes.increment(lote.size());
+                    grupos.forEach(grupo -> grupo.forEach(PendingWrite::complete));
+                    logger.debug("Lote de {} escrituras de builds enviado ({} documentos)", lote.size(), grupos.size());
+                })
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    // Con un bulkWrite desordenado solo fallan los documentos indicados; el resto se ha escrito
+                    batches.increment();
+                    writes.increment(lote.size());
+                    Map<Integer, BulkWriteError> errores = new LinkedHashMap<>();
+                    e.getWriteErrors().forEach(error -> errores.put(error.getIndex(), error));
+                    for (int i = 0; i < grupos.size(); i++) {
+                        BulkWriteError error = errores.get(i);
+                        if (error == null) {
+                            grupos.get(i).forEach(PendingWrite::complete);
+                        } else {
+                            RuntimeException causa = ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                                    ? new DuplicateKeyException(error.getMessage())
+                                    : new DataIntegrityViolationException(error.getMessage());
+                            grupos.get(i).forEach(pending -> pending.result.completeExceptionally(causa));
+                        }
+                    }
+                    return Mono.empty();
+                })
+                .doOnError(error -> lote.forEach(pending -> pending.result.completeExceptionally(error)))
+                .then();
+    }
+
+    private static final class PendingWrite {
+        private final Build build;
+        private final CompletableFuture<Build> result = new CompletableFuture<>();
+
+        private PendingWrite(Build build) {
+            this.build = build;
+        }
+
+        private void complete() {
+            result.complete(build);
+        }
+    }
+}
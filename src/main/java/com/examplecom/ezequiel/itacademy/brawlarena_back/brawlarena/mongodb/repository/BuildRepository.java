@@ -1,15 +1,25 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 
-public interface BuildRepository extends ReactiveMongoRepository<Build, String> {
+
+public interface BuildRepository extends ReactiveMongoRepository<Build, String>, BuildRepositoryCustom {
     Mono<Long> countByPlayerIdAndCharacterIdAndValidTrue(String playerId, String characterId);
     Flux<Build> findByPlayerIdAndValidTrueOrderByCreatedAtDesc(String playerId);
     Flux<Build> findByPlayerIdAndCharacterIdAndValidFalse(String playerId, String characterId);
     Flux<Build> findByPlayerIdAndCharacterIdAndValidTrue(String playerId, String characterId);
+    Mono<Boolean> existsByPlayerIdAndCharacterIdAndValidFalse(String playerId, String characterId);
+    Flux<Build> findByPlayerIdAndValidFalseAndCharacterIdIn(String playerId, Collection<String> characterIds);
+
+    // Solo los campos necesarios para reconstruir clasificaciones e histogramas
+    @Query(value = "{ 'valid': true }", fields = "{ 'playerId': 1, 'characterId': 1, 'score': 1, 'duration': 1 }")
+    Flux<Build> findValidBuildSummaries(Sort sort);
 
 }
@@ -0,0 +1,30 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface BuildRepositoryCustom {
+
+    // Borra como máximo "limit" builds pendientes creados antes de "cutoff" y devuelve cuántos se han borrado
+    Mono<Long> deletePendingCreatedBefore(Instant cutoff, int limit);
+
+    // Guarda el resultado de varios builds ya validados en un único bulkWrite. Solo se tocan los que siguen pendientes;
+    // devuelve los ids que ha completado esta llamada (no los borrados ni los validados por otra petición)
+    Mono<Set<String>> completeAll(List<Build> builds);
+
+    // Siguiente tramo de builds válidos en orden de _id, posterior a afterId (null = desde el principio)
+    Flux<Build> findValidChunkAfter(String afterId, int limit);
+
+    // Ids de los builds que fueron la primera validación de su jugador y personaje (el menor _id válido de cada par)
+    Mono<Set<String>> findFirstValidBuildIds(Collection<Build> builds);
+
+    // Actualiza la puntuación de varios builds válidos en un único bulkWrite desordenado
+    Mono<Long> updateScores(Map<String, Integer> scores);
+}
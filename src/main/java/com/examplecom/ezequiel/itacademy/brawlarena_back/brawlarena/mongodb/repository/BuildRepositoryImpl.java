@@ -0,0 +1,142 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.mongodb.client.result.DeleteResult;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class BuildRepositoryImpl implements BuildRepositoryCustom {
+
+    // Campo solo de Mongo (no está en la entidad): lote de completeAll que validó el build
+    private static final String COMPLETION_BATCH = "completionBatch";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public BuildRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Long> deletePendingCreatedBefore(Instant cutoff, int limit) {
+        // Recorre el índice parcial pending_created_idx y solo trae los _id
+        Query candidatos = Query.query(Criteria.where("valid").is(false).and("createdAt").lt(cutoff))
+                .with(Sort.by("createdAt"))
+                .limit(limit);
+        candidatos.fields().include("_id");
+
+        return mongoTemplate.find(candidatos, Build.class)
+                .map(Build::getId)
+                .collectList()
+                .flatMap(ids -> {
+                    if (ids.isEmpty()) {
+                        return Mono.just(0L);
+                    }
+                    // Se repiten los filtros: un build validado entre la lectura y el borrado no se toca
+                    Query borrado = Query.query(Criteria.where("_id").in(ids)
+                            .and("valid").is(false)
+                            .and("createdAt").lt(cutoff));
+                    return mongoTemplate.remove(borrado, Build.class).map(DeleteResult::getDeletedCount);
+                });
+    }
+
+    @Override
+    public Mono<Set<String>> completeAll(List<Build> builds) {
+        if (builds.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+
+        // Mismos campos que escribe la validación individual; cada build es un documento distinto.
+        // El filtro valid:false descarta los borrados o validados entre la lectura y la escritura, y la marca
+        // de lote permite saber después cuáles ha completado esta llamada (el bulkWrite solo devuelve totales)
+        String lote = new ObjectId().toHexString();
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Build.class);
+        for (Build build : builds) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(build.getId()).and("valid").is(false)), new Update()
+                    .set("valid", build.isValid())
+                    .set("score", build.getScore())
+                    .set("duration", build.getDuration())
+                    .set("errors", build.getErrors())
+                    .set("piecesPlaced", build.getPiecesPlaced())
+                    .set(COMPLETION_BATCH, lote));
+        }
+
+        return bulk.execute()
+                .flatMap(result -> {
+                    if (result.getMatchedCount() == builds.size()) {
+                        return Mono.just(builds.stream().map(Build::getId).collect(Collectors.toSet()));
+                    }
+                    Query completados = Query.query(Criteria.where("_id").in(builds.stream().map(Build::getId).toList())
+                            .and(COMPLETION_BATCH).is(lote));
+                    completados.fields().include("_id");
+                    return mongoTemplate.find(completados, Build.class)
+                            .map(Build::getId)
+                            .collect(Collectors.toSet());
+                });
+    }
+
+    @Override
+    public Flux<Build> findValidChunkAfter(String afterId, int limit) {
+        Criteria criteria = Criteria.where("valid").is(true);
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(new ObjectId(afterId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by("_id"))
+                .limit(limit);
+        query.fields().include("playerId", "characterId", "piecesPlaced", "duration", "score");
+        return mongoTemplate.find(query, Build.class);
+    }
+
+    @Override
+    public Mono<Set<String>> findFirstValidBuildIds(Collection<Build> builds) {
+        Set<Map.Entry<String, String>> pares = builds.stream()
+                .map(build -> Map.entry(build.getPlayerId(), build.getCharacterId()))
+                .collect(Collectors.toSet());
+        if (pares.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+
+        // Cada par usa player_character_valid_idx
+        Criteria[] porPar = pares.stream()
+                .map(par -> Criteria.where("playerId").is(par.getKey()).and("characterId").is(par.getValue()))
+                .toArray(Criteria[]::new);
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(new Criteria().orOperator(porPar).and("valid").is(true)),
+                Aggregation.group("playerId", "characterId").min("_id").as("firstId"));
+
+        return mongoTemplate.aggregate(aggregation, Build.class, Document.class)
+                .map(document -> document.get("firstId").toString())
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    @Override
+    public Mono<Long> updateScores(Map<String, Integer> scores) {
+        if (scores.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Build.class);
+        scores.forEach((buildId, score) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(buildId).and("valid").is(true)),
+                new Update().set("score", score)));
+        return bulk.execute().map(result -> (long) result.getModifiedCount());
+    }
+}
@@ -0,0 +1,7 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.CharacterHistogram;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface CharacterHistogramRepository extends ReactiveMongoRepository<CharacterHistogram, String>, CharacterHistogramRepositoryCustom {
+}
@@ -0,0 +1,11 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.CharacterHistogram;
+import reactor.core.publisher.Mono;
+
+public interface CharacterHistogramRepositoryCustom {
+
+    // Suma los recuentos (incrementos desde el último checkpoint de esta instancia) al documento del personaje
+    // y amplía min/max; crea el documento si no existe
+    Mono<Void> addCounts(CharacterHistogram delta);
+}
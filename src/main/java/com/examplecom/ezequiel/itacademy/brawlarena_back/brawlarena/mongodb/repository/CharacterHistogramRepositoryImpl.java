@@ -0,0 +1,50 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.CharacterHistogram;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public class CharacterHistogramRepositoryImpl implements CharacterHistogramRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public CharacterHistogramRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Void> addCounts(CharacterHistogram delta) {
+        // Igual que en PowerMasteryRepositoryImpl: un upsert con "score.buckets.N" crearía un subdocumento,
+        // así que se incrementa el existente y solo si no existe se inserta el documento completo
+        return increment(delta)
+                .flatMap(matched -> matched ? Mono.<Void>empty() : mongoTemplate.insert(delta).then()
+                        .onErrorResume(DuplicateKeyException.class, e -> increment(delta).then()));
+    }
+
+    private Mono<Boolean> increment(CharacterHistogram delta) {
+        Update update = new Update().set("checkpointAt", delta.getCheckpointAt());
+        addCounts(update, "score", delta.getScore());
+        addCounts(update, "duration", delta.getDuration());
+
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(delta.getId())), update, CharacterHistogram.class)
+                .map(result -> result.getMatchedCount() > 0);
+    }
+
+    private static void addCounts(Update update, String field, CharacterHistogram.Counts counts) {
+        List<Long> buckets = counts.getBuckets();
+        for (int i = 0; i < buckets.size(); i++) {
+            long count = buckets.get(i);
+            if (count != 0) {
+                update.inc(field + ".buckets." + i, count);
+            }
+        }
+        update.min(field + ".min", counts.getMin());
+        update.max(field + ".max", counts.getMax());
+    }
+}
@@ -0,0 +1,14 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.LoginFailure;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface LoginFailureRepository extends ReactiveMongoRepository<LoginFailure, String> {
+
+    Mono<Long> countByKeyAndAtAfter(String key, Instant since);
+
+    Mono<Long> deleteByKey(String key);
+}
@@ -0,0 +1,9 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface PlayerStatsRepository extends ReactiveMongoRepository<PlayerStats, String>, PlayerStatsRepositoryCustom {
+    Flux<PlayerStats> findByPlayerId(String playerId);
+}
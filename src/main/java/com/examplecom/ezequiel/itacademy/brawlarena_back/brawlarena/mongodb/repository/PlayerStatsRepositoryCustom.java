@@ -0,0 +1,20 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface PlayerStatsRepositoryCustom {
+
+    // Suma un build validado a las estadísticas de su (playerId, characterId) en un único upsert
+    Mono<PlayerStats> recordCompletion(Build build);
+
+    // Lo mismo para varios builds (de personajes distintos) en un único bulkWrite desordenado
+    Mono<Void> recordCompletions(List<Build> builds);
+
+    // Tras recalcular puntuaciones: vuelve a calcular totalScore, bestScore y lastScore desde los builds válidos.
+    // Solo actualiza estadísticas existentes; devuelve cuántas se han modificado
+    Mono<Long> rebuildScores();
+}
@@ -0,0 +1,95 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+public class PlayerStatsRepositoryImpl implements PlayerStatsRepositoryCustom {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public PlayerStatsRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<PlayerStats> recordCompletion(Build build) {
+        return mongoTemplate.findAndModify(queryFor(build), completion(build),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), PlayerStats.class);
+    }
+
+    @Override
+    public Mono<Void> recordCompletions(List<Build> builds) {
+        if (builds.isEmpty()) {
+            return Mono.empty();
+        }
+
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlayerStats.class);
+        builds.forEach(build -> bulk.upsert(queryFor(build), completion(build)));
+        return bulk.execute().then();
+    }
+
+    @Override
+    public Mono<Long> rebuildScores() {
+        // Orden de _id = orden de validación dentro de cada (jugador, personaje): $last es el último build
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("valid").is(true)),
+                Aggregation.sort(Sort.by("_id")),
+                Aggregation.group("playerId", "characterId")
+                        .sum("score").as("totalScore")
+                        .max("score").as("bestScore")
+                        .last("score").as("lastScore"));
+
+        return mongoTemplate.aggregate(aggregation, Build.class, Document.class)
+                .buffer(REBUILD_BATCH_SIZE)
+                .concatMap(lote -> {
+                    ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlayerStats.class);
+                    lote.forEach(resumen -> {
+                        Document par = resumen.get("_id", Document.class);
+                        bulk.updateOne(
+                                Query.query(Criteria.where("_id").is(PlayerStats.idOf(par.getString("playerId"), par.getString("characterId")))),
+                                new Update()
+                                        .set("totalScore", ((Number) resumen.get("totalScore")).longValue())
+                                        .set("bestScore", ((Number) resumen.get("bestScore")).intValue())
+                                        .set("lastScore", ((Number) resumen.get("lastScore")).intValue()));
+                    });
+                    return bulk.execute().map(result -> (long) result.getModifiedCount());
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    private static Query queryFor(Build build) {
+        return Query.query(Criteria.where("_id").is(PlayerStats.idOf(build.getPlayerId(), build.getCharacterId())));
+    }
+
+    // $inc/$max/$min son conmutativos: dos validaciones concurrentes no se pisan
+    private static Update completion(Build build) {
+        return new Update()
+                .setOnInsert("playerId", build.getPlayerId())
+                .setOnInsert("characterId", build.getCharacterId())
+                .inc("completions", 1)
+                .inc("totalScore", build.getScore())
+                .inc("totalDuration", build.getDuration())
+                .inc("totalErrors", build.getErrors())
+                .max("bestScore", build.getScore())
+                .min("bestDuration", build.getDuration())
+                .set("lastBuildId", build.getId())
+                .set("lastScore", build.getScore())
+                .set("lastCompletedAt", Instant.now());
+    }
+}
@@ -0,0 +1,7 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PowerMastery;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface PowerMasteryRepository extends ReactiveMongoRepository<PowerMastery, String>, PowerMasteryRepositoryCustom {
+}
@@ -0,0 +1,12 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface PowerMasteryRepositoryCustom {
+
+    // Suma los incrementos al dominio del jugador; crea el documento si es su primer build
+    Mono<Void> addProgress(String playerId, Map<Power, Integer> deltas);
+}
@@ -0,0 +1,53 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PowerMastery;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class PowerMasteryRepositoryImpl implements PowerMasteryRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public PowerMasteryRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Void> addProgress(String playerId, Map<Power, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+
+        // Un upsert con "progress.N" crearía un subdocumento en vez de un array:
+        // se incrementa el documento existente y solo si no existe se inserta el array completo
+        return increment(playerId, deltas)
+                .flatMap(matched -> matched ? Mono.<Void>empty() : insert(playerId, deltas)
+                        .onErrorResume(DuplicateKeyException.class, e -> increment(playerId, deltas).then()));
+    }
+
+    private Mono<Boolean> increment(String playerId, Map<Power, Integer> deltas) {
+        Update update = new Update().set("updatedAt", Instant.now());
+        deltas.forEach((power, delta) -> update.inc("progress." + power.ordinal(), delta));
+
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(playerId)), update, PowerMastery.class)
+                .map(result -> result.getMatchedCount() > 0);
+    }
+
+    private Mono<Void> insert(String playerId, Map<Power, Integer> deltas) {
+        List<Integer> progress = new ArrayList<>(Collections.nCopies(Power.values().length, 0));
+        deltas.forEach((power, delta) -> progress.set(power.ordinal(), delta));
+
+        return mongoTemplate.insert(new PowerMastery(playerId, progress, Instant.now())).then();
+    }
+}
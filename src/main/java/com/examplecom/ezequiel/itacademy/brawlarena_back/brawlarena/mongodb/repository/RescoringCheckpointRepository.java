@@ -0,0 +1,7 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.RescoringCheckpoint;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface RescoringCheckpointRepository extends ReactiveMongoRepository<RescoringCheckpoint, String> {
+}
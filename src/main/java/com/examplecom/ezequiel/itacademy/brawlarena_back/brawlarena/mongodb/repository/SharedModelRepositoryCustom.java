@@ -0,0 +1,12 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.GalleryCursor;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.SharedModel;
+import reactor.core.publisher.Flux;
+
+public interface SharedModelRepositoryCustom {
+
+    // Página ordenada por (sharedAt, id) descendente a partir del cursor (exclusivo).
+    // after, characterId y minScore son opcionales.
+    Flux<SharedModel> findPage(GalleryCursor after, String characterId, Integer minScore, int limit);
+}
@@ -0,0 +1,49 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.GalleryCursor;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.SharedModel;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SharedModelRepositoryImpl implements SharedModelRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public SharedModelRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<SharedModel> findPage(GalleryCursor after, String characterId, Integer minScore, int limit) {
+        List<Criteria> filtros = new ArrayList<>();
+
+        if (StringUtils.hasText(characterId)) {
+            filtros.add(Criteria.where("characterId").is(characterId));
+        }
+        if (minScore != null) {
+            filtros.add(Criteria.where("score").gte(minScore));
+        }
+        if (after != null) {
+            filtros.add(new Criteria().orOperator(
+                    Criteria.where("sharedAt").lt(after.sharedAt()),
+                    Criteria.where("sharedAt").is(after.sharedAt()).and("id").lt(after.id())
+            ));
+        }
+
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "sharedAt", "id"))
+                .limit(limit);
+        if (!filtros.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filtros.toArray(new Criteria[0])));
+        }
+
+        return mongoTemplate.find(query, SharedModel.class);
+    }
+}
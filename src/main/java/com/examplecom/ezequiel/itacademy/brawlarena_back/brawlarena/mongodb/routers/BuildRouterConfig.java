@@ -32,6 +32,12 @@ public class BuildRouterConfig {
                     beanClass = BuildHandler.class,
                     beanMethod = "validateBuild"
             ),
+            @RouterOperation(
+                    path = "/builds/validate/batch",
+                    method = RequestMethod.POST,
+                    beanClass = BuildHandler.class,
+                    beanMethod = "validateBuildsBatch"
+            ),
             @RouterOperation(
                     path = "/builds/history",
                     method = RequestMethod.GET,
@@ -43,6 +49,12 @@ public class BuildRouterConfig {
                     method = RequestMethod.GET,
                     beanClass = BuildHandler.class,
                     beanMethod = "getPendingBuild"
+            ),
+            @RouterOperation(
+                    path = "/builds/stats",
+                    method = RequestMethod.GET,
+                    beanClass = BuildHandler.class,
+                    beanMethod = "getPlayerStats"
             )
     })
 
@@ -50,8 +62,10 @@ public class BuildRouterConfig {
         return route()
                 .POST("/builds/start", handler::startBuild)
                 .POST("/builds/validate", handler::validateBuild)
+                .POST("/builds/validate/batch", handler::validateBuildsBatch)
                 .GET("/builds/history", handler::getBuildHistory)
                 .GET("/builds/pending", handler::getPendingBuild)
+                .GET("/builds/stats", handler::getPlayerStats)
                 .build();
     }
 }
@@ -0,0 +1,40 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.routers;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers.LeaderboardHandler;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springdoc.core.annotations.RouterOperation;
+import org.springdoc.core.annotations.RouterOperations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+@Tag(name = "Leaderboard", description = "Endpoints para consultar las clasificaciones por personaje")
+public class LeaderboardRouterConfig {
+
+    @Bean
+    @RouterOperations({
+            @RouterOperation(
+                    path = "/leaderboard/{characterId}",
+                    method = RequestMethod.GET,
+                    beanClass = LeaderboardHandler.class,
+                    beanMethod = "getLeaderboard"
+            ),
+            @RouterOperation(
+                    path = "/leaderboard/{characterId}/me",
+                    method = RequestMethod.GET,
+                    beanClass = LeaderboardHandler.class,
+                    beanMethod = "getMyRank"
+            )
+    })
+    public RouterFunction<ServerResponse> leaderboardRoutes(LeaderboardHandler handler) {
+        return route()
+                .GET("/leaderboard/{characterId}/me", handler::getMyRank)
+                .GET("/leaderboard/{characterId}", handler::getLeaderboard)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.routers;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers.PowerHandler;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springdoc.core.annotations.RouterOperation;
+import org.springdoc.core.annotations.RouterOperations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+@Tag(name = "Powers", description = "Endpoints para consultar la progresión de poderes del jugador")
+public class PowerRouterConfig {
+
+    @Bean
+    @RouterOperations({
+            @RouterOperation(
+                    path = "/powers/mastery",
+                    method = RequestMethod.GET,
+                    beanClass = PowerHandler.class,
+                    beanMethod = "getPowerMastery"
+            )
+    })
+    public RouterFunction<ServerResponse> powerRoutes(PowerHandler handler) {
+        return route()
+                .GET("/powers/mastery", handler::getPowerMastery)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.routers;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers.StatsHandler;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springdoc.core.annotations.RouterOperation;
+import org.springdoc.core.annotations.RouterOperations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+@Tag(name = "Stats", description = "Endpoints de estadísticas agregadas por personaje")
+public class StatsRouterConfig {
+
+    @Bean
+    @RouterOperations({
+            @RouterOperation(
+                    path = "/stats/characters/{characterId}",
+                    method = RequestMethod.GET,
+                    beanClass = StatsHandler.class,
+                    beanMethod = "getCharacterStats"
+            )
+    })
+    public RouterFunction<ServerResponse> statsRoutes(StatsHandler handler) {
+        return route()
+                .GET("/stats/characters/{characterId}", handler::getCharacterStats)
+                .build();
+    }
+}
@@ -1,15 +1,20 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.BuildBatchResult;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface BuildService {
 
     Mono<Build> startBuild(String playerId, String characterId);
     Mono<Build> validateBuild(String playerId, Build buildData);
+    Mono<List<BuildBatchResult>> validateBuilds(String playerId, List<Build> builds);
     Flux<Build> getBuildHistory(String playerId);
-    void clearPiecesCache(String characterId);
     Mono<Build> getPendingBuild(String playerId, String characterId);
+    Flux<PlayerStats> getPlayerStats(String playerId);
 
 }
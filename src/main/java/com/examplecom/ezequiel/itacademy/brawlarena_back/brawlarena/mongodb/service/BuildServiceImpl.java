@@ -1,17 +1,28 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.*;
-import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard.LeaderboardRegistry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.persistence.BuildWriteBuffer;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.stats.CharacterStatsRegistry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.CharacterAnswerKey;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreCalculator;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.validator.BuildValidator;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.BuildBatchResult;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
-import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
-import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
-import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PlayerStatsRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PowerMasteryRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
-import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserCharacterRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.RequestPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -21,73 +32,57 @@ import reactor.core.publisher.Mono;
 
 import java.util.*;
 import java.time.Instant;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
 public class BuildServiceImpl implements BuildService {
 
     private static final Logger logger = LoggerFactory.getLogger(BuildServiceImpl.class);
+    public static final int MAX_BATCH_SIZE = 50;
 
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final UserCharacterRepository userCharacterRepository;
     private final BuildRepository buildRepository;
-    private final CharacterRepository characterRepository;
-    private final Map<String, List<Piece>> piezasCache = new ConcurrentHashMap<>();
+    private final CharacterCatalog characterCatalog;
     private final ScoreCalculator scoreCalculator;
-
-    public BuildServiceImpl(UserRepository userRepository, BuildRepository buildRepository, CharacterRepository characterRepository, ScoreCalculator scoreCalculator) {
-        this.userRepository = userRepository;
+    private final PlayerStatsRepository playerStatsRepository;
+    private final PowerMasteryRepository powerMasteryRepository;
+    private final LeaderboardRegistry leaderboardRegistry;
+    private final CharacterStatsRegistry characterStatsRegistry;
+    private final BuildWriteBuffer buildWriteBuffer;
+
+    public BuildServiceImpl(UserCache userCache, UserCharacterRepository userCharacterRepository, BuildRepository buildRepository, CharacterCatalog characterCatalog, ScoreCalculator scoreCalculator, PlayerStatsRepository playerStatsRepository, PowerMasteryRepository powerMasteryRepository, LeaderboardRegistry leaderboardRegistry, CharacterStatsRegistry characterStatsRegistry, BuildWriteBuffer buildWriteBuffer) {
+        this.userCache = userCache;
+        this.userCharacterRepository = userCharacterRepository;
         this.buildRepository = buildRepository;
-        this.characterRepository = characterRepository;
+        this.characterCatalog = characterCatalog;
         this.scoreCalculator = scoreCalculator;
+        this.playerStatsRepository = playerStatsRepository;
+        this.powerMasteryRepository = powerMasteryRepository;
+        this.leaderboardRegistry = leaderboardRegistry;
+        this.characterStatsRegistry = characterStatsRegistry;
+        this.buildWriteBuffer = buildWriteBuffer;
     }
 
-    private static class EvaluacionPiezas {
-        private final List<Piece> piezasColocadas;
-        private final long errores;
-
-        public EvaluacionPiezas(List<Piece> piezasColocadas, long errores) {
-            this.piezasColocadas = piezasColocadas;
-            this.errores = errores;
-        }
-
-        public List<Piece> getPiezasColocadas() {
-            return piezasColocadas;
-        }
-
-        public long getErrores() {
-            return errores;
-        }
-    }
-
-    private Mono<Character> verificarAcceso(String playerId, String characterId) {
-        Mono<User> userMono = userRepository.findByNickname(playerId)
+    private Mono<CharacterCatalog.CatalogEntry> verificarAcceso(String playerId, String characterId) {
+        Mono<User> userMono = RequestPrincipal.user(playerId, () -> userCache.findByNickname(playerId))
                 .switchIfEmpty(Mono.error(new UserNotFoundException("Usuario no encontrado")));
 
-        Mono<Character> characterMono = characterRepository.findById(characterId)
+        Mono<CharacterCatalog.CatalogEntry> entryMono = characterCatalog.findEntry(characterId)
                 .switchIfEmpty(Mono.error(new CharacterNotFoundException("Personaje no encontrado")));
 
-        return Mono.zip(userMono, characterMono)
-                .flatMap(tuple -> {
-                    User user = tuple.getT1();
-                    Character character = tuple.getT2();
-
-                    List<String> idsDesbloqueados = Optional.ofNullable(user.getCharacterIds())
-                            .map(ids -> Arrays.stream(ids.replace("[", "").replace("]", "").split(","))
-                                    .map(String::trim)
-                                    .map(id -> id.replace("\"", ""))
-                                    .filter(s -> !s.isBlank())
-                                    .toList())
-                            .orElse(List.of());
-
-                    if (!idsDesbloqueados.contains(characterId)) {
-                        logger.warn("Acceso denegado: personaje {} no desbloqueado por jugador {}", characterId, playerId);
-                        return Mono.error(new CharacterAccessDeniedException("No puedes validar un build de un personaje que no has desbloqueado"));
-                    }
-
-                    return Mono.just(character);
-                });
+        return Mono.zip(userMono, entryMono)
+                .flatMap(tuple -> RequestPrincipal.isUnlocked(playerId, characterId,
+                                () -> userCharacterRepository.existsByUserIdAndCharacterId(tuple.getT1().getId(), characterId))
+                        .flatMap(desbloqueado -> {
+                            if (!desbloqueado) {
+                                logger.warn("Acceso denegado: personaje {} no desbloqueado por jugador {}", characterId, playerId);
+                                return Mono.error(new CharacterAccessDeniedException("No puedes validar un build de un personaje que no has desbloqueado"));
+                            }
+
+                            return Mono.just(tuple.getT2());
+                        }));
     }
 
     private Mono<Build> obtenerBuildPendiente(String playerId, String characterId) {
@@ -100,99 +95,72 @@ public class BuildServiceImpl implements BuildService {
                 }));
     }
 
-    private EvaluacionPiezas evaluarPiezas(List<String> piezasColocadasIds, List<Piece> piezasCorrectas) {
-        List<Piece> piezasColocadas = piezasCorrectas.stream()
-                .filter(p -> piezasColocadasIds.contains(p.getId()))
-                .toList();
+    // Misma escritura condicionada a valid:false que el lote: si otra petición ya completó el build
+    // entre la lectura y la escritura, no se vuelve a contar en las tablas derivadas
+    private Mono<Build> completarYGuardarBuild(Build build, List<String> piezasColocadasIds, CharacterAnswerKey.Evaluation evaluacion, int duration, boolean primeraVez) {
+        prepararBuild(build, piezasColocadasIds, evaluacion, duration, primeraVez);
 
-        long errores = piezasColocadasIds.stream()
-                .filter(id -> piezasCorrectas.stream().noneMatch(p -> p.getId().equals(id)))
-                .count();
-
-        return new EvaluacionPiezas(piezasColocadas, errores);
+        return buildRepository.completeAll(List.of(build))
+                .flatMap(completados -> completados.contains(build.getId()) ? Mono.just(build) : buildNoCompletado(build))
+                .flatMap(saved -> playerStatsRepository.recordCompletion(saved).thenReturn(saved))
+                .doOnNext(this::registrarValidacion);
     }
 
-    private Mono<Build> completarYGuardarBuild(Build build, List<String> piezasColocadasIds, long errores, int duration, boolean primeraVez, List<Piece> piezasColocadas, List<Piece> piezasCorrectas) {
-        int score = scoreCalculator.calculateScore(
-                piezasColocadas,
-                piezasCorrectas,
-                (int) errores,
-                duration,
-                primeraVez
-        );
+    private Mono<Build> buildNoCompletado(Build build) {
+        return buildRepository.existsById(build.getId())
+                .flatMap(existe -> {
+                    logger.warn("El build {} ya no estaba pendiente al guardarlo", build.getId());
+                    return Mono.error(existe
+                            ? new BuildAlreadyValidatedException("El build ya se ha validado en otra petición")
+                            : new NoPendingBuildException("No hay un build pendiente para este personaje"));
+                });
+    }
 
+    private Build prepararBuild(Build build, List<String> piezasColocadasIds, CharacterAnswerKey.Evaluation evaluacion, int duration, boolean primeraVez) {
         build.setValid(true);
-        build.setScore(score);
+        build.setScore(scoreCalculator.calculateScore(evaluacion, duration, primeraVez));
         build.setDuration(duration);
-        build.setErrors((int) errores);
+        build.setErrors(evaluacion.getErrores());
         build.setPiecesPlaced(piezasColocadasIds);
-
-        return buildRepository.save(build)
-                .doOnSuccess(saved -> logger.info(
-                        "Build validado: {} | Score: {} | Duration: {}s | Errores: {}",
-                        saved.getId(), score, duration, errores
-                ));
+        return build;
     }
 
-    private Map<Power, Integer> evaluarProgresionDePoderes(List<Piece> piezasColocadas, List<String> idsColocados, List<Piece> piezasCorrectas) {
-        Map<Power, Integer> progresion = new EnumMap<>(Power.class);
-
-        for (Piece pieza : piezasColocadas) {
-            Power power = pieza.getPower();
-            if (power != null) {
-                progresion.merge(power, 33, Integer::sum);
-            }
-        }
-
-        Set<String> idsCorrectos = piezasCorrectas.stream()
-                .map(Piece::getId)
-                .collect(Collectors.toSet());
-
-        List<String> idsFallados = idsColocados.stream()
-                .filter(id -> !idsCorrectos.contains(id))
-                .toList();
-
-        for (Piece pieza : piezasCorrectas) {
-            if (pieza.getPower() != null && idsFallados.contains(pieza.getId())) {
-                progresion.merge(pieza.getPower(), -15, Integer::sum);
-            }
-        }
+    // Estado en memoria (clasificación e histogramas), una vez persistido el build
+    private void registrarValidacion(Build saved) {
+        leaderboardRegistry.record(saved.getCharacterId(), saved.getPlayerId(), saved.getScore());
+        saved.setPercentiles(characterStatsRegistry.record(saved.getCharacterId(), saved.getScore(), saved.getDuration()));
+        logger.info("Build validado: {} | Score: {} | Duration: {}s | Errores: {}",
+                saved.getId(), saved.getScore(), saved.getDuration(), saved.getErrors());
+    }
 
-        return progresion;
+    // Lectura por clave de player_stats; el recuento de builds solo se usa si aún no hay estadísticas (datos anteriores)
+    private Mono<Boolean> esPrimeraVez(String playerId, String characterId) {
+        return playerStatsRepository.findById(PlayerStats.idOf(playerId, characterId))
+                .map(stats -> stats.getCompletions() == 0)
+                .switchIfEmpty(Mono.defer(() -> buildRepository.countByPlayerIdAndCharacterIdAndValidTrue(playerId, characterId)
+                        .map(count -> count == 0)));
     }
 
 
     @Override
     public Mono<Build> startBuild(String playerId, String characterId) {
-        Mono<User> userMono = userRepository.findByNickname(playerId)
+        Mono<User> userMono = RequestPrincipal.user(playerId, () -> userCache.findByNickname(playerId))
                 .switchIfEmpty(Mono.error(new UserNotFoundException("Usuario no encontrado")));
 
-        Mono<Character> characterMono = characterRepository.findById(characterId)
-                .switchIfEmpty(Mono.error(new CharacterNotFoundException("Personaje no encontrado")));
-
-        return Mono.zip(userMono, characterMono)
-                .flatMap(tuple -> {
-                    User user = tuple.getT1();
-                    Character character = tuple.getT2();
-
-                    List<String> idsDesbloqueados = Optional.ofNullable(user.getCharacterIds())
-                            .map(ids -> Arrays.stream(ids.replace("[", "").replace("]", "").split(","))
-                                    .map(String::trim)
-                                    .map(id -> id.replace("\"", ""))
-                                    .filter(s -> !s.isBlank())
-                                    .toList())
-                            .orElse(List.of());
+        Mono<Boolean> characterExists = characterCatalog.findById(characterId)
+                .switchIfEmpty(Mono.error(new CharacterNotFoundException("Personaje no encontrado")))
+                .thenReturn(true);
 
-                    if (!idsDesbloqueados.contains(characterId)) {
+        return Mono.zip(userMono, characterExists)
+                .flatMap(tuple -> RequestPrincipal.isUnlocked(playerId, characterId,
+                        () -> userCharacterRepository.existsByUserIdAndCharacterId(tuple.getT1().getId(), characterId)))
+                .flatMap(desbloqueado -> {
+                    if (!desbloqueado) {
                         logger.warn("Acceso denegado: personaje {} no desbloqueado por jugador {}", characterId, playerId);
                         return Mono.error(new CharacterAccessDeniedException("No puedes iniciar un build con este personaje"));
                     }
 
-                    return buildRepository.findAll()
-                            .filter(build -> build.getPlayerId().equals(playerId)
-                                    && build.getCharacterId().equals(characterId)
-                                    && !build.isValid())
-                            .hasElements()
+                    return buildRepository.existsByPlayerIdAndCharacterIdAndValidFalse(playerId, characterId)
                             .flatMap(exists -> {
                                 if (exists) {
                                     logger.warn("Ya existe un build no validado para jugador {} y personaje {}", playerId, characterId);
@@ -205,7 +173,12 @@ public class BuildServiceImpl implements BuildService {
                                 newBuild.setValid(false);
                                 newBuild.setCreatedAt(Instant.now());
 
-                                return buildRepository.save(newBuild)
+                                // El índice único parcial resuelve la carrera entre dos "start" simultáneos
+                                return buildWriteBuffer.save(newBuild)
+                                        .onErrorMap(DuplicateKeyException.class, e -> {
+                                            logger.warn("Build pendiente duplicado rechazado por índice para jugador {} y personaje {}", playerId, characterId);
+                                            return new BuildAlreadyExistsException("Ya tienes un build activo para este personaje");
+                                        })
                                         .doOnSuccess(saved -> logger.info("Nuevo build iniciado: {}", saved.getId()));
                             });
                 })
@@ -230,51 +203,187 @@ public class BuildServiceImpl implements BuildService {
         long duration = buildData.getDuration();
 
         return verificarAcceso(playerId, characterId)
-                .flatMap(character -> {
-                    List<Piece> piezasCorrectas = piezasCache.computeIfAbsent(characterId, id -> {
-                        List<Piece> piezas = character.getPieces();
-                        if (piezas == null) {
-                            logger.warn("El personaje {} no tiene piezas asignadas", characterId);
-                            return List.of();
-                        }
-                        return piezas.stream()
-                                .filter(p -> !p.isFake())
-                                .toList();
-                    });
-
+                .flatMap(entry -> {
+                    CharacterAnswerKey answerKey = entry.getAnswerKey();
 
                     return obtenerBuildPendiente(playerId, characterId)
                             .flatMap(buildExistente -> {
-                                EvaluacionPiezas evaluacion = evaluarPiezas(piezasColocadasIds, piezasCorrectas);
-                                List<Piece> piezasColocadas = evaluacion.getPiezasColocadas();
-                                long errores = evaluacion.getErrores();
+                                CharacterAnswerKey.Evaluation evaluacion = answerKey.evaluate(piezasColocadasIds);
 
-                                return buildRepository.countByPlayerIdAndCharacterIdAndValidTrue(playerId, characterId)
-                                        .map(count -> count == 0)
+                                return esPrimeraVez(playerId, characterId)
                                         .flatMap(primeraVezCompletado ->
                                                 completarYGuardarBuild(
                                                         buildExistente,
                                                         piezasColocadasIds,
-                                                        errores,
+                                                        evaluacion,
                                                         (int) duration,
-                                                        primeraVezCompletado,
-                                                        piezasColocadas,
-                                                        piezasCorrectas
+                                                        primeraVezCompletado
                                                 )
                                         )
-                                        .map(build -> {
-                                            Map<Power, Integer> powerProgress = evaluarProgresionDePoderes(piezasColocadas, piezasColocadasIds, piezasCorrectas);
-                                            build.setPowerProgress(powerProgress);
-                                            return build;
+                                        .flatMap(build -> {
+                                            Map<Power, Integer> progresion = evaluacion.powerProgress();
+                                            build.setPowerProgress(progresion);
+                                            return powerMasteryRepository.addProgress(playerId, progresion)
+                                                    .thenReturn(build);
                                         });
 
                             });
                 })
-                .doOnError(error -> {
-                    logger.error("Error durante la validación de build: {}", error.getMessage());
-                    clearPiecesCache(buildData.getCharacterId());
+                .doOnError(error -> logger.error("Error durante la validación de build: {}", error.getMessage()));
+
+    }
+
+    // Validación de los builds encolados por el cliente sin conexión.
+    // Usuario, desbloqueos, personajes, builds pendientes y estadísticas se leen una sola vez para todo el lote
+    // y los builds se guardan con un único bulkWrite. Los errores de cada elemento no cancelan el resto.
+    @Override
+    public Mono<List<BuildBatchResult>> validateBuilds(String playerId, List<Build> builds) {
+        Objects.requireNonNull(playerId, "playerId no puede ser null");
+        if (builds == null || builds.isEmpty()) {
+            throw new IllegalArgumentException("El lote debe contener al menos un build");
+        }
+        if (builds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("El lote no puede superar " + MAX_BATCH_SIZE + " builds");
+        }
+
+        BuildBatchResult[] resultados = new BuildBatchResult[builds.size()];
+        // Solo hay un build pendiente por personaje: el primero del lote se valida y los repetidos se rechazan
+        Map<String, Integer> indicePorPersonaje = new LinkedHashMap<>();
+        for (int i = 0; i < builds.size(); i++) {
+            Build buildData = builds.get(i);
+            try {
+                BuildValidator.validateBuildData(buildData);
+            } catch (IllegalArgumentException e) {
+                resultados[i] = BuildBatchResult.failed(i, buildData != null ? buildData.getCharacterId() : null, HttpStatus.BAD_REQUEST, e.getMessage());
+                continue;
+            }
+            if (indicePorPersonaje.putIfAbsent(buildData.getCharacterId(), i) != null) {
+                resultados[i] = BuildBatchResult.failed(i, buildData.getCharacterId(), HttpStatus.CONFLICT, "Solo puede validarse un build por personaje en cada lote");
+            }
+        }
+
+        if (indicePorPersonaje.isEmpty()) {
+            return Mono.just(Arrays.asList(resultados));
+        }
+
+        Set<String> characterIds = indicePorPersonaje.keySet();
+        List<String> statsIds = characterIds.stream().map(characterId -> PlayerStats.idOf(playerId, characterId)).toList();
+
+        return RequestPrincipal.user(playerId, () -> userCache.findByNickname(playerId))
+                .switchIfEmpty(Mono.error(new UserNotFoundException("Usuario no encontrado")))
+                .flatMap(user -> Mono.zip(
+                        RequestPrincipal.unlockedCharacterIds(playerId,
+                                () -> userCharacterRepository.findCharacterIdsByUserId(user.getId()).collect(Collectors.toSet())),
+                        Flux.fromIterable(characterIds)
+                                .flatMap(characterId -> characterCatalog.findEntry(characterId).map(entry -> Map.entry(characterId, entry)))
+                                .collectMap(Map.Entry::getKey, Map.Entry::getValue),
+                        buildRepository.findByPlayerIdAndValidFalseAndCharacterIdIn(playerId, characterIds)
+                                .collectMap(Build::getCharacterId),
+                        playerStatsRepository.findAllById(statsIds)
+                                .collectMap(PlayerStats::getCharacterId)))
+                .flatMap(datos -> {
+                    Set<String> desbloqueados = datos.getT1();
+                    Map<String, CharacterCatalog.CatalogEntry> personajes = datos.getT2();
+                    Map<String, Build> pendientes = datos.getT3();
+                    Map<String, PlayerStats> estadisticas = datos.getT4();
+
+                    List<String> aptos = new ArrayList<>();
+                    indicePorPersonaje.forEach((characterId, i) -> {
+                        if (!personajes.containsKey(characterId)) {
+                            resultados[i] = BuildBatchResult.failed(i, characterId, HttpStatus.NOT_FOUND, "Personaje no encontrado");
+                        } else if (!desbloqueados.contains(characterId)) {
+                            resultados[i] = BuildBatchResult.failed(i, characterId, HttpStatus.FORBIDDEN, "No puedes validar un build de un personaje que no has desbloqueado");
+                        } else if (!pendientes.containsKey(characterId)) {
+                            resultados[i] = BuildBatchResult.failed(i, characterId, HttpStatus.NOT_FOUND, "No hay un build pendiente para este personaje");
+                        } else {
+                            aptos.add(characterId);
+                        }
+                    });
+
+                    if (aptos.isEmpty()) {
+                        return Mono.just(Arrays.asList(resultados));
+                    }
+
+                    return primerasVeces(playerId, aptos, estadisticas)
+                            .flatMap(primeraVez -> {
+                                List<Build> preparados = new ArrayList<>(aptos.size());
+                                for (String characterId : aptos) {
+                                    Build buildData = builds.get(indicePorPersonaje.get(characterId));
+                                    CharacterAnswerKey.Evaluation evaluacion = personajes.get(characterId).getAnswerKey().evaluate(buildData.getPiecesPlaced());
+                                    Build build = prepararBuild(pendientes.get(characterId), buildData.getPiecesPlaced(), evaluacion,
+                                            (int) buildData.getDuration(), primeraVez.get(characterId));
+                                    build.setPowerProgress(evaluacion.powerProgress());
+                                    preparados.add(build);
+                                }
+
+                                return buildRepository.completeAll(preparados)
+                                        .flatMap(completadosIds -> descartarNoCompletados(preparados, completadosIds, indicePorPersonaje, resultados))
+                                        .flatMap(completados -> {
+                                            if (completados.isEmpty()) {
+                                                return Mono.just(Arrays.asList(resultados));
+                                            }
+
+                                            // Las tablas derivadas solo reciben los builds que esta petición ha completado
+                                            Map<Power, Integer> progresion = new EnumMap<>(Power.class);
+                                            completados.forEach(build -> build.getPowerProgress()
+                                                    .forEach((power, delta) -> progresion.merge(power, delta, Integer::sum)));
+
+                                            return playerStatsRepository.recordCompletions(completados)
+                                                    .then(Mono.fromRunnable(() -> completados.forEach(this::registrarValidacion)))
+                                                    .then(powerMasteryRepository.addProgress(playerId, progresion))
+                                                    .then(Mono.fromSupplier(() -> {
+                                                        completados.forEach(build -> {
+                                                            int i = indicePorPersonaje.get(build.getCharacterId());
+                                                            resultados[i] = BuildBatchResult.validated(i, build);
+                                                        });
+                                                        logger.info("Lote de {} builds procesado para {}: {} validados", builds.size(), playerId, completados.size());
+                                                        return Arrays.asList(resultados);
+                                                    }));
+                                        });
+                            });
+                })
+                .doOnError(error -> logger.error("Error durante la validación del lote de builds: {}", error.getMessage()));
+    }
+
+    // Un build preparado que el bulkWrite no ha completado se borró (limpieza de pendientes) o lo validó otra
+    // petición entre la lectura y la escritura; se distingue releyendo solo esos ids
+    private Mono<List<Build>> descartarNoCompletados(List<Build> preparados, Set<String> completadosIds,
+                                                     Map<String, Integer> indicePorPersonaje, BuildBatchResult[] resultados) {
+        if (completadosIds.size() == preparados.size()) {
+            return Mono.just(preparados);
+        }
+
+        List<Build> completados = preparados.stream().filter(build -> completadosIds.contains(build.getId())).toList();
+        List<String> perdidos = preparados.stream().map(Build::getId).filter(id -> !completadosIds.contains(id)).toList();
+
+        return buildRepository.findAllById(perdidos)
+                .map(Build::getId)
+                .collect(Collectors.toSet())
+                .map(existentes -> {
+                    preparados.stream()
+                            .filter(build -> !completadosIds.contains(build.getId()))
+                            .forEach(build -> {
+                                int i = indicePorPersonaje.get(build.getCharacterId());
+                                resultados[i] = existentes.contains(build.getId())
+                                        ? BuildBatchResult.failed(i, build.getCharacterId(), HttpStatus.CONFLICT, "El build ya se ha validado en otra petición")
+                                        : BuildBatchResult.failed(i, build.getCharacterId(), HttpStatus.NOT_FOUND, "No hay un build pendiente para este personaje");
+                            });
+                    logger.warn("{} builds del lote ya no estaban pendientes al guardarlos", perdidos.size());
+                    return completados;
                 });
+    }
 
+    // Sin estadísticas previas (datos anteriores a player_stats) se recurre al recuento de builds
+    private Mono<Map<String, Boolean>> primerasVeces(String playerId, List<String> characterIds, Map<String, PlayerStats> estadisticas) {
+        return Flux.fromIterable(characterIds)
+                .concatMap(characterId -> {
+                    PlayerStats stats = estadisticas.get(characterId);
+                    Mono<Boolean> primeraVez = stats != null
+                            ? Mono.just(stats.getCompletions() == 0)
+                            : buildRepository.countByPlayerIdAndCharacterIdAndValidTrue(playerId, characterId).map(count -> count == 0);
+                    return primeraVez.map(valor -> Map.entry(characterId, valor));
+                })
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
     }
 
     @Override
@@ -284,12 +393,6 @@ public class BuildServiceImpl implements BuildService {
                 .doOnError(error -> logger.error("Error al recuperar historial de builds: {}", error.getMessage()));
     }
 
-    @Override
-    public void clearPiecesCache(String characterId) {
-        piezasCache.remove(characterId);
-        logger.info("Caché de piezas eliminada para personaje {}", characterId);
-    }
-
     @Override
     public Mono<Build> getPendingBuild(String playerId, String characterId) {
         if (!StringUtils.hasText(playerId) || !StringUtils.hasText(characterId)) {
@@ -300,4 +403,11 @@ public class BuildServiceImpl implements BuildService {
                 .next()
                 .switchIfEmpty(Mono.error(new NoPendingBuildException("No hay build pendiente para este personaje")));
     }
+
+    @Override
+    public Flux<PlayerStats> getPlayerStats(String playerId) {
+        return playerStatsRepository.findByPlayerId(playerId)
+                .doOnSubscribe(sub -> logger.info("Recuperando estadísticas del jugador {}", playerId))
+                .doOnError(error -> logger.error("Error al recuperar estadísticas: {}", error.getMessage()));
+    }
 }
@@ -12,7 +12,7 @@ public interface CharacterService {
 
     // Flux para múltiples valores o listas de datos.
     Flux<Character> getAllCharacters();
-    Flux<Character> getUnlockedCharacters(String playerId);
+    Flux<Character> getUnlockedCharacters(String playerId, boolean includePieces);
     Mono<Boolean> unlockCharacter(String playerId, String characterId);
     Mono<Character> getCharacterDetail(String characterId);
     Mono<Character> updateCharacter(String characterId, CharacterUpdateRequest request);
@@ -1,22 +1,25 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.JsonResponseCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.InsufficientTokensException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterUpdateRequest;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PieceRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserCharacterRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.RequestPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -30,31 +33,34 @@ public class CharacterServiceImpl implements CharacterService {
     private final CharacterRepository characterRepository;
     private final UserRepository userRepository;
     private final BuildRepository buildRepository;
-    private final BuildService buildService;
     private final PieceRepository pieceRepository;
-
-
-    @Autowired
-    private ObjectMapper objectMapper;
+    private final UserCharacterRepository userCharacterRepository;
+    private final CharacterCatalog characterCatalog;
+    private final JsonResponseCache responseCache;
+    private final UserCache userCache;
 
 
     public CharacterServiceImpl(CharacterRepository characterRepository,
                                 UserRepository userRepository,
                                 BuildRepository buildRepository,
-                                BuildService buildService,
                                 PieceRepository pieceRepository,
-                                ObjectMapper objectMapper) {
+                                UserCharacterRepository userCharacterRepository,
+                                CharacterCatalog characterCatalog,
+                                JsonResponseCache responseCache,
+                                UserCache userCache) {
         this.characterRepository = characterRepository;
         this.userRepository = userRepository;
         this.buildRepository = buildRepository;
-        this.buildService = buildService;
         this.pieceRepository = pieceRepository;
-        this.objectMapper = objectMapper;
+        this.userCharacterRepository = userCharacterRepository;
+        this.characterCatalog = characterCatalog;
+        this.responseCache = responseCache;
+        this.userCache = userCache;
     }
 
     @Override
     public Flux<Character> getAllCharacters() {
-        return characterRepository.findAll()
+        return characterCatalog.findAll()
                 .doOnSubscribe(sub -> logger.info("Buscando todos los personajes..."))
                 .doOnNext(character -> logger.debug("Personaje encontrado: {}", character.getName()))
                 .switchIfEmpty(Flux.defer(() -> {
@@ -65,36 +71,33 @@ public class CharacterServiceImpl implements CharacterService {
     }
 
     @Override
-    public Flux<Character> getUnlockedCharacters(String playerId) {
-        return userRepository.findByNickname(playerId)
+    public Flux<Character> getUnlockedCharacters(String playerId, boolean includePieces) {
+        return RequestPrincipal.user(playerId, () -> userCache.findByNickname(playerId))
                 .switchIfEmpty(Mono.error(new UserNotFoundException("Usuario no encontrado")))
-                .flatMapMany(user -> {
-                    List<String> ids = Optional.ofNullable(user.getCharacterIds())
-                            .map(idsStr -> Arrays.stream(idsStr.replace("[", "").replace("]", "").split(","))
-                                    .map(String::trim)
-                                    .map(id -> id.replace("\"", "")) // CORRECCIÓN AQUÍ
-                                    .filter(s -> !s.isBlank())
-                                    .toList())
-                            .orElse(List.of());
+                .flatMap(user -> RequestPrincipal.unlockedCharacterIds(playerId,
+                        () -> userCharacterRepository.findCharacterIdsByUserId(user.getId()).collect(Collectors.toSet())))
+                .flatMapMany(ids -> {
                     logger.info("Buscando personajes desbloqueados para playerId: {}", playerId);
-                    return characterRepository.findAll()
-                            .filter(character -> ids.contains(character.getId()));
+                    // Búsqueda por id en el catálogo: el coste depende de los desbloqueados, no del tamaño del catálogo
+                    return characterCatalog.findSnapshot()
+                            .flatMapIterable(catalogo -> catalogo.findAllById(ids, includePieces));
                 })
                 .doOnNext(character -> logger.debug("Personaje desbloqueado encontrado: {}", character.getName()))
                 .doOnError(error -> logger.error("Error al obtener personajes desbloqueados: {}", error.getMessage()));
     }
 
     @Override
+    @Transactional
     public Mono<Boolean> unlockCharacter(String playerId, String characterId) {
         if (!StringUtils.hasText(characterId)) {
             logger.warn("ID de personaje vacío o nulo recibido para desbloqueo");
             return Mono.error(new IllegalArgumentException("ID de personaje inválido"));
         }
 
-        Mono<User> userMono = userRepository.findByNickname(playerId)
+        Mono<User> userMono = RequestPrincipal.user(playerId, () -> userCache.findByNickname(playerId))
                 .switchIfEmpty(Mono.error(new UserNotFoundException("Usuario no encontrado")));
 
-        Mono<Character> characterMono = characterRepository.findById(characterId)
+        Mono<Character> characterMono = characterCatalog.findById(characterId)
                 .switchIfEmpty(Mono.error(new CharacterNotFoundException("Personaje no encontrado")));
 
         return Mono.zip(userMono, characterMono)
@@ -102,43 +105,40 @@ public class CharacterServiceImpl implements CharacterService {
                     User user = tuple.getT1();
                     Character character = tuple.getT2();
 
-                    // Usar Set para eficiencia y evitar duplicados
-                    Set<String> idsDesbloqueados = Optional.ofNullable(user.getCharacterIds())
-                            .map(ids -> Arrays.stream(ids.replace("[", "").replace("]", "").split(","))
-                                    .map(String::trim)
-                                    .map(id -> id.replace("\"", ""))
-                                    .filter(StringUtils::hasText)
-                                    .collect(Collectors.toSet()))
-                            .orElse(new HashSet<>());
-
-                    if (idsDesbloqueados.contains(characterId)) {
-                        logger.warn("El personaje {} ya estaba desbloqueado por {}", character.getName(), user.getNickname());
-                        return Mono.just(false);
-                    }
-
-                    if (user.getTokens() < character.getCost()) {
-                        logger.warn("Usuario {} no tiene tokens suficientes", user.getNickname());
-                        return Mono.error(new InsufficientTokensException("No tienes tokens suficientes"));
-                    }
-
-                    user.setTokens(user.getTokens() - character.getCost());
-                    idsDesbloqueados.add(characterId);
-
-                    try {
-                        user.setCharacterIds(objectMapper.writeValueAsString(idsDesbloqueados));
-                    } catch (JsonProcessingException e) {
-                        logger.error("Error al serializar characterIds: {}", e.getMessage());
-                        return Mono.error(new RuntimeException("Error al guardar los personajes desbloqueados"));
+                    // La inserción y el débito van en la misma transacción: si no hay saldo se revierte la inserción
+                    return userCharacterRepository.insert(user.getId(), characterId)
+                            .flatMap(insertado -> {
+                                if (!insertado) {
+                                    logger.warn("El personaje {} ya estaba desbloqueado por {}", character.getName(), user.getNickname());
+                                    return Mono.just(false);
+                                }
+
+                                if (character.getCost() <= 0) {
+                                    return Mono.just(true);
+                                }
+
+                                return userRepository.debitTokens(playerId, character.getCost())
+                                        .flatMap(filas -> {
+                                            if (filas == 0) {
+                                                logger.warn("Usuario {} no tiene tokens suficientes", user.getNickname());
+                                                return Mono.error(new InsufficientTokensException("No tienes tokens suficientes"));
+                                            }
+                                            return Mono.just(true);
+                                        });
+                            });
+                })
+                // El saldo ha cambiado: la próxima lectura del usuario vuelve a MySQL
+                .doOnSuccess(desbloqueado -> {
+                    if (Boolean.TRUE.equals(desbloqueado)) {
+                        userCache.invalidate(playerId);
                     }
-
-                    return userRepository.save(user).thenReturn(true);
                 })
                 .doOnError(error -> logger.error("Error al desbloquear personaje: {}", error.getMessage()));
     }
 
     @Override
     public Mono<Character> getCharacterDetail(String characterId) {
-        return characterRepository.findById(characterId)
+        return characterCatalog.findById(characterId)
                 .doOnSubscribe(sub -> logger.info("Buscando detalles del personaje con ID: {}", characterId))
                 .switchIfEmpty(Mono.defer(() -> {
                     logger.warn("Personaje con ID {} no encontrado", characterId);
@@ -162,11 +162,13 @@ public class CharacterServiceImpl implements CharacterService {
 
                     if (request.getPieces() != null) {
                         character.setPieces(request.getPieces());
-                        buildService.clearPiecesCache(characterId);
                     }
 
                     return characterRepository.save(character)
-                            .doOnSuccess(updated -> logger.info("Personaje actualizado correctamente: {}", updated.getId()));
+                            .doOnSuccess(updated -> {
+                                invalidarCaches(characterId);
+                                logger.info("Personaje actualizado correctamente: {}", updated.getId());
+                            });
                 })
                 .doOnError(error -> logger.error("Error al actualizar personaje: {}", error.getMessage()));
     }
@@ -183,7 +185,8 @@ public class CharacterServiceImpl implements CharacterService {
                                 .collectList()
                                 .flatMap(pieces -> {
                                     character.setPieces(pieces);
-                                    return characterRepository.save(character);
+                                    return characterRepository.save(character)
+                                            .doOnSuccess(updated -> invalidarCaches(characterId));
                                 })
                 );
     }
@@ -202,11 +205,16 @@ public class CharacterServiceImpl implements CharacterService {
                 .switchIfEmpty(Mono.error(new CharacterNotFoundException("Personaje no encontrado")))
                 .flatMap(character -> {
                     character.setPieces(pieces);
-                    buildService.clearPiecesCache(characterId);
-                    return characterRepository.save(character);
+                    return characterRepository.save(character)
+                            .doOnSuccess(updated -> invalidarCaches(characterId));
                 })
                 .doOnSuccess(updated -> logger.info("Piezas asignadas con poderes al personaje {}", updated.getId()))
                 .doOnError(error -> logger.error("Error al asignar piezas con poderes: {}", error.getMessage()));
     }
 
-}
\ No newline at end of file
+    private void invalidarCaches(String characterId) {
+        characterCatalog.invalidate(characterId);
+        responseCache.invalidateCharacter(characterId);
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterStatsResponse;
+import reactor.core.publisher.Mono;
+
+public interface CharacterStatsService {
+
+    Mono<CharacterStatsResponse> getCharacterStats(String characterId);
+
+}
@@ -0,0 +1,38 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterStatsResponse;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.stats.CharacterStatsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+@Service
+public class CharacterStatsServiceImpl implements CharacterStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CharacterStatsServiceImpl.class);
+
+    private final CharacterStatsRegistry characterStatsRegistry;
+    private final CharacterCatalog characterCatalog;
+
+    public CharacterStatsServiceImpl(CharacterStatsRegistry characterStatsRegistry, CharacterCatalog characterCatalog) {
+        this.characterStatsRegistry = characterStatsRegistry;
+        this.characterCatalog = characterCatalog;
+    }
+
+    // Se responde desde los histogramas en memoria; no se leen builds
+    @Override
+    public Mono<CharacterStatsResponse> getCharacterStats(String characterId) {
+        if (!StringUtils.hasText(characterId)) {
+            return Mono.error(new IllegalArgumentException("characterId no puede ser nulo o vacío"));
+        }
+
+        return characterCatalog.findById(characterId)
+                .switchIfEmpty(Mono.error(new CharacterNotFoundException("Personaje no encontrado")))
+                .map(character -> characterStatsRegistry.summary(characterId))
+                .doOnSuccess(stats -> logger.debug("Percentiles de {} servidos desde memoria", characterId));
+    }
+}
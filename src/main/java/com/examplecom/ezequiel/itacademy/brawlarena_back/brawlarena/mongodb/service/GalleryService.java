@@ -1,11 +1,12 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.GalleryPage;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.SharedModel;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface GalleryService {
-    Flux<SharedModel> getPublicGallery();
+    Mono<GalleryPage> getPublicGallery(Integer limit, String cursor, String characterId, Integer minScore);
     Mono<SharedModel> shareModel(String playerId, String characterId);
     Mono<SharedModel> getHighlightedModel();
     Flux<String> getSharedUsersByCharacter(String characterId);
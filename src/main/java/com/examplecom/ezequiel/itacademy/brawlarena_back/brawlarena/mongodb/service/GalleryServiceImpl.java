@@ -1,11 +1,18 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.JsonResponseCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.*;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.GalleryCursor;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.GalleryPage;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.SharedModel;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
-import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PlayerStatsRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.SharedModelRepository;
-import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.RequestPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -19,25 +26,51 @@ import java.util.List;
 @Service
 public class GalleryServiceImpl implements GalleryService{
     private static final Logger logger = LoggerFactory.getLogger(GalleryServiceImpl.class);
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
     private final SharedModelRepository sharedModelRepository;
     private final BuildRepository buildRepository;
-    private final UserRepository userRepository;
-    private final CharacterRepository characterRepository;
+    private final UserCache userCache;
+    private final CharacterCatalog characterCatalog;
+    private final JsonResponseCache responseCache;
+    private final PlayerStatsRepository playerStatsRepository;
 
-    public GalleryServiceImpl(SharedModelRepository sharedModelRepository, BuildRepository buildRepository, UserRepository userRepository, CharacterRepository characterRepository) {
+    public GalleryServiceImpl(SharedModelRepository sharedModelRepository, BuildRepository buildRepository, UserCache userCache, CharacterCatalog characterCatalog, JsonResponseCache responseCache, PlayerStatsRepository playerStatsRepository) {
         this.sharedModelRepository = sharedModelRepository;
         this.buildRepository = buildRepository;
-        this.userRepository = userRepository;
-        this.characterRepository = characterRepository;
+        this.userCache = userCache;
+        this.characterCatalog = characterCatalog;
+        this.responseCache = responseCache;
+        this.playerStatsRepository = playerStatsRepository;
     }
 
     @Override
-    public Flux<SharedModel> getPublicGallery() {
-        return sharedModelRepository.findAll()
-                .sort((a, b) -> b.getSharedAt().compareTo(a.getSharedAt()))
-                .doOnSubscribe(sub -> logger.info("Recuperando galería pública de modelos compartidos"))
-                .doOnNext(model -> logger.debug("Modelo compartido encontrado: playerId={}, characterId={}", model.getPlayerId(), model.getCharacterId()))
-                .doOnComplete(() -> logger.info("Galería pública recuperada correctamente"))
+    public Mono<GalleryPage> getPublicGallery(Integer limit, String cursor, String characterId, Integer minScore) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return Mono.error(new IllegalArgumentException("limit debe estar entre 1 y " + MAX_PAGE_SIZE));
+        }
+
+        GalleryCursor after;
+        try {
+            after = StringUtils.hasText(cursor) ? GalleryCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
+        // Se pide un elemento de más para saber si existe una página siguiente
+        return sharedModelRepository.findPage(after, characterId, minScore, pageSize + 1)
+                .collectList()
+                .map(models -> {
+                    if (models.size() <= pageSize) {
+                        return new GalleryPage(models, null);
+                    }
+                    List<SharedModel> items = models.subList(0, pageSize);
+                    SharedModel last = items.get(pageSize - 1);
+                    return new GalleryPage(items, new GalleryCursor(last.getSharedAt(), last.getId()).encode());
+                })
+                .doOnSubscribe(sub -> logger.info("Recuperando galería pública (limit={}, characterId={}, minScore={})", pageSize, characterId, minScore))
+                .doOnSuccess(page -> logger.debug("Página de galería con {} modelos", page.items().size()))
                 .doOnError(error -> logger.error("Error al recuperar galería pública: {}", error.getMessage()));
     }
 
@@ -48,26 +81,22 @@ public class GalleryServiceImpl implements GalleryService{
         }
 
         return Mono.zip(
-                        userRepository.findByNickname(playerId)
+                        RequestPrincipal.user(playerId, () -> userCache.findByNickname(playerId))
                                 .switchIfEmpty(Mono.error(new UserNotFoundException("Jugador no encontrado"))),
-                        characterRepository.findById(characterId)
+                        characterCatalog.findById(characterId)
                                 .switchIfEmpty(Mono.error(new CharacterNotFoundException("Personaje no encontrado")))
                 )
                 .doOnSubscribe(sub -> logger.info("Validando existencia de jugador {} y personaje {}", playerId, characterId))
-                .flatMapMany(tuple -> buildRepository.findByPlayerIdAndCharacterIdAndValidTrue(playerId, characterId)
-                        .sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                        .limitRequest(1)
-                )
-                .next()
+                .flatMap(tuple -> ultimaPuntuacion(playerId, characterId))
                 .switchIfEmpty(Mono.defer(() -> {
                     logger.warn("No se encontró build válido para jugador {} y personaje {}", playerId, characterId);
                     return Mono.error(new BuildNotFoundException("No has completado ningún montaje válido para este personaje"));
                 }))
-                .flatMap(build -> {
+                .flatMap(score -> {
                     SharedModel sharedModel = new SharedModel();
                     sharedModel.setPlayerId(playerId);
                     sharedModel.setCharacterId(characterId);
-                    sharedModel.setScore(build.getScore());
+                    sharedModel.setScore(score);
                     sharedModel.setPowers(List.of()); // A completar si se guardan poderes
                     sharedModel.setSharedAt(Instant.now());
 
@@ -77,6 +106,17 @@ public class GalleryServiceImpl implements GalleryService{
                 .doOnError(error -> logger.error("Error al compartir modelo para jugador {}: {}", playerId, error.getMessage()));
     }
 
+    // Puntuación del último build válido: se lee de player_stats y, si aún no existen, se recurre al historial
+    private Mono<Integer> ultimaPuntuacion(String playerId, String characterId) {
+        return playerStatsRepository.findById(PlayerStats.idOf(playerId, characterId))
+                .filter(stats -> stats.getCompletions() > 0)
+                .map(PlayerStats::getLastScore)
+                .switchIfEmpty(Mono.defer(() -> buildRepository.findByPlayerIdAndCharacterIdAndValidTrue(playerId, characterId)
+                        .sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
+                        .next()
+                        .map(Build::getScore)));
+    }
+
     @Override
     public Mono<SharedModel> getHighlightedModel() {
         return sharedModelRepository.findByHighlightedTrue()
@@ -125,7 +165,10 @@ public class GalleryServiceImpl implements GalleryService{
 
                     return desmarcarTodos.then(guardarNuevo);
                 })
-                .doOnSuccess(updated -> logger.info("Modelo destacado correctamente: {}", updated.getId()))
+                .doOnSuccess(updated -> {
+                    responseCache.invalidate(JsonResponseCache.GALLERY_HIGHLIGHTED);
+                    logger.info("Modelo destacado correctamente: {}", updated.getId());
+                })
                 .doOnError(error -> logger.error("Error al destacar modelo: {}", error.getMessage()));
     }
 
@@ -143,7 +186,12 @@ public class GalleryServiceImpl implements GalleryService{
                     }
 
                     return sharedModelRepository.delete(model) // Alternativa a deleteById
-                    .doOnSuccess(v -> logger.info("Modelo {} eliminado por {}(Role={})", sharedModelId, requesterId, role));
+                    .doOnSuccess(v -> {
+                        if (model.isHighlighted()) {
+                            responseCache.invalidate(JsonResponseCache.GALLERY_HIGHLIGHTED);
+                        }
+                        logger.info("Modelo {} eliminado por {}(Role={})", sharedModelId, requesterId, role);
+                    });
         });
     }
 
@@ -0,0 +1,13 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.LeaderboardEntry;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface LeaderboardService {
+
+    Mono<List<LeaderboardEntry>> getTop(String characterId, Integer limit);
+    Mono<LeaderboardEntry> getPlayerRank(String characterId, String playerId);
+
+}
@@ -0,0 +1,62 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.BuildNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.LeaderboardEntry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard.LeaderboardRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+public class LeaderboardServiceImpl implements LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardServiceImpl.class);
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+
+    private final LeaderboardRegistry leaderboardRegistry;
+    private final CharacterCatalog characterCatalog;
+
+    public LeaderboardServiceImpl(LeaderboardRegistry leaderboardRegistry, CharacterCatalog characterCatalog) {
+        this.leaderboardRegistry = leaderboardRegistry;
+        this.characterCatalog = characterCatalog;
+    }
+
+    @Override
+    public Mono<List<LeaderboardEntry>> getTop(String characterId, Integer limit) {
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            return Mono.error(new IllegalArgumentException("limit debe estar entre 1 y " + MAX_LIMIT));
+        }
+
+        return verificarPersonaje(characterId)
+                .map(id -> leaderboardRegistry.top(id, size))
+                .doOnSuccess(top -> logger.debug("Top {} de la clasificación de {} servido desde memoria", size, characterId));
+    }
+
+    @Override
+    public Mono<LeaderboardEntry> getPlayerRank(String characterId, String playerId) {
+        return verificarPersonaje(characterId)
+                .flatMap(id -> Mono.justOrEmpty(leaderboardRegistry.rankOf(id, playerId)))
+                .switchIfEmpty(Mono.defer(() -> {
+                    logger.info("Jugador {} sin puntuación en la clasificación de {}", playerId, characterId);
+                    return Mono.error(new BuildNotFoundException("Todavía no tienes ningún montaje válido para este personaje"));
+                }));
+    }
+
+    // El catálogo está en caché: comprobar el personaje no consulta MongoDB en el caso habitual
+    private Mono<String> verificarPersonaje(String characterId) {
+        if (!StringUtils.hasText(characterId)) {
+            return Mono.error(new IllegalArgumentException("characterId no puede ser nulo o vacío"));
+        }
+        return characterCatalog.findById(characterId)
+                .switchIfEmpty(Mono.error(new CharacterNotFoundException("Personaje no encontrado")))
+                .thenReturn(characterId);
+    }
+}
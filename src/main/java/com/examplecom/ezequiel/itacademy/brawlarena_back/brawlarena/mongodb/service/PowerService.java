@@ -0,0 +1,10 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.PowerMasteryResponse;
+import reactor.core.publisher.Mono;
+
+public interface PowerService {
+
+    Mono<PowerMasteryResponse> getPowerMastery(String playerId);
+
+}
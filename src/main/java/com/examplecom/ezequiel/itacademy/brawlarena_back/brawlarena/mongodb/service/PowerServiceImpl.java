@@ -0,0 +1,46 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.PowerMasteryResponse;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PowerMastery;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PowerMasteryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Service
+public class PowerServiceImpl implements PowerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PowerServiceImpl.class);
+
+    private final PowerMasteryRepository powerMasteryRepository;
+
+    public PowerServiceImpl(PowerMasteryRepository powerMasteryRepository) {
+        this.powerMasteryRepository = powerMasteryRepository;
+    }
+
+    @Override
+    public Mono<PowerMasteryResponse> getPowerMastery(String playerId) {
+        if (!StringUtils.hasText(playerId)) {
+            return Mono.error(new IllegalArgumentException("playerId no puede ser nulo o vacío"));
+        }
+
+        // Un único documento por jugador; si aún no ha validado ningún build, todo a 0
+        return powerMasteryRepository.findById(playerId)
+                .defaultIfEmpty(new PowerMastery())
+                .map(mastery -> {
+                    Map<Power, Integer> dominio = new EnumMap<>(Power.class);
+                    for (Power power : Power.values()) {
+                        dominio.put(power, mastery.progressOf(power));
+                    }
+                    return new PowerMasteryResponse(playerId, dominio);
+                })
+                .doOnSubscribe(sub -> logger.info("Recuperando dominio de poderes del jugador {}", playerId))
+                .doOnError(error -> logger.error("Error al recuperar dominio de poderes: {}", error.getMessage()));
+    }
+}
@@ -0,0 +1,288 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.stats;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.BuildPercentiles;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterStatsResponse;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.PercentileSummary;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.CharacterHistogram;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterHistogramRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Histogramas de puntuación y duración por personaje, en memoria y de tamaño fijo.
+// Cada validación los actualiza; un proceso periódico suma en Mongo ($inc) lo registrado desde el
+// último checkpoint, así varias instancias acumulan sobre el mismo documento sin pisarse.
+// Al arrancar se restauran los checkpoints (o, si no hay ninguno, se reconstruyen una vez desde builds).
+// Cada instancia solo ve en memoria lo restaurado al arrancar más lo que registra ella misma.
+@Component
+public class CharacterStatsRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CharacterStatsRegistry.class);
+    private static final Duration CHECKPOINT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final CharacterHistogramRepository histogramRepository;
+    private final BuildRepository buildRepository;
+    private final boolean loadOnStartup;
+    private final AtomicBoolean checkpointEnCurso = new AtomicBoolean();
+    private volatile Map<String, Histograms> histograms = new ConcurrentHashMap<>();
+
+    public CharacterStatsRegistry(CharacterHistogramRepository histogramRepository,
+                                  BuildRepository buildRepository,
+                                  @Value("${app.stats.load-on-startup:true}") boolean loadOnStartup) {
+        this.histogramRepository = histogramRepository;
+        this.buildRepository = buildRepository;
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (loadOnStartup) {
+            load().subscribe(
+                    count -> logger.info("Histogramas de {} personajes cargados", count),
+                    error -> logger.error("Error al cargar los histogramas: {}", error.getMessage())
+            );
+        }
+    }
+
+    public Mono<Integer> load() {
+        return histogramRepository.findAll()
+                .doOnNext(this::restore)
+                .count()
+                .flatMap(checkpoints -> checkpoints > 0
+                        ? Mono.just(histograms.size())
+                        : rebuild().then(Mono.fromSupplier(() -> histograms.size())));
+    }
+
+    // Reconstruye desde los builds válidos en histogramas nuevos y los sustituye de una vez;
+    // así no se suman a lo registrado desde el arranque. Los documentos se sobrescriben con los
+    // recuentos completos, que pasan a ser la base de los siguientes incrementos.
+    public Mono<Void> rebuild() {
+        Map<String, Histograms> nuevos = new ConcurrentHashMap<>();
+        return buildRepository.findValidBuildSummaries(Sort.by("characterId"))
+                .filter(build -> build.getCharacterId() != null)
+                .doOnNext(build -> nuevos.computeIfAbsent(build.getCharacterId(), id -> new Histograms())
+                        .record(build.getScore(), build.getDuration()))
+                .count()
+                .flatMap(count -> {
+                    histograms = nuevos;
+                    logger.info("Histogramas reconstruidos a partir de {} builds válidos", count);
+                    return saveAll(nuevos);
+                });
+    }
+
+    // Se calcula contra lo registrado antes de este build y después se añade
+    public BuildPercentiles record(String characterId, int score, long duration) {
+        Histograms h = histograms.computeIfAbsent(characterId, id -> new Histograms());
+        BuildPercentiles percentiles = new BuildPercentiles(
+                redondear(h.score.percentBelow(score)),
+                redondear(h.duration.percentAbove(duration)));
+        h.record(score, duration);
+        return percentiles;
+    }
+
+    public CharacterStatsResponse summary(String characterId) {
+        Histograms h = histograms.get(characterId);
+        if (h == null) {
+            PercentileSummary vacio = new PercentileSummary(0, 0, 0, 0, 0, 0);
+            return new CharacterStatsResponse(characterId, vacio, vacio);
+        }
+        return new CharacterStatsResponse(characterId, summarize(h.score), summarize(h.duration));
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.checkpoint-interval:PT1M}", initialDelayString = "${app.stats.checkpoint-interval:PT1M}")
+    public void scheduledCheckpoint() {
+        try {
+            checkpoint().block(CHECKPOINT_TIMEOUT);
+        } catch (RuntimeException e) {
+            logger.error("Error al guardar el checkpoint de histogramas: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        try {
+            checkpoint().block(CHECKPOINT_TIMEOUT);
+        } catch (RuntimeException e) {
+            logger.error("No se pudieron guardar los histogramas al cerrar: {}", e.getMessage());
+        }
+    }
+
+    // Solo se envían los personajes con cambios desde el último checkpoint y solo la diferencia;
+    // lo que falle se reintenta en el siguiente. No se solapan dos checkpoints (programado y cierre).
+    public Mono<Void> checkpoint() {
+        return Mono.defer(() -> {
+            if (!checkpointEnCurso.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            List<Delta> pendientes = new ArrayList<>();
+            histograms.forEach((characterId, h) -> {
+                if (h.dirty.compareAndSet(true, false)) {
+                    pendientes.add(h.delta(characterId));
+                }
+            });
+            if (pendientes.isEmpty()) {
+                checkpointEnCurso.set(false);
+                return Mono.empty();
+            }
+            AtomicReference<Throwable> fallo = new AtomicReference<>();
+            return Flux.fromIterable(pendientes)
+                    .concatMap(delta -> histogramRepository.addCounts(delta.document)
+                            .then(Mono.fromRunnable(delta::confirm))
+                            .onErrorResume(error -> {
+                                delta.histograms.dirty.set(true);
+                                fallo.compareAndSet(null, error);
+                                return Mono.empty();
+                            }))
+                    .then(Mono.defer(() -> fallo.get() != null
+                            ? Mono.<Void>error(fallo.get())
+                            : Mono.<Void>empty()))
+                    .doOnSuccess(v -> logger.debug("Checkpoint de {} histogramas guardado", pendientes.size()))
+                    .doFinally(signal -> checkpointEnCurso.set(false));
+        });
+    }
+
+    private Mono<Void> saveAll(Map<String, Histograms> completos) {
+        List<Delta> documentos = new ArrayList<>();
+        completos.forEach((characterId, h) -> {
+            h.dirty.set(false);
+            documentos.add(h.full(characterId));
+        });
+        return histogramRepository.saveAll(documentos.stream().map(delta -> delta.document).toList())
+                .then()
+                .doOnSuccess(v -> documentos.forEach(Delta::confirm))
+                .doOnError(error -> completos.values().forEach(h -> h.dirty.set(true)));
+    }
+
+    // Lo restaurado ya está en Mongo: cuenta como enviado y no se vuelve a sumar
+    private void restore(CharacterHistogram document) {
+        try {
+            Histograms h = histograms.computeIfAbsent(document.getId(), id -> new Histograms());
+            h.restore(document);
+        } catch (RuntimeException e) {
+            logger.warn("Checkpoint de histograma descartado para {}: {}", document.getId(), e.getMessage());
+        }
+    }
+
+    private static PercentileSummary summarize(ValueHistogram histogram) {
+        return new PercentileSummary(
+                histogram.getTotalCount(),
+                histogram.getMin(),
+                histogram.valueAtPercentile(50),
+                histogram.valueAtPercentile(90),
+                histogram.valueAtPercentile(99),
+                histogram.getMax());
+    }
+
+    private static double redondear(double percent) {
+        return Math.round(percent * 10) / 10.0;
+    }
+
+    private static final class Histograms {
+        private final ValueHistogram score = new ValueHistogram();
+        private final ValueHistogram duration = new ValueHistogram();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        // Recuentos que ya están sumados en Mongo; solo los modifica el checkpoint
+        private long[] sentScore = new long[ValueHistogram.BUCKET_COUNT];
+        private long[] sentDuration = new long[ValueHistogram.BUCKET_COUNT];
+
+        private void record(int scoreValue, long durationValue) {
+            score.record(scoreValue);
+            duration.record(durationValue);
+            dirty.set(true);
+        }
+
+        private synchronized void restore(CharacterHistogram document) {
+            List<Long> scoreBuckets = document.getScore().getBuckets();
+            List<Long> durationBuckets = document.getDuration().getBuckets();
+            score.merge(scoreBuckets, document.getScore().getMin(), document.getScore().getMax());
+            duration.merge(durationBuckets, document.getDuration().getMin(), document.getDuration().getMax());
+            sentScore = sum(sentScore, scoreBuckets);
+            sentDuration = sum(sentDuration, durationBuckets);
+        }
+
+        // Lo registrado después de tomar la foto queda para el siguiente checkpoint
+        private synchronized Delta delta(String characterId) {
+            long[] scoreCounts = score.snapshotCounts();
+            long[] durationCounts = duration.snapshotCounts();
+            CharacterHistogram document = new CharacterHistogram(characterId,
+                    counts(minus(scoreCounts, sentScore), score),
+                    counts(minus(durationCounts, sentDuration), duration),
+                    Instant.now());
+            return new Delta(this, document, scoreCounts, durationCounts);
+        }
+
+        private synchronized Delta full(String characterId) {
+            long[] scoreCounts = score.snapshotCounts();
+            long[] durationCounts = duration.snapshotCounts();
+            CharacterHistogram document = new CharacterHistogram(characterId,
+                    counts(scoreCounts, score), counts(durationCounts, duration), Instant.now());
+            return new Delta(this, document, scoreCounts, durationCounts);
+        }
+
+        private synchronized void confirm(long[] scoreCounts, long[] durationCounts) {
+            sentScore = scoreCounts;
+            sentDuration = durationCounts;
+        }
+
+        private static CharacterHistogram.Counts counts(long[] buckets, ValueHistogram histogram) {
+            return new CharacterHistogram.Counts(
+                    Arrays.stream(buckets).boxed().toList(),
+                    histogram.getMin(),
+                    histogram.getMax());
+        }
+
+        private static long[] minus(long[] actual, long[] enviado) {
+            long[] diferencia = new long[actual.length];
+            for (int i = 0; i < actual.length; i++) {
+                diferencia[i] = actual[i] - enviado[i];
+            }
+            return diferencia;
+        }
+
+        private static long[] sum(long[] base, List<Long> restaurado) {
+            long[] suma = base.clone();
+            for (int i = 0; i < suma.length; i++) {
+                Long count = restaurado.get(i);
+                suma[i] += count != null ? count : 0;
+            }
+            return suma;
+        }
+    }
+
+    private static final class Delta {
+        private final Histograms histograms;
+        private final CharacterHistogram document;
+        private final long[] scoreCounts;
+        private final long[] durationCounts;
+
+        private Delta(Histograms histograms, CharacterHistogram document, long[] scoreCounts, long[] durationCounts) {
+            this.histograms = histograms;
+            this.document = document;
+            this.scoreCounts = scoreCounts;
+            this.durationCounts = durationCounts;
+        }
+
+        private void confirm() {
+            histograms.confirm(scoreCounts, durationCounts);
+        }
+    }
+}
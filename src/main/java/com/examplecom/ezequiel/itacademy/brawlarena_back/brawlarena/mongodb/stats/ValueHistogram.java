@@ -0,0 +1,147 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.stats;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Histograma log-lineal de memoria fija (al estilo HdrHistogram) para valores >= 0.
+// Los valores < 64 tienen cubeta propia; a partir de ahí cada potencia de dos se divide
+// en 32 cubetas, lo que da un error relativo inferior al 3 %. Los valores mayores que
+// MAX_VALUE se acumulan en la última cubeta. Registrar es lock-free.
+public final class ValueHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int MAX_EXPONENT = 30;
+
+    public static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    public static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    public void record(long value) {
+        long normalizado = Math.min(Math.max(value, 0), MAX_VALUE);
+        counts.incrementAndGet(indexOf(normalizado));
+        total.incrementAndGet();
+        min.accumulateAndGet(normalizado, Math::min);
+        max.accumulateAndGet(normalizado, Math::max);
+    }
+
+    public long getTotalCount() {
+        return total.get();
+    }
+
+    public long getMin() {
+        return total.get() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return total.get() == 0 ? 0 : max.get();
+    }
+
+    // Porcentaje de valores registrados estrictamente por debajo de la cubeta de value
+    public double percentBelow(long value) {
+        long registrados = total.get();
+        if (registrados == 0) {
+            return 0;
+        }
+        int limite = indexOf(Math.min(Math.max(value, 0), MAX_VALUE));
+        long debajo = 0;
+        for (int i = 0; i < limite; i++) {
+            debajo += counts.get(i);
+        }
+        return Math.min(100.0, debajo * 100.0 / registrados);
+    }
+
+    // Porcentaje de valores registrados estrictamente por encima de la cubeta de value
+    public double percentAbove(long value) {
+        long registrados = total.get();
+        if (registrados == 0) {
+            return 0;
+        }
+        int limite = indexOf(Math.min(Math.max(value, 0), MAX_VALUE));
+        long encima = 0;
+        for (int i = limite + 1; i < BUCKET_COUNT; i++) {
+            encima += counts.get(i);
+        }
+        return Math.min(100.0, encima * 100.0 / registrados);
+    }
+
+    // Valor representativo (punto medio de la cubeta, acotado a [min, max]) del percentil pedido
+    public long valueAtPercentile(double percentile) {
+        long registrados = total.get();
+        if (registrados == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(percentile / 100.0 * registrados));
+        long acumulado = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            acumulado += counts.get(i);
+            if (acumulado >= objetivo) {
+                long medio = lowerBound(i) + (upperBound(i) - lowerBound(i)) / 2;
+                return Math.min(Math.max(medio, getMin()), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public long[] snapshotCounts() {
+        long[] copia = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copia[i] = counts.get(i);
+        }
+        return copia;
+    }
+
+    // Restaura un checkpoint; se suma a lo ya registrado desde el arranque
+    public void merge(List<Long> savedCounts, long savedMin, long savedMax) {
+        if (savedCounts == null || savedCounts.size() != BUCKET_COUNT) {
+            throw new IllegalArgumentException("Checkpoint de histograma incompatible");
+        }
+        long suma = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = savedCounts.get(i) != null ? savedCounts.get(i) : 0;
+            if (count > 0) {
+                counts.addAndGet(i, count);
+                suma += count;
+            }
+        }
+        if (suma > 0) {
+            total.addAndGet(suma);
+            min.accumulateAndGet(savedMin, Math::min);
+            max.accumulateAndGet(savedMax, Math::max);
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (sub - SUB_BUCKETS);
+    }
+
+    static long lowerBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long sub = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return sub << shift;
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long sub = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
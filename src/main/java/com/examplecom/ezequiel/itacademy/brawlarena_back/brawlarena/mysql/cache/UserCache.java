@@ -0,0 +1,71 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// Caché de lectura de usuarios por nickname delante de UserRepository.
+// Las escrituras van directas al repositorio y después invalidan la entrada; los usuarios
+// inexistentes no se cachean. Cada lectura devuelve una copia, porque los llamantes modifican el User.
+// Los saldos no se comprueban nunca contra la caché: el débito es condicional en SQL.
+@Component
+public class UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+    private static final String CACHE_NAME = "user.cache";
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, User> users;
+
+    @Autowired
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.users.cache.max-size:10000}") long maxSize,
+                     @Value("${app.users.cache.expire-after-write:PT5M}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, users, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".hit_ratio", users, cache -> cache.synchronous().stats().hitRatio())
+                .description("Proporción de búsquedas de usuario servidas desde memoria")
+                .register(meterRegistry);
+    }
+
+    // Las búsquedas concurrentes de un mismo nickname comparten la misma consulta a MySQL
+    public Mono<User> findByNickname(String nickname) {
+        return Mono.fromFuture(() -> users.get(nickname, (key, executor) -> userRepository.findByNickname(key).toFuture()), true)
+                .map(UserCache::copy);
+    }
+
+    public void invalidate(String nickname) {
+        users.synchronous().invalidate(nickname);
+        logger.debug("Usuario {} invalidado en caché", nickname);
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .nickname(user.getNickname())
+                .password(user.getPassword())
+                .tokens(user.getTokens())
+                .role(user.getRole())
+                .characterIds(user.getCharacterIds())
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -36,7 +37,9 @@ public class User {
     @Column("role")
     private String role;
 
-    @Column("gallery")
+    // Los personajes desbloqueados viven en user_characters; la columna "gallery"
+    // sólo se conserva para la migración. Se rellena en el registro para la respuesta.
+    @Transient
     private String characterIds;
 
 }
\ No newline at end of file
@@ -1,12 +1,14 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.handler;
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.Role;
-import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.NicknameAlreadyExistsException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.dto.LoginRequest;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.service.UserService;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.JwtService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.LoginThrottle;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.PasswordHasher;
 import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,30 +20,36 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class AuthHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthHandler.class);
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
-    private final CharacterRepository characterRepository;
+    private final CharacterCatalog characterCatalog;
+    private final LoginThrottle loginThrottle;
 
 
-    public AuthHandler(UserService userService, PasswordEncoder passwordEncoder, JwtService jwtService, CharacterRepository characterRepository) {
+    public AuthHandler(UserService userService, PasswordHasher passwordHasher, JwtService jwtService, CharacterCatalog characterCatalog, LoginThrottle loginThrottle) {
         this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
-        this.characterRepository = characterRepository;
+        this.characterCatalog = characterCatalog;
+        this.loginThrottle = loginThrottle;
     }
 
     @Operation(
@@ -79,36 +87,38 @@ public class AuthHandler {
                     @ApiResponse(
                             responseCode = "409",
                             description = "Nickname ya existe"
+                    ),
+                    @ApiResponse(
+                            responseCode = "500",
+                            description = "Error al guardar el usuario o sus personajes iniciales; no se crea la cuenta"
+                    ),
+                    @ApiResponse(
+                            responseCode = "503",
+                            description = "Demasiadas peticiones simultáneas, reintentar en unos segundos"
                     )
             }
     )
     public Mono<ServerResponse> registerUser(ServerRequest request) {
         return request.bodyToMono(User.class)
                 .doOnNext(user -> logger.info("Registrando nuevo usuario: {}", user))
-                .flatMap(user ->
-                        characterRepository.findAll()
-                                .doOnNext(character -> logger.info("Personaje encontrado en registro: {} (coste: {})", character.getName(), character.getCost()))
-                                .filter(character -> character.getCost() == 0)
-                                .map(character -> character.getId())
-                                .collectList()
-                                .doOnNext(freeIds -> logger.info("IDs de personajes gratuitos encontrados: {}", freeIds))
-                                .flatMap(freeIds -> {
-                                    try {
-                                        ObjectMapper objectMapper = new ObjectMapper();
-                                        user.setCharacterIds(objectMapper.writeValueAsString(freeIds));
-                                    } catch (Exception e) {
-                                        logger.error("Error al serializar personajes gratuitos: {}", e.getMessage());
-                                        return Mono.error(new RuntimeException("Error al preparar el registro del usuario"));
-                                    }
-                                    return userService.save(user);
-                                })
-                )
+                // Los personajes gratuitos salen del catálogo en memoria, ya filtrados y serializados
+                .flatMap(user -> characterCatalog.findSnapshot()
+                        .flatMap(catalogo -> {
+                            List<String> freeIds = catalogo.getFreeCharacterIds();
+                            logger.debug("IDs de personajes gratuitos para el registro: {}", freeIds);
+                            user.setCharacterIds(catalogo.getFreeCharacterIdsJson());
+                            return userService.register(user, freeIds);
+                        }))
 
                 .doOnNext(savedUser -> logger.info("Usuario registrado exitosamente: {}", savedUser))
                 .flatMap(savedUser -> ServerResponse.status(HttpStatus.CREATED).bodyValue(savedUser))
                 .doOnError(e -> logger.error("Error al registrar el usuario: {}", e.getMessage()))
-                .onErrorResume(e -> ServerResponse.status(HttpStatus.CONFLICT)
-                        .bodyValue("El nickname ya está en uso."));
+                .onErrorResume(ResponseStatusException.class, e -> ServerResponse.status(e.getStatusCode()).build())
+                // DuplicateKeyException: otro registro con el mismo nickname ganó la carrera contra el índice único
+                .onErrorResume(e -> e instanceof NicknameAlreadyExistsException || e instanceof DuplicateKeyException,
+                        e -> ServerResponse.status(HttpStatus.CONFLICT).bodyValue("El nickname ya está en uso."))
+                .onErrorResume(e -> ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .bodyValue("No se pudo completar el registro"));
     }
 
     @Operation(
@@ -146,6 +156,14 @@ public class AuthHandler {
                     @ApiResponse(
                             responseCode = "400",
                             description = "Datos inválidos"
+                    ),
+                    @ApiResponse(
+                            responseCode = "429",
+                            description = "Demasiados intentos fallidos; reintentar tras Retry-After"
+                    ),
+                    @ApiResponse(
+                            responseCode = "503",
+                            description = "Demasiadas peticiones simultáneas, reintentar en unos segundos"
                     )
             }
     )
@@ -153,30 +171,30 @@ public class AuthHandler {
         return request.bodyToMono(LoginRequest.class)
                 .doOnNext(login -> logger.info("Intento de login: {}", login.nickname()))
                 .flatMap(login -> {
-                    // Lógica especial para el admin
-                    if ("admin".equals(login.nickname()) && "12345678".equals(login.password())) {
-                        logger.info("Login exitoso como admin");
-                        return ServerResponse.ok()
-                                .bodyValue(jwtService.generateToken("admin", Role.ADMIN)); // Asignar rol ADMIN explícitamente
+                    // Sin nickname no hay clave para el bloqueo: se rechaza antes de consultarlo
+                    if (login.nickname() == null || login.nickname().isBlank() || login.password() == null) {
+                        logger.warn("Login rechazado: nickname o contraseña vacíos");
+                        return ServerResponse.badRequest().bodyValue("El nickname y la contraseña son obligatorios");
                     }
 
-                    return userService.findByNickname(login.nickname())
-                            .filter(user -> {
-                                boolean matches = passwordEncoder.matches(login.password(), user.getPassword());
-                                if (!matches) {
-                                    logger.warn("Contraseña incorrecta para usuario: {}", login.nickname());
+                    String clientIp = request.remoteAddress()
+                            .map(address -> address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString())
+                            .orElse(null);
+
+                    // Con demasiados fallos recientes se rechaza sin buscar al usuario ni comprobar la contraseña
+                    return loginThrottle.isBlocked(login.nickname(), clientIp)
+                            .flatMap(bloqueado -> {
+                                if (bloqueado) {
+                                    return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                                            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, loginThrottle.retryAfter().toSeconds())))
+                                            .build();
                                 }
-                                return matches;
-                            })
-                            .flatMap(user -> {
-                                logger.info("Login exitoso: {}", user.getNickname());
-                                return ServerResponse.ok()
-                                        .bodyValue(jwtService.generateToken(user.getNickname(), Role.valueOf(user.getRole())));
-                            })
-                            .switchIfEmpty(Mono.defer(() -> {
-                                logger.warn("Usuario no encontrado: {}", login.nickname());
-                                return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
-                            }));
+                                return autenticar(login, clientIp);
+                            });
+                })
+                .onErrorResume(ResponseStatusException.class, e -> {
+                    logger.warn("Login rechazado: {}", e.getReason());
+                    return ServerResponse.status(e.getStatusCode()).build();
                 })
                 .onErrorResume(e -> {
                     logger.error("Error durante login: {}", e.getMessage());
@@ -184,6 +202,34 @@ public class AuthHandler {
                 });
     }
 
+    private Mono<ServerResponse> autenticar(LoginRequest login, String clientIp) {
+        // Lógica especial para el admin
+        if ("admin".equals(login.nickname()) && "12345678".equals(login.password())) {
+            logger.info("Login exitoso como admin");
+            return ServerResponse.ok()
+                    .bodyValue(jwtService.generateToken("admin", Role.ADMIN)); // Asignar rol ADMIN explícitamente
+        }
+
+        return userService.findByNickname(login.nickname())
+                .filterWhen(user -> passwordHasher.matches(login.password(), user.getPassword())
+                        .doOnNext(matches -> {
+                            if (!matches) {
+                                logger.warn("Contraseña incorrecta para usuario: {}", login.nickname());
+                            }
+                        }))
+                .flatMap(user -> {
+                    logger.info("Login exitoso: {}", user.getNickname());
+                    return loginThrottle.recordSuccess(login.nickname())
+                            .then(ServerResponse.ok()
+                                    .bodyValue(jwtService.generateToken(user.getNickname(), Role.valueOf(user.getRole()))));
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    logger.warn("Usuario no encontrado: {}", login.nickname());
+                    return loginThrottle.recordFailure(login.nickname(), clientIp)
+                            .then(ServerResponse.status(HttpStatus.UNAUTHORIZED).build());
+                }));
+    }
+
     @Operation(
             summary = "Verificación de token",
             description = "Verifica la validez del token JWT enviado en la cabecera 'Authorization'. Devuelve los datos mínimos del usuario autenticado (nickname, rol) si el token es válido.",
@@ -212,12 +258,13 @@ public class AuthHandler {
                 .map(header -> header.substring(7))
                 .doOnNext(token -> logger.debug("Token extraído para validación"))
                 .flatMap(token -> {
-                    if (!jwtService.validateToken(token)) {
+                    Optional<Claims> parsed = jwtService.parseToken(token);
+                    if (parsed.isEmpty()) {
                         logger.warn("Token inválido");
                         return ServerResponse.ok()
                                 .bodyValue(Map.of("valid", false));
                     }
-                    Claims claims = jwtService.getClaims(token);
+                    Claims claims = parsed.get();
                     logger.info("Token válido para usuario: {}", claims.getSubject());
                     return ServerResponse.ok()
                             .bodyValue(Map.of(
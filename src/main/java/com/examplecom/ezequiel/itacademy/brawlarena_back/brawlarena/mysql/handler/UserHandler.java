@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
@@ -57,6 +58,7 @@ public class UserHandler {
                 .cast(Authentication.class)
                 .map(Authentication::getName)
                 .flatMap(userService::findByNickname)
+                .flatMap(userService::loadCharacterIds)
                 .doOnNext(user -> logger.info("Usuario encontrado: {}", user))
                 .flatMap(user -> ServerResponse.ok().bodyValue(user))
                 .doOnError(e -> logger.error("Error al obtener el usuario: {}", e.getMessage()))
@@ -147,10 +149,10 @@ public class UserHandler {
                     description = "ID del personaje a añadir a la galería del usuario",
                     required = true,
                     content = @Content(
-                            schema = @Schema(implementation = Long.class),
+                            schema = @Schema(implementation = String.class),
                             examples = @ExampleObject(
                                     name = "Ejemplo personaje",
-                                    value = "42"
+                                    value = "680743b8485a1c9f6c909003"
                             )
                     )
             )
@@ -169,7 +171,9 @@ public class UserHandler {
             }
     )
     public Mono<ServerResponse> addCharacterId(ServerRequest request) {
-        return request.bodyToMono(Long.class)
+        return request.bodyToMono(String.class)
+                .filter(StringUtils::hasText)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("ID de personaje inválido")))
                 .flatMap(characterId ->
                         request.principal()
                                 .map(principal -> (Authentication) principal)
@@ -0,0 +1,59 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+// Personajes desbloqueados por usuario (tabla user_characters, PK (user_id, character_id)).
+// Spring Data R2DBC no soporta claves compuestas, por eso se accede con DatabaseClient.
+@Repository
+public class UserCharacterRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public UserCharacterRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Boolean> existsByUserIdAndCharacterId(Long userId, String characterId) {
+        return databaseClient.sql("SELECT 1 FROM user_characters WHERE user_id = :userId AND character_id = :characterId")
+                .bind("userId", userId)
+                .bind("characterId", characterId)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    public Flux<String> findCharacterIdsByUserId(Long userId) {
+        return databaseClient.sql("SELECT character_id FROM user_characters WHERE user_id = :userId ORDER BY unlocked_at, character_id")
+                .bind("userId", userId)
+                .map(row -> row.get("character_id", String.class))
+                .all();
+    }
+
+    // Devuelve false si el personaje ya estaba desbloqueado. Solo se tolera la colisión de clave primaria:
+    // cualquier otro error (truncado, conversión) se propaga en lugar de pasar por "ya desbloqueado".
+    // No se usa ON DUPLICATE KEY UPDATE porque el driver negocia CLIENT_FOUND_ROWS y un duplicado
+    // devolvería 1 fila, igual que una inserción nueva.
+    public Mono<Boolean> insert(Long userId, String characterId) {
+        return databaseClient.sql("INSERT INTO user_characters (user_id, character_id, unlocked_at) VALUES (:userId, :characterId, :unlockedAt)")
+                .bind("userId", userId)
+                .bind("characterId", characterId)
+                .bind("unlockedAt", LocalDateTime.now())
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+    }
+
+    public Mono<Void> insertAll(Long userId, Collection<String> characterIds) {
+        return Flux.fromIterable(characterIds)
+                .concatMap(characterId -> insert(userId, characterId))
+                .then();
+    }
+}
@@ -1,6 +1,8 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository;
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
@@ -10,4 +12,9 @@ import reactor.core.publisher.Mono;
 public interface UserRepository extends ReactiveCrudRepository<User, Long> {
     Mono<User> findByNickname(String nickname);
 
+    // Débito condicional: devuelve 0 filas si el usuario no tiene saldo suficiente
+    @Modifying
+    @Query("UPDATE users SET tokens = tokens - :cost WHERE nickname = :nickname AND tokens >= :cost")
+    Mono<Integer> debitTokens(String nickname, int cost);
+
 }
\ No newline at end of file
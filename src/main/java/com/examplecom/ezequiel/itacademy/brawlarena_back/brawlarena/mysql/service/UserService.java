@@ -9,7 +9,9 @@ public interface UserService {
     Mono<User> findById(Long id);
     Mono<User> findByNickname(String nickname);
     Mono<User> save(User user);
+    Mono<User> register(User user, List<String> characterIds);
     Mono<User> updateTokens(String nickname, int newTokens);
-    Mono<User> addCharacterId(String nickname, Long characterId);
-    Mono<List<Long>> getCharacterIds(String nickname);
+    Mono<User> addCharacterId(String nickname, String characterId);
+    Mono<List<String>> getCharacterIds(String nickname);
+    Mono<User> loadCharacterIds(User user);
 }
\ No newline at end of file
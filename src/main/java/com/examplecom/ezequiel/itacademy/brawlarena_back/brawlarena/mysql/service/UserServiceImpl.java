@@ -2,20 +2,21 @@ package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.servi
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.NicknameAlreadyExistsException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserCharacterRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.PasswordHasher;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.RequestPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -23,15 +24,19 @@ public class UserServiceImpl implements UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserCharacterRepository userCharacterRepository;
+    private final PasswordHasher passwordHasher;
+    private final UserCache userCache;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
 
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, UserCharacterRepository userCharacterRepository, PasswordHasher passwordHasher, UserCache userCache) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.userCharacterRepository = userCharacterRepository;
+        this.passwordHasher = passwordHasher;
+        this.userCache = userCache;
     }
 
     @Override
@@ -44,7 +49,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public Mono<User> findByNickname(String nickname) {
-        return userRepository.findByNickname(nickname)
+        return RequestPrincipal.user(nickname, () -> userCache.findByNickname(nickname))
                 .switchIfEmpty(Mono.empty())
                 .doOnNext(user -> logger.info("Usuario encontrado: {}", user))
                 .doOnError(e -> logger.error("Error al buscar usuario: {}", e.getMessage()));
@@ -60,15 +65,32 @@ public class UserServiceImpl implements UserService {
                 })
                 .switchIfEmpty(Mono.defer(() -> {
                     logger.info("Registrando nuevo usuario: {}", user.getNickname());
-                    user.setPassword(passwordEncoder.encode(user.getPassword()));
-                    user.setRole("USER");
-                    user.setTokens(50);
-                    return userRepository.save(user);
+                    return passwordHasher.encode(user.getPassword())
+                            .flatMap(hash -> {
+                                user.setPassword(hash);
+                                user.setRole("USER");
+                                user.setTokens(50);
+                                return userRepository.save(user);
+                            });
                 }))
-                .doOnNext(savedUser -> logger.info("Usuario guardado: {}", savedUser))
+                .doOnNext(savedUser -> {
+                    userCache.invalidate(savedUser.getNickname());
+                    logger.info("Usuario guardado: {}", savedUser);
+                })
                 .doOnError(e -> logger.error("Error al registrar el usuario: {}", e.getMessage()));
     }
 
+    // Usuario y personajes iniciales en una sola transacción: si falla la inserción de personajes
+    // no queda una cuenta sin ellos que además impediría reintentar con el mismo nickname
+    @Override
+    @Transactional
+    public Mono<User> register(User user, List<String> characterIds) {
+        return save(user)
+                .flatMap(savedUser -> userCharacterRepository.insertAll(savedUser.getId(), characterIds)
+                        .thenReturn(savedUser))
+                .doOnNext(savedUser -> logger.info("Personajes {} añadidos al usuario {}", characterIds, savedUser.getId()));
+    }
+
     @Override
     public Mono<User> updateTokens(String nickname, int newTokens) {
         return userRepository.findByNickname(nickname)
@@ -78,52 +100,46 @@ public class UserServiceImpl implements UserService {
                     user.setTokens(newTokens);
                     return userRepository.save(user);
                 })
-                .doOnNext(updatedUser -> logger.info("Tokens actualizados para usuario: {}", updatedUser.getNickname()))
+                .doOnNext(updatedUser -> {
+                    userCache.invalidate(nickname);
+                    logger.info("Tokens actualizados para usuario: {}", updatedUser.getNickname());
+                })
                 .doOnError(e -> logger.error("Error al actualizar tokens: {}", e.getMessage()));
     }
 
     @Override
-    @Transactional
-    public Mono<User> addCharacterId(String nickname, Long characterId) {
+    public Mono<User> addCharacterId(String nickname, String characterId) {
         return userRepository.findByNickname(nickname)
                 .switchIfEmpty(Mono.error(new UserNotFoundException("Usuario no encontrado.")))
-                .flatMap(user -> {
-                    List<Long> list;
-                    try {
-                        String json = user.getCharacterIds();
-                        list = (json != null)
-                                ? objectMapper.readValue(json, new TypeReference<List<Long>>() {})
-                                : new ArrayList<>();
-                    } catch (Exception e) {
-                        return Mono.error(new RuntimeException("Error al leer la galería del usuario."));
-                    }
-
-                    if (!list.contains(characterId)) {
-                        list.add(characterId);
-                        try {
-                            user.setCharacterIds(objectMapper.writeValueAsString(list));
-                        } catch (Exception e) {
-                            return Mono.error(new RuntimeException("Error al guardar la galería."));
-                        }
-                        return userRepository.save(user);
-                    }
-                    return Mono.just(user);
-                });
+                .flatMap(user -> userCharacterRepository.insert(user.getId(), characterId)
+                        .doOnNext(inserted -> {
+                            if (!inserted) {
+                                logger.info("El personaje {} ya estaba en la galería de {}", characterId, nickname);
+                            }
+                        })
+                        .thenReturn(user))
+                .doOnNext(user -> userCache.invalidate(nickname));
     }
 
     @Override
-    public Mono<List<Long>> getCharacterIds(String nickname) {
-        return userRepository.findByNickname(nickname)
+    public Mono<List<String>> getCharacterIds(String nickname) {
+        return RequestPrincipal.user(nickname, () -> userCache.findByNickname(nickname))
                 .switchIfEmpty(Mono.error(new UserNotFoundException("Usuario no encontrado.")))
-                .map(user -> {
+                .flatMap(user -> userCharacterRepository.findCharacterIdsByUserId(user.getId()).collectList());
+    }
+
+    // Rellena el campo characterIds (JSON) que sigue exponiendo el perfil del usuario
+    @Override
+    public Mono<User> loadCharacterIds(User user) {
+        return userCharacterRepository.findCharacterIdsByUserId(user.getId())
+                .collectList()
+                .flatMap(ids -> {
                     try {
-                        String json = user.getCharacterIds();
-                        return (json != null)
-                                ? objectMapper.readValue(json, new TypeReference<List<Long>>() {})
-                                : new ArrayList<>();
+                        user.setCharacterIds(objectMapper.writeValueAsString(ids));
                     } catch (Exception e) {
-                        throw new RuntimeException("Error al leer la galería.");
+                        return Mono.error(new RuntimeException("Error al leer la galería."));
                     }
+                    return Mono.just(user);
                 });
     }
 
@@ -1,29 +1,78 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.Role;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration-ms}")
     private long expirationMs;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
     private Key key;
 
+    // JwtParser es inmutable y thread-safe: se construye una sola vez
+    private JwtParser parser;
+
+    // Tokens ya verificados, indexados por su SHA-256; cada entrada caduca con el exp del token
+    private Cache<String, VerifiedToken> verifiedTokens;
+
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        long remainingMs = token.expiresAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(digest, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String nickname, Role role) {
@@ -36,24 +85,55 @@ public class JwtService {
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    // Verifica la firma y devuelve los claims en una única pasada
+    public Optional<Claims> parseToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return Optional.of(parser.parseClaimsJws(token).getBody());
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            logger.debug("Token rechazado: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Un token ya verificado no vuelve a pasar por la comprobación de firma hasta que expira
+    public Optional<Authentication> authenticate(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached.authentication());
         }
+
+        return parseToken(token).map(claims -> {
+            Authentication auth = new UsernamePasswordAuthenticationToken(
+                    claims.getSubject(),
+                    null,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + claims.get("role", String.class)))
+            );
+            Date expiration = claims.getExpiration();
+            long expiresAt = expiration != null ? expiration.getTime() : System.currentTimeMillis() + expirationMs;
+            verifiedTokens.put(digest, new VerifiedToken(auth, expiresAt));
+            return auth;
+        });
+    }
+
+    public boolean validateToken(String token) {
+        return parseToken(token).isPresent();
     }
 
     public Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record VerifiedToken(Authentication authentication, long expiresAt) {
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.LoginFailure;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.LoginFailureRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+// Bloqueo de logins por fallos recientes, antes de buscar al usuario y de pagar BCrypt.
+// Cuenta los fallos en una ventana deslizante por nickname y por IP de cliente; cada clave tiene su propio
+// contador (con su propio lock) y el número de claves está acotado, así que la memoria no crece con un ataque.
+// Con app.auth.throttle.shared los fallos también se guardan en Mongo para que el bloqueo valga en todos los nodos.
+// Si Mongo falla se sigue aplicando el bloqueo local.
+@Component
+public class LoginThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+    private static final String METRIC_NAME = "auth.login.throttle";
+    private static final int BUCKETS = 15;
+
+    private final LoginFailureRepository failureRepository;
+    private final int maxFailuresPerNickname;
+    private final int maxFailuresPerIp;
+    private final Duration window;
+    private final long bucketNanos;
+    private final boolean shared;
+    private final Cache<String, SlidingWindow> windows;
+    private final Counter blocked;
+    private final Counter failures;
+
+    @Autowired
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         LoginFailureRepository failureRepository,
+                         @Value("${app.auth.throttle.max-failures-per-nickname:5}") int maxFailuresPerNickname,
+                         @Value("${app.auth.throttle.max-failures-per-ip:20}") int maxFailuresPerIp,
+                         @Value("${app.auth.throttle.window:PT15M}") Duration window,
+                         @Value("${app.auth.throttle.max-keys:100000}") long maxKeys,
+                         @Value("${app.auth.throttle.shared:false}") boolean shared) {
+        if (maxFailuresPerNickname <= 0 || maxFailuresPerIp <= 0 || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Configuración del bloqueo de logins no válida");
+        }
+        this.failureRepository = failureRepository;
+        this.maxFailuresPerNickname = maxFailuresPerNickname;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.window = window;
+        this.bucketNanos = Math.max(1, window.toNanos() / BUCKETS);
+        this.shared = shared;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, windows, METRIC_NAME);
+        this.blocked = Counter.builder(METRIC_NAME + ".blocked")
+                .description("Intentos de login rechazados sin comprobar la contraseña")
+                .register(meterRegistry);
+        this.failures = Counter.builder(METRIC_NAME + ".failures")
+                .description("Intentos de login fallidos registrados")
+                .register(meterRegistry);
+    }
+
+    public static String nicknameKey(String nickname) {
+        return "nick:" + nickname.toLowerCase(Locale.ROOT);
+    }
+
+    public static String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+
+    // clientIp puede ser null si no se conoce la dirección remota
+    public Mono<Boolean> isBlocked(String nickname, String clientIp) {
+        String nickKey = nicknameKey(nickname);
+        String ipKey = clientIp != null ? ipKey(clientIp) : null;
+
+        if (overLimit(nickKey, maxFailuresPerNickname) || (ipKey != null && overLimit(ipKey, maxFailuresPerIp))) {
+            return Mono.just(true).doOnNext(b -> rejected(nickname, clientIp));
+        }
+        if (!shared) {
+            return Mono.just(false);
+        }
+
+        Instant since = Instant.now().minus(window);
+        Mono<Boolean> nickBlocked = failureRepository.countByKeyAndAtAfter(nickKey, since)
+                .map(count -> count >= maxFailuresPerNickname);
+        Mono<Boolean> ipBlocked = ipKey == null
+                ? Mono.just(false)
+                : failureRepository.countByKeyAndAtAfter(ipKey, since).map(count -> count >= maxFailuresPerIp);
+
+        return Mono.zip(nickBlocked, ipBlocked, (nick, ip) -> nick || ip)
+                .doOnNext(b -> {
+                    if (b) {
+                        rejected(nickname, clientIp);
+                    }
+                })
+                .onErrorResume(error -> {
+                    logger.warn("No se pudieron leer los fallos de login de MongoDB: {}", error.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    public Mono<Void> recordFailure(String nickname, String clientIp) {
+        failures.increment();
+        String nickKey = nicknameKey(nickname);
+        String ipKey = clientIp != null ? ipKey(clientIp) : null;
+
+        long now = System.nanoTime();
+        windows.get(nickKey, k -> new SlidingWindow()).add(now);
+        if (ipKey != null) {
+            windows.get(ipKey, k -> new SlidingWindow()).add(now);
+        }
+        if (!shared) {
+            return Mono.empty();
+        }
+
+        Instant at = Instant.now();
+        Instant expiresAt = at.plus(window);
+        return Flux.just(nickKey)
+                .concatWith(Mono.justOrEmpty(ipKey))
+                .map(key -> new LoginFailure(null, key, at, expiresAt))
+                .as(failureRepository::saveAll)
+                .then()
+                .onErrorResume(error -> {
+                    logger.warn("No se pudo guardar el fallo de login en MongoDB: {}", error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    // Un login correcto limpia los fallos del nickname; los de la IP se mantienen
+    public Mono<Void> recordSuccess(String nickname) {
+        String nickKey = nicknameKey(nickname);
+        windows.invalidate(nickKey);
+        if (!shared) {
+            return Mono.empty();
+        }
+        return failureRepository.deleteByKey(nickKey)
+                .then()
+                .onErrorResume(error -> {
+                    logger.warn("No se pudieron limpiar los fallos de login en MongoDB: {}", error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    // Cuánto esperar como mínimo antes de reintentar: lo que tarda en caducar el tramo más antiguo de la ventana
+    public Duration retryAfter() {
+        return Duration.ofNanos(bucketNanos);
+    }
+
+    private boolean overLimit(String key, int limit) {
+        SlidingWindow counter = windows.getIfPresent(key);
+        return counter != null && counter.count(System.nanoTime()) >= limit;
+    }
+
+    private void rejected(String nickname, String clientIp) {
+        blocked.increment();
+        logger.warn("Login bloqueado por intentos fallidos: nickname={}, ip={}", nickname, clientIp);
+    }
+
+    // Ventana deslizante en BUCKETS tramos: cada tramo guarda su número de fallos y a qué tramo temporal corresponde
+    private final class SlidingWindow {
+        private final long[] slots = new long[BUCKETS];
+        private final int[] counts = new int[BUCKETS];
+
+        synchronized void add(long now) {
+            long slot = now / bucketNanos;
+            int i = (int) Math.floorMod(slot, (long) BUCKETS);
+            if (slots[i] != slot) {
+                slots[i] = slot;
+                counts[i] = 0;
+            }
+            counts[i]++;
+        }
+
+        synchronized int count(long now) {
+            long current = now / bucketNanos;
+            int total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (current - slots[i] < BUCKETS) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// BCrypt fuera del event loop: hashear y comprobar contraseñas cuesta decenas de milisegundos de CPU,
+// así que se ejecuta en un pool propio de tamaño fijo con una cola acotada. Si la cola está llena
+// se responde 503 enseguida en lugar de acumular logins esperando.
+@Component
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+    private static final String METRIC_NAME = "auth.password";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.security.bcrypt.threads:0}") int threads,
+                          @Value("${app.security.bcrypt.queue-capacity:64}") int queueCapacity) {
+        if (threads < 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Configuración del pool de BCrypt no válida");
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+
+        AtomicInteger hilos = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + hilos.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "bcrypt");
+
+        this.encodeTimer = Timer.builder(METRIC_NAME + ".hash")
+                .tag("operation", "encode")
+                .description("Tiempo de cálculo de hashes BCrypt")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder(METRIC_NAME + ".hash")
+                .tag("operation", "matches")
+                .description("Tiempo de comprobación de contraseñas BCrypt")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Operaciones BCrypt rechazadas con el pool saturado")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".queue", executor, pool -> pool.getQueue().size())
+                .description("Operaciones BCrypt esperando un hilo")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones BCrypt en ejecución")
+                .register(meterRegistry);
+
+        logger.info("Pool de BCrypt: {} hilos, cola de {}", poolSize, queueCapacity);
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> Mono<T> run(Timer timer, Supplier<T> operation) {
+        return Mono.fromSupplier(() -> timer.record(operation))
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, e -> {
+                    rejected.increment();
+                    logger.warn("Pool de BCrypt saturado ({} en cola)", executor.getQueue().size());
+                    return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiadas peticiones, inténtalo de nuevo en unos segundos");
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,63 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Usuario autenticado de la petición en curso, guardado en el Context de Reactor por RequestPrincipalFilter.
+// El User y sus personajes desbloqueados se cargan como mucho una vez por petición y solo si alguien los pide;
+// son una instantánea tomada en la primera lectura.
+// Fuera de una petición (o si se pregunta por otro jugador) se usa la carga indicada por el llamante.
+public final class RequestPrincipal {
+
+    private static final Class<RequestPrincipal> KEY = RequestPrincipal.class;
+
+    private final String nickname;
+    private final Mono<User> user;
+    private final Mono<Set<String>> unlockedCharacterIds;
+
+    public RequestPrincipal(String nickname, Mono<User> user, Function<User, Mono<Set<String>>> unlockedLoader) {
+        this.nickname = nickname;
+        this.user = user.cache();
+        this.unlockedCharacterIds = this.user.flatMap(unlockedLoader).cache();
+    }
+
+    public String getNickname() {
+        return nickname;
+    }
+
+    public Context putIn(Context context) {
+        return context.put(KEY, this);
+    }
+
+    public static Mono<User> user(String nickname, Supplier<Mono<User>> loader) {
+        return Mono.deferContextual(context -> find(context, nickname)
+                .map(principal -> principal.user)
+                .orElseGet(loader));
+    }
+
+    public static Mono<Set<String>> unlockedCharacterIds(String nickname, Supplier<Mono<Set<String>>> loader) {
+        return Mono.deferContextual(context -> find(context, nickname)
+                .map(principal -> principal.unlockedCharacterIds)
+                .orElseGet(loader));
+    }
+
+    // Si el set ya está en la petición no hace falta una consulta específica para un personaje
+    public static Mono<Boolean> isUnlocked(String nickname, String characterId, Supplier<Mono<Boolean>> loader) {
+        return Mono.deferContextual(context -> find(context, nickname)
+                .map(principal -> principal.unlockedCharacterIds.map(ids -> ids.contains(characterId)))
+                .orElseGet(loader));
+    }
+
+    private static Optional<RequestPrincipal> find(ContextView context, String nickname) {
+        return context.getOrEmpty(KEY)
+                .map(KEY::cast)
+                .filter(principal -> principal.nickname.equals(nickname));
+    }
+}
@@ -0,0 +1,49 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserCharacterRepository;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Publica el usuario autenticado en el Context de la petición (ver RequestPrincipal).
+// Se ejecuta después de la cadena de seguridad, que es quien deja el SecurityContext disponible.
+@Component
+public class RequestPrincipalFilter implements WebFilter {
+
+    private final UserCache userCache;
+    private final UserCharacterRepository userCharacterRepository;
+
+    public RequestPrincipalFilter(UserCache userCache, UserCharacterRepository userCharacterRepository) {
+        this.userCache = userCache;
+        this.userCharacterRepository = userCharacterRepository;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(authentication -> authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken))
+                .map(authentication -> Optional.of(principal(authentication)))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(principal -> principal
+                        .map(p -> chain.filter(exchange).contextWrite(p::putIn))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    private RequestPrincipal principal(Authentication authentication) {
+        String nickname = authentication.getName();
+        return new RequestPrincipal(nickname,
+                userCache.findByNickname(nickname),
+                user -> userCharacterRepository.findCharacterIdsByUserId(user.getId()).collect(Collectors.toSet()));
+    }
+}
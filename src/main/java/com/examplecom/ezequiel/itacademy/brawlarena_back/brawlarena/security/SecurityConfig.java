@@ -1,16 +1,13 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
 
-import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -30,9 +27,13 @@ public class SecurityConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
 
+    // Factor de coste de BCrypt (10 es el valor por defecto de Spring Security)
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength = 10;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -61,6 +62,7 @@ public class SecurityConfig {
                         // Rutas protegidas (modificación)
                         .pathMatchers(HttpMethod.POST, "/gallery/share").authenticated()
                         .pathMatchers(HttpMethod.PUT, "/gallery/highlighted").hasRole("ADMIN")
+                        .pathMatchers("/actuator/scorerules", "/actuator/rescoring").hasRole("ADMIN")
                         .pathMatchers(HttpMethod.DELETE, "/gallery/**").authenticated()
 
                         // Otros módulos protegidos
@@ -69,7 +71,9 @@ public class SecurityConfig {
                                 "/users/**",
                                 "/characters/**",
                                 "/builds/**",
-                                "/powers/**"
+                                "/powers/**",
+                                "/leaderboard/**",
+                                "/stats/**"
                         ).authenticated()
                 )
 
@@ -83,7 +87,7 @@ public class SecurityConfig {
         config.setAllowedOrigins(List.of("http://localhost:5173"));
         config.setAllowedMethods(List.of("*"));
         config.setAllowedHeaders(List.of("*"));
-        config.setExposedHeaders(List.of("Authorization"));
+        config.setExposedHeaders(List.of("Authorization", "X-Next-Cursor"));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -102,23 +106,10 @@ public class SecurityConfig {
             @Override
             public Mono<SecurityContext> load(ServerWebExchange exchange) {
                 return Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION))
-                        .doOnNext(header -> logger.info("Cabecera Authorization recibida"))
+                        .doOnNext(header -> logger.debug("Cabecera Authorization recibida"))
                         .filter(header -> header.startsWith("Bearer "))
-                        .doOnNext(header -> logger.debug("Token con formato Bearer detectado"))
-                        .flatMap(header -> {
-                            String token = header.substring(7);
-                            return Mono.just(token)
-                                    .filter(jwtService::validateToken)
-                                    .map(validToken -> {
-                                        Claims claims = jwtService.getClaims(validToken);
-                                        Authentication auth = new UsernamePasswordAuthenticationToken(
-                                                claims.getSubject(),
-                                                null,
-                                                List.of(new SimpleGrantedAuthority("ROLE_" + claims.get("role", String.class)))
-                                        );
-                                        return new SecurityContextImpl(auth);
-                                    });
-                        });
+                        .flatMap(header -> Mono.justOrEmpty(jwtService.authenticate(header.substring(7))))
+                        .map(SecurityContextImpl::new);
             }
         };
     }
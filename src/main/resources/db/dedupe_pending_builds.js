@@ -0,0 +1,21 @@
+// Builds pendientes duplicados (mismo playerId y characterId con valid:false).
+// El índice único parcial pending_build_unique_idx no se puede crear mientras existan; la comprobación
+// anterior con findAll no era atómica y podía dejarlos. Se conserva el más reciente de cada par.
+// Es idempotente: sin duplicados no borra nada. Ejecutar con mongosh contra la base de la aplicación
+// antes de arrancar la versión que crea el índice:
+//   mongosh "<uri>" src/main/resources/db/dedupe_pending_builds.js
+const duplicados = db.builds.aggregate([
+    { $match: { valid: false } },
+    { $sort: { createdAt: -1, _id: -1 } },
+    { $group: { _id: { playerId: "$playerId", characterId: "$characterId" }, ids: { $push: "$_id" } } },
+    { $match: { "ids.1": { $exists: true } } }
+], { allowDiskUse: true });
+
+let borrados = 0;
+duplicados.forEach(par => {
+    // ids[0] es el pendiente más reciente; el resto se borra (se repite valid:false por si se validó entretanto)
+    const resultado = db.builds.deleteMany({ _id: { $in: par.ids.slice(1) }, valid: false });
+    borrados += resultado.deletedCount;
+});
+
+print(`Builds pendientes duplicados borrados: ${borrados}`);
@@ -0,0 +1,18 @@
+-- Personajes desbloqueados por usuario.
+-- Sustituye al array JSON guardado en users.gallery.
+CREATE TABLE IF NOT EXISTS user_characters (
+    user_id      BIGINT      NOT NULL,
+    character_id VARCHAR(64) NOT NULL,
+    unlocked_at  DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, character_id)
+);
+
+-- Migración desde la columna JSON heredada. Es idempotente: puede relanzarse sin duplicar filas.
+INSERT IGNORE INTO user_characters (user_id, character_id, unlocked_at)
+SELECT u.id, jt.character_id, NOW()
+FROM users u,
+     JSON_TABLE(u.gallery, '$[*]' COLUMNS (character_id VARCHAR(64) PATH '$')) AS jt
+WHERE u.gallery IS NOT NULL
+  AND JSON_VALID(u.gallery)
+  AND jt.character_id IS NOT NULL
+  AND jt.character_id <> '';
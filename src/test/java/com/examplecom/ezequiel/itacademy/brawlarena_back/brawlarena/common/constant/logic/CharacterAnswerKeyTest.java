@@ -0,0 +1,115 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CharacterAnswerKeyTest {
+
+    // Helper
+    private Piece createPiece(String id, boolean fake, int level, boolean special, boolean combo, Power power) {
+        Piece piece = new Piece();
+        piece.setId(id);
+        piece.setFake(fake);
+        piece.setLevel(level);
+        piece.setSpecial(special);
+        piece.setComboVisual(combo);
+        piece.setPower(power);
+        return piece;
+    }
+
+    // Helper
+    private Character createCharacter(List<Piece> pieces) {
+        Character character = new Character();
+        character.setId("char1");
+        character.setPieces(pieces);
+        character.setPowers(new ArrayList<>());
+        return character;
+    }
+
+    @Test
+    void evaluate_cuentaPiezasFalsasYDesconocidasComoErrores() {
+        CharacterAnswerKey answerKey = CharacterAnswerKey.compile(createCharacter(List.of(
+                createPiece("p1", false, 1, false, false, null),
+                createPiece("p2", false, 2, false, false, null),
+                createPiece("fake1", true, 1, false, false, null)
+        )));
+
+        CharacterAnswerKey.Evaluation evaluacion = answerKey.evaluate(List.of("p1", "fake1", "desconocida"));
+
+        assertEquals(2, answerKey.getRealPieceCount());
+        assertEquals(1, evaluacion.getPiezasCorrectasColocadas());
+        assertEquals(2, evaluacion.getErrores());
+    }
+
+    @Test
+    void evaluate_piezaCorrectaRepetida_seCuentaUnaSolaVezSinError() {
+        CharacterAnswerKey answerKey = CharacterAnswerKey.compile(createCharacter(List.of(
+                createPiece("p1", false, 1, false, false, null)
+        )));
+
+        CharacterAnswerKey.Evaluation evaluacion = answerKey.evaluate(List.of("p1", "p1"));
+
+        assertEquals(1, evaluacion.getPiezasCorrectasColocadas());
+        assertEquals(0, evaluacion.getErrores());
+    }
+
+    @Test
+    void compile_personajeSinPiezas_generaPlantillaVacia() {
+        CharacterAnswerKey answerKey = CharacterAnswerKey.compile(createCharacter(null));
+
+        CharacterAnswerKey.Evaluation evaluacion = answerKey.evaluate(List.of("p1"));
+
+        assertEquals(0, answerKey.getRealPieceCount());
+        assertEquals(1, evaluacion.getErrores());
+    }
+
+    @Test
+    void powerProgress_sumaProgresoPorCadaPiezaConPoderColocada() {
+        CharacterAnswerKey answerKey = CharacterAnswerKey.compile(createCharacter(List.of(
+                createPiece("p1", false, 1, false, false, Power.AIR_JUMP),
+                createPiece("p2", false, 1, false, false, Power.AIR_JUMP),
+                createPiece("p3", false, 1, false, false, Power.SUPERMUSCULADO),
+                createPiece("fake1", true, 1, false, false, Power.SNAKEWOOD_SLASH)
+        )));
+
+        Map<Power, Integer> progreso = answerKey.evaluate(List.of("p1", "p2", "fake1")).powerProgress();
+
+        assertEquals(66, progreso.get(Power.AIR_JUMP));
+        assertFalse(progreso.containsKey(Power.SUPERMUSCULADO));
+        assertFalse(progreso.containsKey(Power.SNAKEWOOD_SLASH));
+    }
+
+    @Test
+    void calculateScore_aplicaPuntosPorNivelBonusYPenalizaciones() {
+        CharacterAnswerKey answerKey = CharacterAnswerKey.compile(createCharacter(List.of(
+                createPiece("p1", false, 4, true, true, null),
+                createPiece("p2", false, 2, false, false, null),
+                createPiece("fake1", true, 1, false, false, null)
+        )));
+
+        CharacterAnswerKey.Evaluation evaluacion = answerKey.evaluate(List.of("p1", "p2", "fake1"));
+
+        // 200 + 200 + 100 (p1) + 100 (p2) - 30 (error) + 300 (base) + 200 (primera vez)
+        assertEquals(1070, ScoreRules.defaults().score(evaluacion, 120, true));
+    }
+
+    @Test
+    void calculateScore_sinErroresYRapido_sumaBonusDeVelocidadYPerfecto() {
+        CharacterAnswerKey answerKey = CharacterAnswerKey.compile(createCharacter(List.of(
+                createPiece("p1", false, 1, false, false, null)
+        )));
+
+        CharacterAnswerKey.Evaluation evaluacion = answerKey.evaluate(List.of("p1"));
+
+        // 50 + 150 (velocidad) + 100 (sin errores) + 300 (base)
+        assertEquals(600, ScoreRules.defaults().score(evaluacion, 30, false));
+    }
+}
@@ -0,0 +1,96 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.config.ScoreConfig;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreCalculatorTest {
+
+    private CharacterAnswerKey answerKey;
+    private ScoreCalculator scoreCalculator;
+
+    @BeforeEach
+    void setUp() {
+        Piece p1 = new Piece();
+        p1.setId("p1");
+        p1.setLevel(2);
+        Piece fake = new Piece();
+        fake.setId("fake1");
+        fake.setFake(true);
+        fake.setLevel(1);
+
+        Character character = new Character();
+        character.setId("char1");
+        character.setPieces(List.of(p1, fake));
+        character.setPowers(new ArrayList<>());
+        answerKey = CharacterAnswerKey.compile(character);
+
+        scoreCalculator = new ScoreCalculator(new ScoreConfig());
+    }
+
+    @Test
+    void calculateScore_configPorDefecto_coincideConReglasPorDefecto() {
+        CharacterAnswerKey.Evaluation evaluacion = answerKey.evaluate(List.of("p1", "fake1"));
+
+        // 100 (p1) - 30 (error) + 300 (base)
+        assertEquals(370, scoreCalculator.calculateScore(evaluacion, 120, false));
+        assertEquals(ScoreRules.defaults().score(evaluacion, 120, false), scoreCalculator.calculateScore(evaluacion, 120, false));
+    }
+
+    @Test
+    void update_cambiosParciales_sustituyeLasReglas() {
+        CharacterAnswerKey.Evaluation evaluacion = answerKey.evaluate(List.of("p1"));
+        ScoreRules anteriores = scoreCalculator.currentRules();
+
+        ScoreRules nuevas = scoreCalculator.update(config -> {
+            config.setLevel2Points(500);
+            config.setBaseCompletionBonus(0);
+        });
+
+        assertEquals(anteriores.getVersion() + 1, nuevas.getVersion());
+        // 500 (p1) + 100 (sin errores)
+        assertEquals(600, scoreCalculator.calculateScore(evaluacion, 120, false));
+        // Las reglas no tocadas conservan su valor
+        assertEquals(anteriores.describe().get("errorPenalty"), nuevas.describe().get("errorPenalty"));
+        // La tabla anterior sigue siendo válida para quien la tenga fijada
+        assertEquals(500, anteriores.score(evaluacion, 120, false));
+    }
+
+    @Test
+    void fingerprint_mismosValoresEnOtraVersion_coincide() {
+        ScoreRules original = ScoreRules.compile(new ScoreConfig(), 0);
+        ScoreConfig cambiada = new ScoreConfig();
+        cambiada.setSpeedBonus(999);
+
+        assertEquals(original.fingerprint(), ScoreRules.compile(new ScoreConfig(), 42).fingerprint());
+        assertNotEquals(original.fingerprint(), ScoreRules.compile(cambiada, 0).fingerprint());
+    }
+
+    @Test
+    void update_configuracionInvalida_conservaReglasVigentes() {
+        ScoreRules vigentes = scoreCalculator.currentRules();
+
+        assertThrows(IllegalArgumentException.class, () -> scoreCalculator.update(config -> config.setErrorPenalty(-10)));
+        assertSame(vigentes, scoreCalculator.currentRules());
+    }
+
+    @Test
+    void rescore_buildGuardado_recalculaConLasReglasVigentes() {
+        Build build = new Build();
+        build.setPiecesPlaced(List.of("p1", "fake1"));
+        build.setDuration(30);
+        build.setScore(1);
+
+        // 100 (p1) - 30 (error) + 150 (velocidad) + 300 (base) + 200 (primera vez)
+        assertEquals(720, scoreCalculator.rescore(build, answerKey, true));
+        assertEquals(1, build.getScore());
+    }
+}
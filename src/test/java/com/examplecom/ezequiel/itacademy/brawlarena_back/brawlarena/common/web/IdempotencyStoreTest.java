@@ -0,0 +1,182 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.IdempotencyRecord;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.EntityResponse;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IdempotencyStoreTest {
+
+    private IdempotencyStore store;
+    private AtomicInteger ejecuciones;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), null, 64, Duration.ofMinutes(10), false);
+        ejecuciones = new AtomicInteger();
+    }
+
+    // Helpers
+    private ServerRequest post(String key) {
+        return post("/gallery/share", key);
+    }
+
+    private ServerRequest post(String uri, String key) {
+        MockServerHttpRequest.BodyBuilder builder = MockServerHttpRequest.post(uri);
+        if (key != null) {
+            builder.header(IdempotencyStore.HEADER, key);
+        }
+        return ServerRequest.create(MockServerWebExchange.from(builder), Collections.emptyList());
+    }
+
+    private Mono<ServerResponse> pipeline(Object body) {
+        return Mono.defer(() -> {
+            ejecuciones.incrementAndGet();
+            return ServerResponse.ok().bodyValue(body);
+        });
+    }
+
+    private ServerResponse ejecutar(IdempotencyStore idempotencyStore, String key, String playerId, Object body) {
+        return idempotencyStore.execute(post(key), playerId, () -> pipeline(body)).block();
+    }
+
+    @Test
+    void execute_sinCabecera_ejecutaSiempre() {
+        ejecutar(store, null, "ana", "ok");
+        ejecutar(store, null, "ana", "ok");
+
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void execute_mismaClave_devuelveLaRespuestaGuardadaSinReejecutar() {
+        ServerResponse primera = ejecutar(store, "k1", "ana", Map.of("id", "model1"));
+        ServerResponse segunda = ejecutar(store, "k1", "ana", Map.of("id", "otro"));
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(Map.of("id", "model1"), ((EntityResponse<?>) primera).entity());
+        assertNull(primera.headers().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(HttpStatus.OK, segunda.statusCode());
+        assertEquals("true", segunda.headers().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals("{\"id\":\"model1\"}", new String((byte[]) ((EntityResponse<?>) segunda).entity(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void execute_mismaClaveOtroJugador_ejecutaDeNuevo() {
+        ejecutar(store, "k1", "ana", "ok");
+        ejecutar(store, "k1", "luis", "ok");
+
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void execute_mismaClaveOtraQuery_ejecutaDeNuevo() {
+        store.execute(post("/characters/unlock?characterId=char1", "k1"), "ana", () -> pipeline("char1")).block();
+        ServerResponse segunda = store.execute(post("/characters/unlock?characterId=char2", "k1"), "ana", () -> pipeline("char2")).block();
+
+        assertEquals(2, ejecuciones.get());
+        assertEquals("char2", ((EntityResponse<?>) segunda).entity());
+    }
+
+    @Test
+    void execute_mismaClaveMismoCuerpo_devuelveLaRespuestaGuardada() {
+        store.execute(post("/builds/validate", "k1"), "ana", Map.of("characterId", "char1"), () -> pipeline("ok")).block();
+        ServerResponse segunda = store.execute(post("/builds/validate", "k1"), "ana", Map.of("characterId", "char1"), () -> pipeline("ok")).block();
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals("true", segunda.headers().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_mismaClaveOtroCuerpo_retornaUnprocessableEntity() {
+        store.execute(post("/builds/validate", "k1"), "ana", Map.of("characterId", "char1"), () -> pipeline("ok")).block();
+        ServerResponse segunda = store.execute(post("/builds/validate", "k1"), "ana", Map.of("characterId", "char2"), () -> pipeline("ok")).block();
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, segunda.statusCode());
+        assertNull(segunda.headers().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_errorEnPipeline_noSeGuardaYElReintentoEjecuta() {
+        ServerRequest request = post("k1");
+        Mono<ServerResponse> fallo = store.execute(request, "ana", () -> Mono.defer(() -> {
+            ejecuciones.incrementAndGet();
+            return Mono.error(new IllegalStateException("Error en MongoDB"));
+        }));
+
+        assertThrows(IllegalStateException.class, fallo::block);
+        ejecutar(store, "k1", "ana", "ok");
+
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void execute_respuesta5xx_noSeGuarda() {
+        store.execute(post("k1"), "ana", () -> Mono.defer(() -> {
+            ejecuciones.incrementAndGet();
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        })).block();
+        ejecutar(store, "k1", "ana", "ok");
+
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void execute_claveDemasiadoLarga_retornaBadRequest() {
+        ServerResponse response = ejecutar(store, "x".repeat(200), "ana", "ok");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.statusCode());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void execute_persistente_respuestaEnMongo_noEjecutaElPipeline() {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        // Registro sin fingerprint (anterior al hash): se reproduce igualmente
+        IdempotencyRecord record = new IdempotencyRecord("POST /gallery/share ana k1", 200, "text/plain;charset=UTF-8",
+                "guardado".getBytes(StandardCharsets.UTF_8), null, Instant.now(), Instant.now().plusSeconds(60));
+        when(repository.findById("POST /gallery/share ana k1")).thenReturn(Mono.just(record));
+        IdempotencyStore persistente = new IdempotencyStore(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), repository, 64, Duration.ofMinutes(10), true);
+
+        ServerResponse response = ejecutar(persistente, "k1", "ana", "nuevo");
+
+        assertEquals(0, ejecuciones.get());
+        assertEquals("true", response.headers().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void execute_persistente_guardaLaRespuestaConCaducidad() {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById(any(String.class))).thenReturn(Mono.empty());
+        when(repository.save(any(IdempotencyRecord.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        IdempotencyStore persistente = new IdempotencyStore(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), repository, 64, Duration.ofMinutes(10), true);
+
+        ejecutar(persistente, "k1", "ana", "ok");
+
+        assertEquals(1, ejecuciones.get());
+        verify(repository).save(argThat(saved -> saved.getStatus() == 200 && saved.getFingerprint() != null
+                && saved.getExpiresAt().isAfter(Instant.now())));
+    }
+}
@@ -0,0 +1,167 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.EntityResponse;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonResponseCacheTest {
+
+    private JsonResponseCache responseCache;
+    private AtomicInteger cargas;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new JsonResponseCache(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), 64, Duration.ofMinutes(10));
+        cargas = new AtomicInteger();
+    }
+
+    // Helpers
+    private ServerRequest get(MockServerHttpRequest.BaseBuilder<?> builder) {
+        return ServerRequest.create(MockServerWebExchange.from(builder), Collections.emptyList());
+    }
+
+    private Mono<Object> cargar(Object body) {
+        return Mono.fromSupplier(() -> {
+            cargas.incrementAndGet();
+            return body;
+        });
+    }
+
+    private ServerResponse responder(ServerRequest request, Object body) {
+        return responseCache.respond(request, "clave", () -> cargar(body)).block();
+    }
+
+    @Test
+    void respond_primeraPeticion_devuelveJsonConEtag() {
+        ServerResponse response = responder(get(MockServerHttpRequest.get("/recurso")), Map.of("id", "char1"));
+
+        assertEquals(HttpStatus.OK, response.statusCode());
+        assertNotNull(response.headers().getETag());
+        assertEquals("{\"id\":\"char1\"}", new String((byte[]) ((EntityResponse<?>) response).entity()));
+    }
+
+    @Test
+    void respond_segundaPeticion_noVuelveACargar() {
+        String etag1 = responder(get(MockServerHttpRequest.get("/recurso")), List.of("a")).headers().getETag();
+        String etag2 = responder(get(MockServerHttpRequest.get("/recurso")), List.of("a")).headers().getETag();
+
+        assertEquals(etag1, etag2);
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void respond_ifNoneMatchCoincide_devuelveNotModified() {
+        String etag = responder(get(MockServerHttpRequest.get("/recurso")), List.of("a")).headers().getETag();
+
+        ServerResponse response = responder(get(MockServerHttpRequest.get("/recurso").ifNoneMatch(etag)), List.of("a"));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.statusCode());
+        assertEquals(etag, response.headers().getETag());
+    }
+
+    @Test
+    void respond_ifNoneMatchDistinto_devuelveCuerpo() {
+        ServerResponse response = responder(get(MockServerHttpRequest.get("/recurso").ifNoneMatch("\"otro\"")), List.of("a"));
+
+        assertEquals(HttpStatus.OK, response.statusCode());
+    }
+
+    @Test
+    void respond_aceptaGzip_devuelveCuerpoComprimido() throws IOException {
+        String grande = "x".repeat(4096);
+
+        ServerResponse response = responder(
+                get(MockServerHttpRequest.get("/recurso").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip")), List.of(grande));
+
+        assertEquals("gzip", response.headers().getFirst(HttpHeaders.CONTENT_ENCODING));
+        byte[] comprimido = (byte[]) ((EntityResponse<?>) response).entity();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(comprimido))) {
+            assertEquals("[\"" + grande + "\"]", new String(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    void respond_gzip_usaEtagDistintoYAceptaAmbosEnIfNoneMatch() {
+        String grande = "x".repeat(4096);
+
+        String etagIdentidad = responder(get(MockServerHttpRequest.get("/recurso")), List.of(grande)).headers().getETag();
+        String etagGzip = responder(
+                get(MockServerHttpRequest.get("/recurso").header(HttpHeaders.ACCEPT_ENCODING, "gzip")), List.of(grande)).headers().getETag();
+
+        assertNotEquals(etagIdentidad, etagGzip);
+        assertTrue(etagGzip.endsWith("-gz\""));
+
+        ServerResponse conGzip = responder(get(MockServerHttpRequest.get("/recurso")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").ifNoneMatch(etagIdentidad)), List.of(grande));
+        assertEquals(HttpStatus.NOT_MODIFIED, conGzip.statusCode());
+        assertEquals(etagGzip, conGzip.headers().getETag());
+
+        ServerResponse sinGzip = responder(get(MockServerHttpRequest.get("/recurso").ifNoneMatch(etagGzip)), List.of(grande));
+        assertEquals(HttpStatus.NOT_MODIFIED, sinGzip.statusCode());
+        assertEquals(etagIdentidad, sinGzip.headers().getETag());
+    }
+
+    @Test
+    void respond_cuerpoPequeno_noSeComprime() {
+        ServerResponse response = responder(
+                get(MockServerHttpRequest.get("/recurso").header(HttpHeaders.ACCEPT_ENCODING, "gzip")), List.of("a"));
+
+        assertNull(response.headers().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void invalidate_recargaContenido() {
+        String etag1 = responder(get(MockServerHttpRequest.get("/recurso")), List.of("a")).headers().getETag();
+
+        responseCache.invalidate("clave");
+        String etag2 = responder(get(MockServerHttpRequest.get("/recurso")), List.of("b")).headers().getETag();
+
+        assertNotEquals(etag1, etag2);
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void invalidateCharacter_invalidaDetalleYListado() {
+        responseCache.respond(get(MockServerHttpRequest.get("/characters/all")), JsonResponseCache.CHARACTERS_ALL, () -> cargar(List.of())).block();
+        responseCache.respond(get(MockServerHttpRequest.get("/characters/char1")), JsonResponseCache.characterKey("char1"), () -> cargar(Map.of())).block();
+
+        responseCache.invalidateCharacter("char1");
+
+        responseCache.respond(get(MockServerHttpRequest.get("/characters/all")), JsonResponseCache.CHARACTERS_ALL, () -> cargar(List.of())).block();
+        responseCache.respond(get(MockServerHttpRequest.get("/characters/char1")), JsonResponseCache.characterKey("char1"), () -> cargar(Map.of())).block();
+
+        assertEquals(4, cargas.get());
+    }
+
+    @Test
+    void respond_errorEnCarga_propagaErrorYNoSeCachea() {
+        StepVerifier.create(responseCache.respond(get(MockServerHttpRequest.get("/recurso")), "clave",
+                        () -> Mono.error(new RuntimeException("Error en MongoDB"))))
+                .expectErrorMessage("Error en MongoDB")
+                .verify();
+
+        assertEquals(HttpStatus.OK, responder(get(MockServerHttpRequest.get("/recurso")), List.of("a")).statusCode());
+        assertEquals(1, cargas.get());
+    }
+}
@@ -0,0 +1,185 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CharacterCatalogTest {
+
+    @Mock
+    private CharacterRepository characterRepository;
+
+    private CharacterCatalog characterCatalog;
+
+    @BeforeEach
+    void setUp() {
+        characterCatalog = new CharacterCatalog(characterRepository, new SimpleMeterRegistry(), 256, Duration.ofMinutes(30));
+    }
+
+    // Helper
+    private Character createTestCharacter(String id) {
+        Character character = new Character();
+        character.setId(id);
+        character.setName("Test-" + id);
+        character.setPieces(new ArrayList<>());
+        character.setPowers(new ArrayList<>());
+        return character;
+    }
+
+    @Test
+    void findById_segundaLectura_noConsultaMongo() {
+        Character character = createTestCharacter("char1");
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(character));
+
+        StepVerifier.create(characterCatalog.findById("char1"))
+                .expectNext(character)
+                .verifyComplete();
+        StepVerifier.create(characterCatalog.findById("char1"))
+                .expectNext(character)
+                .verifyComplete();
+
+        verify(characterRepository, times(1)).findById("char1");
+    }
+
+    @Test
+    void findEntry_compilaPlantillaYAsignaVersion() {
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(createTestCharacter("char1")));
+
+        StepVerifier.create(characterCatalog.findEntry("char1"))
+                .expectNextMatches(entry ->
+                        entry.getAnswerKey() != null &&
+                                entry.getAnswerKey().getCharacterId().equals("char1") &&
+                                entry.getVersion() > 0)
+                .verifyComplete();
+    }
+
+    @Test
+    void findById_personajeInexistente_noSeCachea() {
+        when(characterRepository.findById("char1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(characterCatalog.findById("char1")).verifyComplete();
+        StepVerifier.create(characterCatalog.findById("char1")).verifyComplete();
+
+        verify(characterRepository, times(2)).findById("char1");
+    }
+
+    @Test
+    void findById_errorEnMongo_propagaErrorYNoSeCachea() {
+        when(characterRepository.findById("char1"))
+                .thenReturn(Mono.error(new RuntimeException("Error en MongoDB")))
+                .thenReturn(Mono.just(createTestCharacter("char1")));
+
+        StepVerifier.create(characterCatalog.findById("char1"))
+                .expectErrorMessage("Error en MongoDB")
+                .verify();
+        StepVerifier.create(characterCatalog.findById("char1"))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void invalidate_recargaPersonajeConNuevaVersion() {
+        Character original = createTestCharacter("char1");
+        Character actualizado = createTestCharacter("char1");
+        actualizado.setName("Actualizado");
+
+        when(characterRepository.findById("char1"))
+                .thenReturn(Mono.just(original))
+                .thenReturn(Mono.just(actualizado));
+
+        long versionOriginal = characterCatalog.findEntry("char1").block().getVersion();
+
+        characterCatalog.invalidate("char1");
+
+        StepVerifier.create(characterCatalog.findEntry("char1"))
+                .expectNextMatches(entry ->
+                        entry.getCharacter().getName().equals("Actualizado") &&
+                                entry.getVersion() > versionOriginal)
+                .verifyComplete();
+    }
+
+    @Test
+    void findAll_reutilizaSnapshotHastaInvalidar() {
+        when(characterRepository.findAll())
+                .thenReturn(Flux.just(createTestCharacter("char1"), createTestCharacter("char2")));
+
+        StepVerifier.create(characterCatalog.findAll()).expectNextCount(2).verifyComplete();
+        StepVerifier.create(characterCatalog.findAll()).expectNextCount(2).verifyComplete();
+        verify(characterRepository, times(1)).findAll();
+
+        characterCatalog.invalidate("char1");
+
+        StepVerifier.create(characterCatalog.findAll()).expectNextCount(2).verifyComplete();
+        verify(characterRepository, times(2)).findAll();
+    }
+
+    @Test
+    void findSnapshot_precalculaPersonajesGratuitos() {
+        Character gratuito = createTestCharacter("char1");
+        Character dePago = createTestCharacter("char2");
+        dePago.setCost(100);
+        when(characterRepository.findAll())
+                .thenReturn(Flux.just(gratuito, dePago))
+                .thenReturn(Flux.just(gratuito, dePago, createTestCharacter("char3")));
+
+        StepVerifier.create(characterCatalog.findSnapshot())
+                .expectNextMatches(snapshot ->
+                        snapshot.getFreeCharacterIds().equals(List.of("char1")) &&
+                                snapshot.getFreeCharacterIdsJson().equals("[\"char1\"]"))
+                .verifyComplete();
+
+        characterCatalog.invalidateAll();
+
+        StepVerifier.create(characterCatalog.findSnapshot())
+                .expectNextMatches(snapshot ->
+                        snapshot.getFreeCharacterIds().equals(List.of("char1", "char3")) &&
+                                snapshot.getFreeCharacterIdsJson().equals("[\"char1\",\"char3\"]"))
+                .verifyComplete();
+    }
+
+    @Test
+    void findSnapshot_findAllById_respetaOrdenDelCatalogoEIgnoraDesconocidos() {
+        when(characterRepository.findAll())
+                .thenReturn(Flux.just(createTestCharacter("char1"), createTestCharacter("char2"), createTestCharacter("char3")));
+
+        StepVerifier.create(characterCatalog.findSnapshot())
+                .expectNextMatches(snapshot -> {
+                    List<Character> conPiezas = snapshot.findAllById(List.of("char3", "char1", "otro"), true);
+                    List<Character> sinPiezas = snapshot.findAllById(List.of("char3", "char1"), false);
+                    return conPiezas.stream().map(Character::getId).toList().equals(List.of("char1", "char3")) &&
+                            conPiezas.get(0).getPieces() != null &&
+                            sinPiezas.stream().map(Character::getId).toList().equals(List.of("char1", "char3")) &&
+                            sinPiezas.stream().allMatch(character -> character.getPieces() == null);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findAll_errorEnMongo_noSeCachea() {
+        when(characterRepository.findAll())
+                .thenReturn(Flux.error(new RuntimeException("Error en MongoDB")))
+                .thenReturn(Flux.just(createTestCharacter("char1")));
+
+        StepVerifier.create(characterCatalog.findAll())
+                .expectErrorMessage("Error en MongoDB")
+                .verify();
+        StepVerifier.create(characterCatalog.findAll())
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+}
@@ -1,14 +1,22 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.IdempotencyStore;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.BuildAlreadyValidatedException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.NoPendingBuildException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.BuildBatchResult;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.BuildService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.reactive.function.server.ServerRequest;
@@ -25,6 +33,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -37,9 +46,18 @@ class BuildHandlerTest {
     @Mock
     private ServerRequest request;
 
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), null, 64, Duration.ofMinutes(10), false);
+
     @InjectMocks
     private BuildHandler buildHandler;
 
+    @BeforeEach
+    void setUp() {
+        // Sin cabecera Idempotency-Key las peticiones simuladas pasan directamente al pipeline
+        lenient().when(request.headers()).thenReturn(mock(ServerRequest.Headers.class));
+    }
+
     @Test
     void startBuild_Success_ReturnsOkWithBuild() {
 
@@ -298,6 +316,26 @@ class BuildHandlerTest {
                 .verify();
     }
 
+    @Test
+    void validateBuild_BuildYaValidado_Retorna409() {
+        String playerId = "player123";
+        Authentication auth = new UsernamePasswordAuthenticationToken(playerId, "");
+        when(request.principal()).thenAnswer(inv -> Mono.just(auth));
+
+        Build buildRequest = new Build();
+        buildRequest.setCharacterId("char1");
+        buildRequest.setPiecesPlaced(List.of("pieza1"));
+        buildRequest.setDuration(60L);
+
+        when(request.bodyToMono(Build.class)).thenReturn(Mono.just(buildRequest));
+        when(buildService.validateBuild(playerId, buildRequest))
+                .thenReturn(Mono.error(new BuildAlreadyValidatedException("El build ya se ha validado en otra petición")));
+
+        StepVerifier.create(buildHandler.validateBuild(request))
+                .expectNextMatches(response -> response.statusCode() == HttpStatus.CONFLICT)
+                .verifyComplete();
+    }
+
     @Test
     void validateBuild_ErrorEnServicio_LanzaExcepcion() {
 
@@ -621,4 +659,73 @@ class BuildHandlerTest {
                 })
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPlayerStats_SinEstadisticas_RetornaNoContent() {
+        String playerId = "player123";
+        Authentication auth = new UsernamePasswordAuthenticationToken(playerId, "");
+
+        when(request.principal())
+                .thenAnswer(inv -> Mono.just(auth));
+        when(buildService.getPlayerStats(playerId))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(buildHandler.getPlayerStats(request))
+                .assertNext(res -> assertEquals(HttpStatus.NO_CONTENT, res.statusCode()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getPlayerStats_ConEstadisticas_RetornaOk() {
+        String playerId = "player123";
+        Authentication auth = new UsernamePasswordAuthenticationToken(playerId, "");
+        PlayerStats stats = new PlayerStats();
+        stats.setId(PlayerStats.idOf(playerId, "char1"));
+        stats.setCompletions(3);
+
+        when(request.principal())
+                .thenAnswer(inv -> Mono.just(auth));
+        when(buildService.getPlayerStats(playerId))
+                .thenReturn(Flux.just(stats));
+
+        StepVerifier.create(buildHandler.getPlayerStats(request))
+                .assertNext(res -> {
+                    assertEquals(HttpStatus.OK, res.statusCode());
+                    assertEquals(List.of(stats), ((EntityResponse<?>) res).entity());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void validateBuildsBatch_loteValido_retornaOkConResultados() {
+        Authentication auth = new UsernamePasswordAuthenticationToken("player123", "");
+        Build buildRequest = new Build();
+        buildRequest.setCharacterId("char1");
+        List<BuildBatchResult> resultados = List.of(BuildBatchResult.validated(0, buildRequest));
+
+        when(request.principal()).thenAnswer(inv -> Mono.just(auth));
+        when(request.bodyToFlux(Build.class)).thenReturn(Flux.just(buildRequest));
+        when(buildService.validateBuilds("player123", List.of(buildRequest))).thenReturn(Mono.just(resultados));
+
+        StepVerifier.create(buildHandler.validateBuildsBatch(request))
+                .assertNext(res -> {
+                    assertEquals(HttpStatus.OK, res.statusCode());
+                    assertEquals(resultados, ((EntityResponse<?>) res).entity());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void validateBuildsBatch_loteVacio_retornaBadRequest() {
+        Authentication auth = new UsernamePasswordAuthenticationToken("player123", "");
+
+        when(request.principal()).thenAnswer(inv -> Mono.just(auth));
+        when(request.bodyToFlux(Build.class)).thenReturn(Flux.empty());
+        when(buildService.validateBuilds("player123", List.of()))
+                .thenThrow(new IllegalArgumentException("El lote debe contener al menos un build"));
+
+        StepVerifier.create(buildHandler.validateBuildsBatch(request))
+                .assertNext(res -> assertEquals(HttpStatus.BAD_REQUEST, res.statusCode()))
+                .verifyComplete();
+    }
+}
@@ -1,5 +1,7 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.IdempotencyStore;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.JsonResponseCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterResponse;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterUpdateRequest;
@@ -12,7 +14,9 @@ import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repo
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +32,7 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -38,11 +43,16 @@ import org.springframework.web.reactive.function.server.EntityResponse;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
 import static com.mongodb.internal.connection.tlschannel.util.Util.assertTrue;
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -71,7 +81,15 @@ class CharacterHandlerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        characterHandler = new CharacterHandler(characterService, jwtService, userRepository, objectMapper, pieceRepository);
+        JsonResponseCache responseCache = new JsonResponseCache(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), 64, Duration.ofMinutes(10));
+        characterHandler = new CharacterHandler(characterService, jwtService, userRepository, objectMapper, pieceRepository, responseCache,
+                new IdempotencyStore(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), null, 64, Duration.ofMinutes(10), false));
+        // Sin cabecera Idempotency-Key las peticiones simuladas pasan directamente al pipeline
+        lenient().when(request.headers()).thenReturn(mock(ServerRequest.Headers.class));
+    }
+
+    private ServerRequest getRequest(MockServerHttpRequest.BaseBuilder<?> builder) {
+        return ServerRequest.create(MockServerWebExchange.from(builder), Collections.emptyList());
     }
 
     private Character createTestCharacter(String id) {
@@ -95,12 +113,10 @@ class CharacterHandlerTest {
 
     @Test
     void getAllCharacters_ReturnsOkWithValidHeaders() throws Exception {
-        Authentication auth = mock(Authentication.class);
-
         Character testChar = createTestCharacter("1");
         when(characterService.getAllCharacters()).thenReturn(Flux.just(testChar));
 
-        Mono<ServerResponse> response = characterHandler.getAllCharacters(request);
+        Mono<ServerResponse> response = characterHandler.getAllCharacters(getRequest(MockServerHttpRequest.get("/characters/all")));
 
         StepVerifier.create(response)
                 .assertNext(res -> {
@@ -108,13 +124,17 @@ class CharacterHandlerTest {
                     HttpHeaders headers = res.headers();
                     assertNotNull(headers.getContentType());
                     assertEquals(MediaType.APPLICATION_JSON, headers.getContentType());
-
-                    @SuppressWarnings("unchecked")
-                    List<CharacterResponse> body = (List<CharacterResponse>) ((EntityResponse<?>) res).entity();
-                    assertEquals(1, body.size());
-                    CharacterResponse dto = body.get(0);
-                    assertEquals("1", dto.id());
-                    assertFalse(dto.unlocked());
+                    assertNotNull(headers.getETag());
+
+                    byte[] body = (byte[]) ((EntityResponse<?>) res).entity();
+                    try {
+                        JsonNode json = new ObjectMapper().readTree(body);
+                        assertEquals(1, json.size());
+                        assertEquals("1", json.get(0).get("id").asText());
+                        assertFalse(json.get(0).get("unlocked").asBoolean());
+                    } catch (IOException e) {
+                        throw new AssertionError(e);
+                    }
                 })
                 .verifyComplete();
     }
@@ -123,9 +143,7 @@ class CharacterHandlerTest {
     void getAllCharacters_ReturnsNoContentWhenEmpty() {
         when(characterService.getAllCharacters()).thenReturn(Flux.empty());
 
-        Mono<ServerResponse> response = characterHandler.getAllCharacters(request);
-
-        StepVerifier.create(characterHandler.getAllCharacters(request))
+        StepVerifier.create(characterHandler.getAllCharacters(getRequest(MockServerHttpRequest.get("/characters/all"))))
                 .assertNext(res -> {
                     assertEquals(HttpStatus.OK, res.statusCode());
                 })
@@ -133,6 +151,24 @@ class CharacterHandlerTest {
 
     }
 
+    @Test
+    void getAllCharacters_IfNoneMatchConEtagVigente_DevuelveNotModified() {
+        when(characterService.getAllCharacters()).thenReturn(Flux.just(createTestCharacter("1")));
+
+        String etag = characterHandler.getAllCharacters(getRequest(MockServerHttpRequest.get("/characters/all")))
+                .map(res -> res.headers().getETag())
+                .block();
+
+        StepVerifier.create(characterHandler.getAllCharacters(getRequest(MockServerHttpRequest.get("/characters/all").ifNoneMatch(etag))))
+                .assertNext(res -> {
+                    assertEquals(HttpStatus.NOT_MODIFIED, res.statusCode());
+                    assertEquals(etag, res.headers().getETag());
+                })
+                .verifyComplete();
+
+        verify(characterService, times(1)).getAllCharacters();
+    }
+
     @Test
     void getAllCharacters_PropagatesServiceError() {
         when(characterService.getAllCharacters())
@@ -174,7 +210,7 @@ class CharacterHandlerTest {
         when(request.principal())
                 .thenAnswer(inv -> Mono.just(auth));
 
-        when(characterService.getUnlockedCharacters("player1"))
+        when(characterService.getUnlockedCharacters("player1", false))
                 .thenReturn(Flux.just(createTestCharacter("1")));
 
 
@@ -189,7 +225,7 @@ class CharacterHandlerTest {
 
         when(request.principal())
                 .thenAnswer(inv -> Mono.just(auth));
-        when(characterService.getUnlockedCharacters("player1"))
+        when(characterService.getUnlockedCharacters("player1", false))
                 .thenReturn(Flux.empty());
 
         StepVerifier.create(characterHandler.getCharacterId(request))
@@ -214,7 +250,7 @@ class CharacterHandlerTest {
 
         when(request.principal())
                 .thenAnswer(inv -> Mono.just(auth));
-        when(characterService.getUnlockedCharacters(playerId))
+        when(characterService.getUnlockedCharacters(playerId, false))
                 .thenReturn(Flux.error(new RuntimeException("Fallo en base de datos")));
 
         StepVerifier.create(characterHandler.getCharacterId(request))
@@ -280,6 +316,9 @@ class CharacterHandlerTest {
     void getCharacterDetail_ReturnsCharacterDetails() {
         when(request.pathVariable("id"))
                 .thenReturn("char1");
+        ServerRequest.Headers headersMock = mock(ServerRequest.Headers.class);
+        when(request.headers()).thenReturn(headersMock);
+        when(headersMock.asHttpHeaders()).thenReturn(new HttpHeaders());
 
         Character testChar = createTestCharacter("char1");
         when(characterService.getCharacterDetail("char1"))
@@ -1,32 +1,42 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.IdempotencyStore;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.JsonResponseCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.BuildNotFoundException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.ModelNotFoundException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.AccessDeniedException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.GalleryPage;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.SharedModel;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.GalleryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.reactivestreams.Publisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.reactive.function.server.EntityResponse;
 import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import reactor.core.publisher.Flux;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,9 +48,16 @@ class GalleryHandlerTest {
     @Mock
     private ServerRequest request;
 
-    @InjectMocks
     private GalleryHandler galleryHandler;
 
+    @BeforeEach
+    void setUp() {
+        JsonResponseCache responseCache = new JsonResponseCache(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), 64, Duration.ofMinutes(10));
+        galleryHandler = new GalleryHandler(galleryService, responseCache, new IdempotencyStore(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), null, 64, Duration.ofMinutes(10), false));
+        // Sin cabecera Idempotency-Key las peticiones simuladas pasan directamente al pipeline
+        lenient().when(request.headers()).thenReturn(mock(ServerRequest.Headers.class));
+    }
+
     @Test
     void getPublicGallery_ReturnsOkWithModels() {
         SharedModel model1 = new SharedModel();
@@ -49,54 +66,46 @@ class GalleryHandlerTest {
         SharedModel model2 = new SharedModel();
         model2.setId("model2");
 
-        when(galleryService.getPublicGallery())
-                .thenReturn(Flux.just(model1, model2));
+        when(galleryService.getPublicGallery(null, null, null, null))
+                .thenReturn(Mono.just(new GalleryPage(List.of(model1, model2), null)));
 
         StepVerifier.create(galleryHandler.getPublicGallery(request))
                 .assertNext(response -> {
                     assertEquals(HttpStatus.OK, response.statusCode());
                     assertInstanceOf(EntityResponse.class, response);
-
-                    Object body = ((EntityResponse<?>) response).entity();
-                    assertInstanceOf(Publisher.class, body);
+                    assertNull(response.headers().getFirst(GalleryHandler.NEXT_CURSOR_HEADER));
 
                     @SuppressWarnings("unchecked")
-                    Flux<SharedModel> flux = (Flux<SharedModel>) body;
-
-                    StepVerifier.create(flux)
-                            .expectNextMatches(m -> "model1".equals(m.getId()))
-                            .expectNextMatches(m -> "model2".equals(m.getId()))
-                            .verifyComplete();
+                    List<SharedModel> body = (List<SharedModel>) ((EntityResponse<?>) response).entity();
+                    assertEquals(List.of(model1, model2), body);
                 })
                 .verifyComplete();
     }
 
     @Test
-    void getPublicGallery_EmptyGallery_ReturnsOkWithEmptyFlux() {
-        when(galleryService.getPublicGallery())
-                .thenReturn(Flux.empty());
+    void getPublicGallery_ConMasPaginas_DevuelveCabeceraNextCursor() {
+        SharedModel model = new SharedModel();
+        model.setId("model1");
+
+        when(request.queryParam("limit")).thenReturn(Optional.of("1"));
+        when(request.queryParam("cursor")).thenReturn(Optional.of("cursorAnterior"));
+        when(request.queryParam("characterId")).thenReturn(Optional.of("char1"));
+        when(request.queryParam("minScore")).thenReturn(Optional.of("300"));
+        when(galleryService.getPublicGallery(1, "cursorAnterior", "char1", 300))
+                .thenReturn(Mono.just(new GalleryPage(List.of(model), "cursorSiguiente")));
 
         StepVerifier.create(galleryHandler.getPublicGallery(request))
                 .assertNext(response -> {
                     assertEquals(HttpStatus.OK, response.statusCode());
-                    assertInstanceOf(EntityResponse.class, response);
-
-                    Object body = ((EntityResponse<?>) response).entity();
-                    assertInstanceOf(Publisher.class, body);
-
-                    @SuppressWarnings("unchecked")
-                    Flux<SharedModel> flux = (Flux<SharedModel>) body;
-
-                    StepVerifier.create(flux)
-                            .verifyComplete(); // Confirma que está vacío
+                    assertEquals("cursorSiguiente", response.headers().getFirst(GalleryHandler.NEXT_CURSOR_HEADER));
                 })
                 .verifyComplete();
     }
 
     @Test
-    void getPublicGallery_ServiceError_PropagatesErrorFromFlux() {
-        when(galleryService.getPublicGallery())
-                .thenReturn(Flux.error(new RuntimeException("Error interno de la galería")));
+    void getPublicGallery_EmptyGallery_ReturnsOkWithEmptyList() {
+        when(galleryService.getPublicGallery(null, null, null, null))
+                .thenReturn(Mono.just(new GalleryPage(List.of(), null)));
 
         StepVerifier.create(galleryHandler.getPublicGallery(request))
                 .assertNext(response -> {
@@ -104,18 +113,43 @@ class GalleryHandlerTest {
                     assertInstanceOf(EntityResponse.class, response);
 
                     Object body = ((EntityResponse<?>) response).entity();
-                    assertInstanceOf(Publisher.class, body);
+                    assertEquals(List.of(), body);
+                })
+                .verifyComplete();
+    }
 
-                    @SuppressWarnings("unchecked")
-                    Flux<SharedModel> flux = (Flux<SharedModel>) body;
+    @Test
+    void getPublicGallery_ParametrosInvalidos_ReturnsBadRequest() {
+        when(galleryService.getPublicGallery(null, "cursorRoto", null, null))
+                .thenReturn(Mono.error(new IllegalArgumentException("Cursor inválido")));
+        when(request.queryParam("cursor")).thenReturn(Optional.of("cursorRoto"));
 
-                    StepVerifier.create(flux)
-                            .expectErrorMatches(error ->
-                                    error instanceof RuntimeException &&
-                                            error.getMessage().contains("Error interno de la galería"))
-                            .verify();
-                })
+        StepVerifier.create(galleryHandler.getPublicGallery(request))
+                .assertNext(response -> assertEquals(HttpStatus.BAD_REQUEST, response.statusCode()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getPublicGallery_LimitNoNumerico_ReturnsBadRequest() {
+        when(request.queryParam("limit")).thenReturn(Optional.of("abc"));
+
+        StepVerifier.create(galleryHandler.getPublicGallery(request))
+                .assertNext(response -> assertEquals(HttpStatus.BAD_REQUEST, response.statusCode()))
                 .verifyComplete();
+
+        verifyNoInteractions(galleryService);
+    }
+
+    @Test
+    void getPublicGallery_ServiceError_PropagatesError() {
+        when(galleryService.getPublicGallery(null, null, null, null))
+                .thenReturn(Mono.error(new RuntimeException("Error interno de la galería")));
+
+        StepVerifier.create(galleryHandler.getPublicGallery(request))
+                .expectErrorMatches(error ->
+                        error instanceof RuntimeException &&
+                                error.getMessage().contains("Error interno de la galería"))
+                .verify();
     }
 
     @Test
@@ -123,8 +157,8 @@ class GalleryHandlerTest {
         SharedModel model = new SharedModel();
         model.setId("model1");
 
-        when(galleryService.getPublicGallery())
-                .thenReturn(Flux.just(model));
+        when(galleryService.getPublicGallery(null, null, null, null))
+                .thenReturn(Mono.just(new GalleryPage(List.of(model), null)));
 
         StepVerifier.create(galleryHandler.getPublicGallery(request))
                 .assertNext(response -> {
@@ -245,7 +279,7 @@ class GalleryHandlerTest {
     }
 
     @Test
-    void getHighlightedModel_Success_ReturnsOkWithSharedModel() {
+    void getHighlightedModel_Success_ReturnsOkWithSharedModel() throws Exception {
         SharedModel highlighted = new SharedModel();
         highlighted.setId("highlighted123");
         highlighted.setPlayerId("player123");
@@ -253,20 +287,22 @@ class GalleryHandlerTest {
 
         when(galleryService.getHighlightedModel())
                 .thenReturn(Mono.just(highlighted));
+        ServerRequest.Headers headersMock = mock(ServerRequest.Headers.class);
+        when(request.headers()).thenReturn(headersMock);
+        when(headersMock.asHttpHeaders()).thenReturn(new HttpHeaders());
 
-        StepVerifier.create(galleryHandler.getHighlightedModel(request))
-                .assertNext(response -> {
-                    assertEquals(HttpStatus.OK, response.statusCode());
+        ServerResponse response = galleryHandler.getHighlightedModel(request).block();
 
-                    Object body = ((EntityResponse<?>) response).entity();
-                    assertInstanceOf(SharedModel.class, body);
+        assertEquals(HttpStatus.OK, response.statusCode());
+        assertNotNull(response.headers().getETag());
 
-                    SharedModel result = (SharedModel) body;
-                    assertEquals("highlighted123", result.getId());
-                    assertEquals("player123", result.getPlayerId());
-                    assertEquals("char456", result.getCharacterId());
-                })
-                .verifyComplete();
+        Object body = ((EntityResponse<?>) response).entity();
+        assertInstanceOf(byte[].class, body);
+
+        SharedModel result = Jackson2ObjectMapperBuilder.json().build().readValue((byte[]) body, SharedModel.class);
+        assertEquals("highlighted123", result.getId());
+        assertEquals("player123", result.getPlayerId());
+        assertEquals("char456", result.getCharacterId());
     }
 
     @Test
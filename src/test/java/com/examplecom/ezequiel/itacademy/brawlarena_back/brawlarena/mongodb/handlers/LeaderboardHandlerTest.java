@@ -0,0 +1,90 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.BuildNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.LeaderboardEntry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.LeaderboardService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.reactive.function.server.EntityResponse;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardHandlerTest {
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private ServerRequest request;
+
+    @InjectMocks
+    private LeaderboardHandler leaderboardHandler;
+
+    @Test
+    void getLeaderboard_conLimite_retornaOk() {
+        List<LeaderboardEntry> top = List.of(new LeaderboardEntry(1, "ana", 900));
+
+        when(request.pathVariable("characterId")).thenReturn("char1");
+        when(request.queryParam("limit")).thenReturn(Optional.of("5"));
+        when(leaderboardService.getTop("char1", 5)).thenReturn(Mono.just(top));
+
+        StepVerifier.create(leaderboardHandler.getLeaderboard(request))
+                .assertNext(res -> {
+                    assertEquals(HttpStatus.OK, res.statusCode());
+                    assertEquals(top, ((EntityResponse<?>) res).entity());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getLeaderboard_limiteNoNumerico_retornaBadRequest() {
+        when(request.pathVariable("characterId")).thenReturn("char1");
+        when(request.queryParam("limit")).thenReturn(Optional.of("diez"));
+
+        StepVerifier.create(leaderboardHandler.getLeaderboard(request))
+                .assertNext(res -> assertEquals(HttpStatus.BAD_REQUEST, res.statusCode()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getMyRank_sinPuntuacion_retornaNotFound() {
+        Authentication auth = new UsernamePasswordAuthenticationToken("ana", "");
+
+        when(request.pathVariable("characterId")).thenReturn("char1");
+        when(request.principal()).thenAnswer(inv -> Mono.just(auth));
+        when(leaderboardService.getPlayerRank("char1", "ana"))
+                .thenReturn(Mono.error(new BuildNotFoundException("Todavía no tienes ningún montaje válido para este personaje")));
+
+        StepVerifier.create(leaderboardHandler.getMyRank(request))
+                .assertNext(res -> assertEquals(HttpStatus.NOT_FOUND, res.statusCode()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getMyRank_conPuntuacion_retornaOk() {
+        Authentication auth = new UsernamePasswordAuthenticationToken("ana", "");
+        LeaderboardEntry rank = new LeaderboardEntry(3, "ana", 500);
+
+        when(request.pathVariable("characterId")).thenReturn("char1");
+        when(request.principal()).thenAnswer(inv -> Mono.just(auth));
+        when(leaderboardService.getPlayerRank("char1", "ana")).thenReturn(Mono.just(rank));
+
+        StepVerifier.create(leaderboardHandler.getMyRank(request))
+                .assertNext(res -> assertEquals(rank, ((EntityResponse<?>) res).entity()))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,61 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.PowerMasteryResponse;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.PowerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.reactive.function.server.EntityResponse;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PowerHandlerTest {
+
+    @Mock
+    private PowerService powerService;
+
+    @Mock
+    private ServerRequest request;
+
+    @InjectMocks
+    private PowerHandler powerHandler;
+
+    @Test
+    void getPowerMastery_usuarioAutenticado_retornaOk() {
+        Authentication auth = new UsernamePasswordAuthenticationToken("player1", "");
+        PowerMasteryResponse mastery = new PowerMasteryResponse("player1", Map.of(Power.AIR_JUMP, 66));
+
+        when(request.principal()).thenAnswer(inv -> Mono.just(auth));
+        when(powerService.getPowerMastery("player1")).thenReturn(Mono.just(mastery));
+
+        StepVerifier.create(powerHandler.getPowerMastery(request))
+                .assertNext(res -> {
+                    assertEquals(HttpStatus.OK, res.statusCode());
+                    assertEquals(mastery, ((EntityResponse<?>) res).entity());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getPowerMastery_sinAutenticacion_lanzaUserNotFoundException() {
+        when(request.principal()).thenReturn(Mono.empty());
+
+        StepVerifier.create(powerHandler.getPowerMastery(request))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+}
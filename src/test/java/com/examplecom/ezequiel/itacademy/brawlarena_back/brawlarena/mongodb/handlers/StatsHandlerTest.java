@@ -0,0 +1,59 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.handlers;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterStatsResponse;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.PercentileSummary;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service.CharacterStatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.EntityResponse;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatsHandlerTest {
+
+    @Mock
+    private CharacterStatsService characterStatsService;
+
+    @Mock
+    private ServerRequest request;
+
+    @InjectMocks
+    private StatsHandler statsHandler;
+
+    @Test
+    void getCharacterStats_personajeExistente_retornaOk() {
+        PercentileSummary summary = new PercentileSummary(3, 100, 200, 300, 300, 300);
+        CharacterStatsResponse stats = new CharacterStatsResponse("char1", summary, summary);
+
+        when(request.pathVariable("characterId")).thenReturn("char1");
+        when(characterStatsService.getCharacterStats("char1")).thenReturn(Mono.just(stats));
+
+        StepVerifier.create(statsHandler.getCharacterStats(request))
+                .assertNext(res -> {
+                    assertEquals(HttpStatus.OK, res.statusCode());
+                    assertEquals(stats, ((EntityResponse<?>) res).entity());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getCharacterStats_personajeInexistente_retornaNotFound() {
+        when(request.pathVariable("characterId")).thenReturn("char404");
+        when(characterStatsService.getCharacterStats("char404"))
+                .thenReturn(Mono.error(new CharacterNotFoundException("Personaje no encontrado")));
+
+        StepVerifier.create(statsHandler.getCharacterStats(request))
+                .assertNext(res -> assertEquals(HttpStatus.NOT_FOUND, res.statusCode()))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,86 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.LeaderboardEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CharacterLeaderboardTest {
+
+    private CharacterLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new CharacterLeaderboard();
+    }
+
+    @Test
+    void top_ordenaPorPuntuacionDescendenteYCompartePosicionEnEmpates() {
+        leaderboard.record("ana", 500);
+        leaderboard.record("bea", 900);
+        leaderboard.record("carlos", 500);
+        leaderboard.record("dani", 100);
+
+        assertEquals(List.of(
+                new LeaderboardEntry(1, "bea", 900),
+                new LeaderboardEntry(2, "ana", 500),
+                new LeaderboardEntry(2, "carlos", 500),
+                new LeaderboardEntry(4, "dani", 100)
+        ), leaderboard.top(10));
+        assertEquals(2, leaderboard.top(2).size());
+    }
+
+    @Test
+    void record_soloConservaLaMejorPuntuacionDelJugador() {
+        assertTrue(leaderboard.record("ana", 500));
+        assertFalse(leaderboard.record("ana", 300));
+        assertTrue(leaderboard.record("ana", 800));
+
+        assertEquals(1, leaderboard.size());
+        assertEquals(new LeaderboardEntry(1, "ana", 800), leaderboard.rankOf("ana").orElseThrow());
+    }
+
+    @Test
+    void rankOf_cuentaJugadoresConPuntuacionMayor() {
+        leaderboard.record("ana", 500);
+        leaderboard.record("bea", 900);
+        leaderboard.record("carlos", 500);
+        leaderboard.record("dani", 100);
+
+        assertEquals(1, leaderboard.rankOf("bea").orElseThrow().rank());
+        assertEquals(2, leaderboard.rankOf("carlos").orElseThrow().rank());
+        assertEquals(4, leaderboard.rankOf("dani").orElseThrow().rank());
+
+        // Al mejorar, dani adelanta a los demás y el resto baja un puesto
+        leaderboard.record("dani", 1000);
+        assertEquals(1, leaderboard.rankOf("dani").orElseThrow().rank());
+        assertEquals(2, leaderboard.rankOf("bea").orElseThrow().rank());
+        assertEquals(3, leaderboard.rankOf("ana").orElseThrow().rank());
+    }
+
+    @Test
+    void rankOf_jugadorSinPuntuacion_devuelveVacio() {
+        assertTrue(leaderboard.rankOf("nadie").isEmpty());
+    }
+
+    @Test
+    void record_puntuacionMayorQueLaCapacidad_ampliaElArbolSinPerderConteos() {
+        leaderboard.record("ana", 100);
+        leaderboard.record("bea", 3000);
+        leaderboard.record("carlos", 50_000);
+
+        assertEquals(1, leaderboard.rankOf("carlos").orElseThrow().rank());
+        assertEquals(2, leaderboard.rankOf("bea").orElseThrow().rank());
+        assertEquals(3, leaderboard.rankOf("ana").orElseThrow().rank());
+    }
+
+    @Test
+    void record_puntuacionNegativa_seGuardaComoCero() {
+        leaderboard.record("ana", -20);
+
+        assertEquals(0, leaderboard.rankOf("ana").orElseThrow().score());
+    }
+}
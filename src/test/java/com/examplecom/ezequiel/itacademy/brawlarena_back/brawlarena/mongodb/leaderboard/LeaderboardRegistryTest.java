@@ -0,0 +1,73 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardRegistryTest {
+
+    @Mock
+    private BuildRepository buildRepository;
+
+    private LeaderboardRegistry leaderboardRegistry;
+
+    @BeforeEach
+    void setUp() {
+        leaderboardRegistry = new LeaderboardRegistry(buildRepository, false);
+    }
+
+    // Helper
+    private Build createBuild(String playerId, int score) {
+        Build build = new Build();
+        build.setPlayerId(playerId);
+        build.setCharacterId("char1");
+        build.setScore(score);
+        return build;
+    }
+
+    @Test
+    void reload_validacionDuranteLaCarga_seConservaTrasElCambio() {
+        Sinks.Many<Build> builds = Sinks.many().unicast().onBackpressureBuffer();
+        when(buildRepository.findValidBuildSummaries(any(Sort.class))).thenReturn(builds.asFlux());
+
+        StepVerifier.create(leaderboardRegistry.reload())
+                .then(() -> {
+                    builds.tryEmitNext(createBuild("ana", 500));
+                    // La consulta ya ha pasado por donde estaría el build de luis
+                    leaderboardRegistry.record("char1", "luis", 800);
+                    builds.tryEmitComplete();
+                })
+                .expectNext(1L)
+                .verifyComplete();
+
+        assertEquals(2, leaderboardRegistry.size("char1"));
+        assertEquals(1, leaderboardRegistry.rankOf("char1", "luis").orElseThrow().rank());
+    }
+
+    @Test
+    void reload_sustituyePuntuacionesAnteriores() {
+        leaderboardRegistry.record("char1", "ana", 900);
+        Sinks.Many<Build> builds = Sinks.many().unicast().onBackpressureBuffer();
+        builds.tryEmitNext(createBuild("ana", 400));
+        builds.tryEmitComplete();
+        when(buildRepository.findValidBuildSummaries(any(Sort.class))).thenReturn(builds.asFlux());
+
+        StepVerifier.create(leaderboardRegistry.reload())
+                .expectNext(1L)
+                .verifyComplete();
+
+        assertEquals(400, leaderboardRegistry.rankOf("char1", "ana").orElseThrow().score());
+    }
+}
@@ -0,0 +1,235 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.maintenance;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreCalculator;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreRules;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.RescoringProgress;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.RescoringCheckpoint;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard.LeaderboardRegistry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PlayerStatsRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.RescoringCheckpointRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.stats.CharacterStatsRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BuildRescoringJobTest {
+
+    @Mock
+    private BuildRepository buildRepository;
+
+    @Mock
+    private RescoringCheckpointRepository checkpointRepository;
+
+    @Mock
+    private CharacterRepository characterRepository;
+
+    @Mock
+    private PlayerStatsRepository playerStatsRepository;
+
+    @Mock
+    private CharacterStatsRegistry characterStatsRegistry;
+
+    private BuildRescoringJob job;
+
+    @BeforeEach
+    void setUp() {
+        CharacterCatalog characterCatalog = new CharacterCatalog(characterRepository, new SimpleMeterRegistry(), 256, Duration.ofMinutes(30));
+        job = new BuildRescoringJob(buildRepository, checkpointRepository, characterCatalog,
+                new ScoreCalculator(ScoreRules.defaults()), new LeaderboardRegistry(buildRepository, false),
+                playerStatsRepository, characterStatsRegistry, 2, 2);
+    }
+
+    // Helper
+    private void mockRefrescoDerivados() {
+        when(buildRepository.findValidBuildSummaries(any(Sort.class))).thenReturn(Flux.empty());
+        when(playerStatsRepository.rebuildScores()).thenReturn(Mono.just(0L));
+        when(characterStatsRegistry.rebuild()).thenReturn(Mono.empty());
+    }
+
+    // Helper
+    private Build createBuild(String id, String characterId, int score) {
+        Build build = new Build();
+        build.setId(id);
+        build.setPlayerId("ana");
+        build.setCharacterId(characterId);
+        build.setPiecesPlaced(List.of("p1"));
+        build.setDuration(120);
+        build.setScore(score);
+        build.setValid(true);
+        return build;
+    }
+
+    // Helper
+    private Character createCharacter() {
+        Piece piece = new Piece();
+        piece.setId("p1");
+        piece.setLevel(1);
+        piece.setPower(Power.AIR_JUMP);
+
+        Character character = new Character();
+        character.setId("char1");
+        character.setPieces(List.of(piece));
+        return character;
+    }
+
+    @Test
+    void run_recorreTodosLosTramosYSoloEscribeLosCambios() {
+        when(buildRepository.findValidChunkAfter(isNull(), eq(2)))
+                .thenReturn(Flux.just(createBuild("b1", "char1", 0), createBuild("b2", "char1", 450)));
+        when(buildRepository.findValidChunkAfter("b2", 2)).thenReturn(Flux.just(createBuild("b3", "borrado", 100)));
+        when(buildRepository.findFirstValidBuildIds(anyCollection())).thenReturn(Mono.just(Set.of("b1")));
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(createCharacter()));
+        when(characterRepository.findById("borrado")).thenReturn(Mono.empty());
+        when(buildRepository.updateScores(anyMap())).thenAnswer(inv -> Mono.just((long) ((Map<?, ?>) inv.getArgument(0)).size()));
+        when(checkpointRepository.save(any(RescoringCheckpoint.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        mockRefrescoDerivados();
+
+        StepVerifier.create(job.run(false))
+                .assertNext(progress -> {
+                    assertEquals(BuildRescoringJob.COMPLETED, progress.state());
+                    assertEquals(3, progress.processed());
+                    assertEquals(1, progress.changed());
+                    assertEquals(1, progress.skipped());
+                    assertEquals("b3", progress.lastBuildId());
+                })
+                .verifyComplete();
+
+        // b1 fue la primera validación: 50 + 100 (sin errores) + 300 (base) + 200 (primera vez)
+        verify(buildRepository).updateScores(Map.of("b1", 650));
+        verify(buildRepository).updateScores(Map.of());
+        verify(buildRepository).findValidBuildSummaries(any(Sort.class));
+        verify(playerStatsRepository).rebuildScores();
+        verify(characterStatsRegistry).rebuild();
+        assertEquals(BuildRescoringJob.COMPLETED, job.status().state());
+    }
+
+    @Test
+    void run_reanudar_continuaDesdeElCheckpoint() {
+        RescoringCheckpoint checkpoint = new RescoringCheckpoint("builds", "b2", 7, ScoreRules.defaults().fingerprint(), 2, 1, 0,
+                BuildRescoringJob.CANCELLED, Instant.now(), Instant.now());
+
+        when(checkpointRepository.findById("builds")).thenReturn(Mono.just(checkpoint));
+        when(buildRepository.findValidChunkAfter("b2", 2)).thenReturn(Flux.empty());
+        when(checkpointRepository.save(any(RescoringCheckpoint.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        mockRefrescoDerivados();
+
+        StepVerifier.create(job.run(true))
+                .assertNext(progress -> {
+                    assertEquals(BuildRescoringJob.COMPLETED, progress.state());
+                    assertEquals(2, progress.processed());
+                    assertEquals(1, progress.changed());
+                })
+                .verifyComplete();
+
+        verify(buildRepository, never()).findValidChunkAfter(isNull(), anyInt());
+    }
+
+    @Test
+    void run_reanudarConOtrasReglas_empiezaDesdeElPrincipio() {
+        RescoringCheckpoint checkpoint = new RescoringCheckpoint("builds", "b2", 0, "reglas-anteriores", 2, 1, 0,
+                BuildRescoringJob.CANCELLED, Instant.now(), Instant.now());
+
+        when(checkpointRepository.findById("builds")).thenReturn(Mono.just(checkpoint));
+        when(buildRepository.findValidChunkAfter(isNull(), eq(2))).thenReturn(Flux.empty());
+        when(checkpointRepository.save(any(RescoringCheckpoint.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        mockRefrescoDerivados();
+
+        StepVerifier.create(job.run(true))
+                .assertNext(progress -> {
+                    assertEquals(BuildRescoringJob.COMPLETED, progress.state());
+                    assertEquals(0, progress.processed());
+                })
+                .verifyComplete();
+
+        verify(buildRepository, never()).findValidChunkAfter(eq("b2"), anyInt());
+        verify(checkpointRepository).save(argThat(saved -> ScoreRules.defaults().fingerprint().equals(saved.getRulesHash())));
+    }
+
+    @Test
+    void run_errorAlEscribir_guardaElCheckpointComoFallidoSinAvanzar() {
+        when(buildRepository.findValidChunkAfter(isNull(), eq(2))).thenReturn(Flux.just(createBuild("b1", "char1", 0)));
+        when(buildRepository.findFirstValidBuildIds(anyCollection())).thenReturn(Mono.just(Set.of()));
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(createCharacter()));
+        when(buildRepository.updateScores(anyMap())).thenReturn(Mono.error(new RuntimeException("Error en MongoDB")));
+        when(checkpointRepository.save(any(RescoringCheckpoint.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(job.run(false))
+                .expectErrorMessage("Error en MongoDB")
+                .verify();
+
+        RescoringProgress progress = job.status();
+        assertEquals(BuildRescoringJob.FAILED, progress.state());
+        assertEquals("Error en MongoDB", progress.error());
+        verify(checkpointRepository).save(argThat(saved -> BuildRescoringJob.FAILED.equals(saved.getState())
+                && saved.getLastBuildId() == null && saved.getProcessed() == 0));
+        verify(characterStatsRegistry, never()).rebuild();
+    }
+
+    @Test
+    void run_cancelado_terminaElTramoYGuardaElCheckpointComoCancelado() {
+        when(buildRepository.findValidChunkAfter(isNull(), eq(2)))
+                .thenReturn(Flux.just(createBuild("b1", "char1", 650), createBuild("b2", "char1", 450)));
+        when(buildRepository.findFirstValidBuildIds(anyCollection())).thenReturn(Mono.just(Set.of("b1")));
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(createCharacter()));
+        when(buildRepository.updateScores(anyMap())).thenAnswer(inv -> {
+            job.cancel();
+            return Mono.just(0L);
+        });
+        when(checkpointRepository.save(any(RescoringCheckpoint.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        mockRefrescoDerivados();
+
+        StepVerifier.create(job.run(false))
+                .assertNext(progress -> {
+                    assertEquals(BuildRescoringJob.CANCELLED, progress.state());
+                    assertEquals(2, progress.processed());
+                    assertEquals("b2", progress.lastBuildId());
+                })
+                .verifyComplete();
+
+        verify(buildRepository, never()).findValidChunkAfter(eq("b2"), anyInt());
+        verify(checkpointRepository).save(argThat(saved -> BuildRescoringJob.CANCELLED.equals(saved.getState())));
+        verify(characterStatsRegistry).rebuild();
+        assertEquals(BuildRescoringJob.CANCELLED, job.status().state());
+    }
+
+    @Test
+    void start_conEjecucionEnCurso_lanzaIllegalStateExceptionYSePuedeCancelar() {
+        when(buildRepository.findValidChunkAfter(isNull(), eq(2))).thenReturn(Flux.never());
+
+        assertEquals(BuildRescoringJob.RUNNING, job.start(false).state());
+        assertThrows(IllegalStateException.class, () -> job.start(false));
+
+        assertEquals(BuildRescoringJob.CANCELLED, job.cancel().state());
+        assertEquals(BuildRescoringJob.CANCELLED, job.status().state());
+    }
+}
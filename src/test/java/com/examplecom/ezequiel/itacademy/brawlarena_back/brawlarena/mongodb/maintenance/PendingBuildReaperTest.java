@@ -0,0 +1,104 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.maintenance;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingBuildReaperTest {
+
+    @Mock
+    private BuildRepository buildRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private PendingBuildReaper reaper(int batchSize, int maxBatches) {
+        return new PendingBuildReaper(buildRepository, meterRegistry, true, Duration.ofHours(24), batchSize, maxBatches);
+    }
+
+    @Test
+    void reap_borraPorLotesHastaQueUnLoteVieneIncompleto() {
+        when(buildRepository.deletePendingCreatedBefore(any(Instant.class), eq(100)))
+                .thenReturn(Mono.just(100L), Mono.just(100L), Mono.just(30L));
+
+        StepVerifier.create(reaper(100, 20).reap())
+                .expectNext(230L)
+                .verifyComplete();
+
+        verify(buildRepository, times(3)).deletePendingCreatedBefore(any(Instant.class), eq(100));
+        assertEquals(230.0, meterRegistry.counter("builds.pending.reaper.deleted").count());
+    }
+
+    @Test
+    void reap_respetaElMaximoDeLotesPorPasada() {
+        when(buildRepository.deletePendingCreatedBefore(any(Instant.class), eq(10))).thenReturn(Mono.just(10L));
+
+        StepVerifier.create(reaper(10, 3).reap())
+                .expectNext(30L)
+                .verifyComplete();
+
+        verify(buildRepository, times(3)).deletePendingCreatedBefore(any(Instant.class), eq(10));
+    }
+
+    @Test
+    void reap_usaLaEdadMaximaConfigurada() {
+        when(buildRepository.deletePendingCreatedBefore(any(Instant.class), eq(100))).thenReturn(Mono.just(0L));
+
+        Instant antes = Instant.now().minus(Duration.ofHours(24));
+        StepVerifier.create(reaper(100, 20).reap())
+                .expectNext(0L)
+                .verifyComplete();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(buildRepository).deletePendingCreatedBefore(cutoff.capture(), eq(100));
+        assertFalse(cutoff.getValue().isBefore(antes));
+        assertTrue(cutoff.getValue().isBefore(Instant.now().minus(Duration.ofHours(23))));
+    }
+
+    @Test
+    void reap_errorEnMongo_cuentaElFallo() {
+        when(buildRepository.deletePendingCreatedBefore(any(Instant.class), eq(100)))
+                .thenReturn(Mono.error(new RuntimeException("Error en MongoDB")));
+
+        StepVerifier.create(reaper(100, 20).reap())
+                .expectErrorMessage("Error en MongoDB")
+                .verify();
+
+        assertEquals(1.0, meterRegistry.counter("builds.pending.reaper.failures").count());
+        assertEquals(1, meterRegistry.timer("builds.pending.reaper.runs").count());
+    }
+
+    @Test
+    void scheduledReap_desactivado_noConsultaMongo() {
+        new PendingBuildReaper(buildRepository, meterRegistry, false, Duration.ofHours(24), 100, 20).scheduledReap();
+
+        verifyNoInteractions(buildRepository);
+    }
+
+    @Test
+    void constructor_configuracionInvalida_lanzaIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> reaper(0, 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PendingBuildReaper(buildRepository, meterRegistry, true, Duration.ZERO, 100, 20));
+    }
+}
@@ -0,0 +1,181 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.persistence;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BuildWriteBufferTest {
+
+    @Mock
+    private BuildRepository buildRepository;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoConverter converter;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    // Helpers
+    private BuildWriteBuffer buffer(int maxBatchSize, int capacity) {
+        // max-delay largo: en los tests los lotes se envían al llenarse
+        return new BuildWriteBuffer(buildRepository, mongoTemplate, meterRegistry, true, maxBatchSize, Duration.ofHours(1), capacity);
+    }
+
+    private void stubMongo() {
+        lenient().when(mongoTemplate.getConverter()).thenReturn(converter);
+        lenient().doAnswer(inv -> {
+            ((Document) inv.getArgument(1)).put("_id", ((Build) inv.getArgument(0)).getId());
+            return null;
+        }).when(converter).write(any(), any(Document.class));
+        lenient().when(mongoTemplate.getCollectionName(Build.class)).thenReturn("builds");
+        lenient().when(mongoTemplate.getCollection("builds")).thenReturn(Mono.just(collection));
+    }
+
+    private Build createBuild(String characterId) {
+        Build build = new Build();
+        build.setPlayerId("ana");
+        build.setCharacterId(characterId);
+        return build;
+    }
+
+    @Test
+    void save_desactivado_delegaEnElRepositorio() {
+        Build build = createBuild("char1");
+        when(buildRepository.save(build)).thenReturn(Mono.just(build));
+        BuildWriteBuffer desactivado = new BuildWriteBuffer(buildRepository, mongoTemplate, meterRegistry, false, 500, Duration.ofMillis(20), 10000);
+
+        StepVerifier.create(desactivado.save(build))
+                .expectNext(build)
+                .verifyComplete();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void save_loteLleno_seEnviaConUnSoloBulkWrite() {
+        stubMongo();
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(Mono.just(mock(BulkWriteResult.class)));
+        BuildWriteBuffer writeBuffer = buffer(2, 10);
+
+        Mono<Build> primero = writeBuffer.save(createBuild("char1"));
+        Mono<Build> segundo = writeBuffer.save(createBuild("char2"));
+
+        StepVerifier.create(Mono.zip(primero, segundo))
+                .assertNext(tuple -> {
+                    assertNotNull(tuple.getT1().getId());
+                    assertNotNull(tuple.getT2().getId());
+                    assertNotEquals(tuple.getT1().getId(), tuple.getT2().getId());
+                })
+                .verifyComplete();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WriteModel<Document>>> modelos = ArgumentCaptor.forClass(List.class);
+        verify(collection, times(1)).bulkWrite(modelos.capture(), any(BulkWriteOptions.class));
+        assertEquals(2, modelos.getValue().size());
+        assertEquals(1.0, meterRegistry.counter("builds.write_behind.batches").count());
+        verify(buildRepository, never()).save(any(Build.class));
+    }
+
+    @Test
+    void save_mismoBuildDosVecesEnElLote_seEscribeUnaSolaVez() {
+        stubMongo();
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(Mono.just(mock(BulkWriteResult.class)));
+        BuildWriteBuffer writeBuffer = buffer(2, 10);
+        Build build = createBuild("char1");
+        build.setId("build1");
+
+        Mono<Build> inicio = writeBuffer.save(build);
+        Mono<Build> validacion = writeBuffer.save(build);
+
+        StepVerifier.create(Mono.zip(inicio, validacion)).expectNextCount(1).verifyComplete();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WriteModel<Document>>> modelos = ArgumentCaptor.forClass(List.class);
+        verify(collection).bulkWrite(modelos.capture(), any(BulkWriteOptions.class));
+        assertEquals(1, modelos.getValue().size());
+    }
+
+    @Test
+    void save_colaLlena_rechazaCon503() {
+        stubMongo();
+        // El primer lote no termina nunca: la cola no se vacía
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(Mono.never());
+        BuildWriteBuffer writeBuffer = buffer(1, 1);
+
+        writeBuffer.save(createBuild("char1")).subscribe();
+        writeBuffer.save(createBuild("char2")).subscribe();
+
+        StepVerifier.create(writeBuffer.save(createBuild("char3")))
+                .expectErrorSatisfies(error -> {
+                    assertInstanceOf(ResponseStatusException.class, error);
+                    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((ResponseStatusException) error).getStatusCode());
+                })
+                .verify();
+
+        assertEquals(1, writeBuffer.pending());
+        assertEquals(1.0, meterRegistry.counter("builds.write_behind.rejected").count());
+    }
+
+    @Test
+    void save_errorEnMongo_loPropagaATodoElLote() {
+        stubMongo();
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(Mono.error(new IllegalStateException("Error en MongoDB")));
+        BuildWriteBuffer writeBuffer = buffer(1, 10);
+
+        StepVerifier.create(writeBuffer.save(createBuild("char1")))
+                .expectErrorMessage("Error en MongoDB")
+                .verify();
+    }
+
+    @Test
+    void flushOnShutdown_enviaLoPendiente() {
+        stubMongo();
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(Mono.just(mock(BulkWriteResult.class)));
+        BuildWriteBuffer writeBuffer = buffer(10, 100);
+
+        Mono<Build> pendiente = writeBuffer.save(createBuild("char1"));
+        pendiente.subscribe();
+        assertEquals(1, writeBuffer.pending());
+
+        writeBuffer.flushOnShutdown();
+
+        assertEquals(0, writeBuffer.pending());
+        verify(collection).bulkWrite(anyList(), any(BulkWriteOptions.class));
+    }
+}
@@ -1,19 +1,36 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreCalculator;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.logic.ScoreRules;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.validator.BuildValidator;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.*;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.BuildBatchResult;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard.LeaderboardRegistry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.persistence.BuildWriteBuffer;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterHistogramRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.stats.CharacterStatsRegistry;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PlayerStatsRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PowerMasteryRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserCharacterRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.RequestPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -24,10 +41,19 @@ import static org.mockito.Mockito.any;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.mongodb.internal.connection.tlschannel.util.Util.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -43,8 +69,31 @@ class BuildServiceImplTest {
     @Mock
     private CharacterRepository characterRepository;
 
-    @InjectMocks
+    @Mock
+    private UserCharacterRepository userCharacterRepository;
+
+    @Mock
+    private PlayerStatsRepository playerStatsRepository;
+
+    @Mock
+    private PowerMasteryRepository powerMasteryRepository;
+
+    @Mock
+    private CharacterHistogramRepository characterHistogramRepository;
+
     private BuildServiceImpl buildService;
+    private LeaderboardRegistry leaderboardRegistry;
+    private CharacterStatsRegistry characterStatsRegistry;
+
+    @BeforeEach
+    void setUp() {
+        CharacterCatalog characterCatalog = new CharacterCatalog(characterRepository, new SimpleMeterRegistry(), 256, Duration.ofMinutes(30));
+        leaderboardRegistry = new LeaderboardRegistry(buildRepository, false);
+        characterStatsRegistry = new CharacterStatsRegistry(characterHistogramRepository, buildRepository, false);
+        buildService = new BuildServiceImpl(new UserCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)), userCharacterRepository, buildRepository, characterCatalog, new ScoreCalculator(ScoreRules.defaults()), playerStatsRepository, powerMasteryRepository, leaderboardRegistry,
+                characterStatsRegistry,
+                new BuildWriteBuffer(buildRepository, null, new SimpleMeterRegistry(), false, 500, Duration.ofMillis(20), 10000));
+    }
 
     // Helper
     private Character createTestCharacter(String id) {
@@ -75,15 +124,16 @@ class BuildServiceImplTest {
 
         User mockUser = User.builder()
                 .nickname("player1")
-                .characterIds("[\"char1\"]")
+                .id(1L)
                 .build();
 
         when(userRepository.findByNickname("player1")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char1")).thenReturn(Mono.just(true));
 
         Character character = createTestCharacter("char1");
         when(characterRepository.findById("char1")).thenReturn(Mono.just(character));
 
-        when(buildRepository.findAll()).thenReturn(Flux.empty());
+        when(buildRepository.existsByPlayerIdAndCharacterIdAndValidFalse("player1", "char1")).thenReturn(Mono.just(false));
         when(buildRepository.save(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
 
         StepVerifier.create(buildService.startBuild("player1", "char1"))
@@ -95,19 +145,39 @@ class BuildServiceImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    void startBuild_desbloqueadosEnLaPeticion_noConsultaUserCharacters() {
+        User mockUser = User.builder()
+                .nickname("player1")
+                .id(1L)
+                .build();
+        RequestPrincipal principal = new RequestPrincipal("player1", Mono.just(mockUser), user -> Mono.just(Set.of("char1")));
+
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(createTestCharacter("char1")));
+        when(buildRepository.existsByPlayerIdAndCharacterIdAndValidFalse("player1", "char1")).thenReturn(Mono.just(false));
+        when(buildRepository.save(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(buildService.startBuild("player1", "char1").contextWrite(principal::putIn))
+                .expectNextMatches(build -> build.getCharacterId().equals("char1") && !build.isValid())
+                .verifyComplete();
+
+        verify(userCharacterRepository, never()).existsByUserIdAndCharacterId(anyLong(), anyString());
+        verify(userRepository, never()).findByNickname(anyString());
+    }
+
     @Test
     void startBuild_conBuildExistenteNoValidado_lanzaExcepcion() {
         Character character = createTestCharacter("char1");
-        Build existingBuild = createTestBuild("player1", "char1", false);
 
         User user = User.builder()
                 .nickname("player1")
-                .characterIds("[\"char1\"]")
+                .id(1L)
                 .build();
 
         when(userRepository.findByNickname("player1")).thenReturn(Mono.just(user));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char1")).thenReturn(Mono.just(true));
         when(characterRepository.findById("char1")).thenReturn(Mono.just(character));
-        when(buildRepository.findAll()).thenReturn(Flux.just(existingBuild));
+        when(buildRepository.existsByPlayerIdAndCharacterIdAndValidFalse("player1", "char1")).thenReturn(Mono.just(true));
 
         StepVerifier.create(buildService.startBuild("player1", "char1"))
                 .expectErrorMatches(ex ->
@@ -141,7 +211,7 @@ class BuildServiceImplTest {
 
         User mockUser = User.builder()
                 .nickname(playerId)
-                .characterIds("[\"charInexistente\"]")
+                .id(1L)
                 .build();
 
         when(userRepository.findByNickname(playerId))
@@ -164,7 +234,7 @@ class BuildServiceImplTest {
 
         User mockUser = User.builder()
                 .nickname(playerId)
-                .characterIds("[\"otroPersonaje\"]")
+                .id(1L)
                 .build();
 
         Character mockCharacter = new Character();
@@ -172,6 +242,7 @@ class BuildServiceImplTest {
 
         when(userRepository.findByNickname(playerId))
                 .thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, characterId)).thenReturn(Mono.just(false));
 
         when(characterRepository.findById(characterId))
                 .thenReturn(Mono.just(mockCharacter));
@@ -208,7 +279,7 @@ class BuildServiceImplTest {
 
         User mockUser = User.builder()
                 .nickname(playerId)
-                .characterIds("[\"char1\"]")
+                .id(1L)
                 .build();
 
         when(userRepository.findByNickname(playerId))
@@ -231,7 +302,7 @@ class BuildServiceImplTest {
 
         User mockUser = User.builder()
                 .nickname(playerId)
-                .characterIds("[\"char1\"]")
+                .id(1L)
                 .build();
 
         Character mockCharacter = new Character();
@@ -239,12 +310,13 @@ class BuildServiceImplTest {
 
         when(userRepository.findByNickname(playerId))
                 .thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, characterId)).thenReturn(Mono.just(true));
 
         when(characterRepository.findById(characterId))
                 .thenReturn(Mono.just(mockCharacter));
 
-        when(buildRepository.findAll())
-                .thenReturn(Flux.error(new RuntimeException("Error al consultar builds")));
+        when(buildRepository.existsByPlayerIdAndCharacterIdAndValidFalse(playerId, characterId))
+                .thenReturn(Mono.error(new RuntimeException("Error al consultar builds")));
 
         StepVerifier.create(buildService.startBuild(playerId, characterId))
                 .expectErrorMatches(error ->
@@ -260,7 +332,7 @@ class BuildServiceImplTest {
 
         User mockUser = User.builder()
                 .nickname(playerId)
-                .characterIds("[\"char1\"]")
+                .id(1L)
                 .build();
 
         Character mockCharacter = new Character();
@@ -268,12 +340,13 @@ class BuildServiceImplTest {
 
         when(userRepository.findByNickname(playerId))
                 .thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, characterId)).thenReturn(Mono.just(true));
 
         when(characterRepository.findById(characterId))
                 .thenReturn(Mono.just(mockCharacter));
 
-        when(buildRepository.findAll())
-                .thenReturn(Flux.empty());
+        when(buildRepository.existsByPlayerIdAndCharacterIdAndValidFalse(playerId, characterId))
+                .thenReturn(Mono.just(false));
 
         when(buildRepository.save(any(Build.class)))
                 .thenReturn(Mono.error(new RuntimeException("Error al guardar build")));
@@ -285,6 +358,36 @@ class BuildServiceImplTest {
                 .verify();
     }
 
+    @Test
+    void startBuild_carreraConIndiceUnico_lanzaBuildAlreadyExistsException() {
+        String playerId = "player1";
+        String characterId = "char1";
+
+        User mockUser = User.builder()
+                .nickname(playerId)
+                .id(1L)
+                .build();
+
+        when(userRepository.findByNickname(playerId))
+                .thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, characterId)).thenReturn(Mono.just(true));
+
+        when(characterRepository.findById(characterId))
+                .thenReturn(Mono.just(createTestCharacter(characterId)));
+
+        when(buildRepository.existsByPlayerIdAndCharacterIdAndValidFalse(playerId, characterId))
+                .thenReturn(Mono.just(false));
+
+        when(buildRepository.save(any(Build.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+
+        StepVerifier.create(buildService.startBuild(playerId, characterId))
+                .expectErrorMatches(error ->
+                        error instanceof BuildAlreadyExistsException &&
+                                error.getMessage().equals("Ya tienes un build activo para este personaje"))
+                .verify();
+    }
+
     @Test
     void validateBuildData_conPiezasNull_lanzaExcepcion() {
         Build build = new Build();
@@ -319,7 +422,7 @@ class BuildServiceImplTest {
 
         User mockUser = new User();
         mockUser.setNickname("player123");
-        mockUser.setCharacterIds("[\"char123\"]");
+        mockUser.setId(1L);
 
         Build existingBuild = new Build();
         existingBuild.setId("build123");
@@ -329,6 +432,7 @@ class BuildServiceImplTest {
 
         when(userRepository.findByNickname("player123"))
                 .thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char123")).thenReturn(Mono.just(true));
 
         when(characterRepository.findById("char123"))
                 .thenReturn(Mono.just(mockCharacter));
@@ -336,18 +440,329 @@ class BuildServiceImplTest {
         when(buildRepository.findByPlayerIdAndCharacterIdAndValidFalse("player123", "char123"))
                 .thenReturn(Flux.just(existingBuild)); // ✅ NUEVO MOCK CORRECTO
 
+        when(playerStatsRepository.findById(PlayerStats.idOf("player123", "char123")))
+                .thenReturn(Mono.empty());
+
         when(buildRepository.countByPlayerIdAndCharacterIdAndValidTrue("player123", "char123"))
                 .thenReturn(Mono.just(0L));
 
-        when(buildRepository.save(any(Build.class)))
-                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        when(buildRepository.completeAll(anyList()))
+                .thenReturn(Mono.just(Set.of("build123")));
+
+        when(playerStatsRepository.recordCompletion(any(Build.class)))
+                .thenReturn(Mono.just(new PlayerStats()));
+
+        when(powerMasteryRepository.addProgress(anyString(), any()))
+                .thenReturn(Mono.empty());
 
         StepVerifier.create(buildService.validateBuild("player123", mockBuild))
                 .assertNext(result -> {
                     assertTrue(result.isValid());
                     assertTrue(result.getScore() > 0);
+                    assertThat(result.getPercentiles()).isNotNull();
                 })
                 .verifyComplete();
+
+        verify(playerStatsRepository).recordCompletion(any(Build.class));
+    }
+
+    @Test
+    void validateBuild_conEstadisticasPrevias_noCuentaBuildsYNoEsPrimeraVez() {
+        Piece piece = new Piece();
+        piece.setId("p1");
+        piece.setLevel(1);
+        piece.setPower(Power.AIR_JUMP);
+
+        Character mockCharacter = createTestCharacter("char123");
+        mockCharacter.setPieces(List.of(piece));
+
+        User mockUser = new User();
+        mockUser.setNickname("player123");
+        mockUser.setId(1L);
+
+        Build existingBuild = new Build();
+        existingBuild.setId("build123");
+        existingBuild.setPlayerId("player123");
+        existingBuild.setCharacterId("char123");
+
+        Build buildData = new Build();
+        buildData.setCharacterId("char123");
+        buildData.setPiecesPlaced(List.of("p1"));
+        buildData.setDuration(120);
+
+        PlayerStats stats = new PlayerStats();
+        stats.setCompletions(2);
+
+        when(userRepository.findByNickname("player123")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char123")).thenReturn(Mono.just(true));
+        when(characterRepository.findById("char123")).thenReturn(Mono.just(mockCharacter));
+        when(buildRepository.findByPlayerIdAndCharacterIdAndValidFalse("player123", "char123")).thenReturn(Flux.just(existingBuild));
+        when(playerStatsRepository.findById(PlayerStats.idOf("player123", "char123"))).thenReturn(Mono.just(stats));
+        when(buildRepository.completeAll(anyList())).thenReturn(Mono.just(Set.of("build123")));
+        when(playerStatsRepository.recordCompletion(any(Build.class))).thenReturn(Mono.just(stats));
+        when(powerMasteryRepository.addProgress(anyString(), any())).thenReturn(Mono.empty());
+
+        // 50 (p1) + 100 (sin errores) + 300 (base), sin bonus de primera vez
+        StepVerifier.create(buildService.validateBuild("player123", buildData))
+                .assertNext(result -> assertThat(result.getScore()).isEqualTo(450))
+                .verifyComplete();
+
+        verify(buildRepository, never()).countByPlayerIdAndCharacterIdAndValidTrue(anyString(), anyString());
+        verify(powerMasteryRepository).addProgress("player123", Map.of(Power.AIR_JUMP, 33));
+        assertThat(leaderboardRegistry.rankOf("char123", "player123").orElseThrow().score()).isEqualTo(450);
+    }
+
+    @Test
+    void validateBuild_buildYaValidadoAlGuardar_lanzaConflictoSinTocarTablasDerivadas() {
+        Piece piece = new Piece();
+        piece.setId("p1");
+        piece.setLevel(1);
+        piece.setPower(Power.AIR_JUMP);
+
+        Character mockCharacter = createTestCharacter("char123");
+        mockCharacter.setPieces(List.of(piece));
+
+        User mockUser = new User();
+        mockUser.setNickname("player123");
+        mockUser.setId(1L);
+
+        Build existingBuild = new Build();
+        existingBuild.setId("build123");
+        existingBuild.setPlayerId("player123");
+        existingBuild.setCharacterId("char123");
+
+        Build buildData = new Build();
+        buildData.setCharacterId("char123");
+        buildData.setPiecesPlaced(List.of("p1"));
+        buildData.setDuration(120);
+
+        when(userRepository.findByNickname("player123")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char123")).thenReturn(Mono.just(true));
+        when(characterRepository.findById("char123")).thenReturn(Mono.just(mockCharacter));
+        when(buildRepository.findByPlayerIdAndCharacterIdAndValidFalse("player123", "char123")).thenReturn(Flux.just(existingBuild));
+        when(playerStatsRepository.findById(PlayerStats.idOf("player123", "char123"))).thenReturn(Mono.just(new PlayerStats()));
+        // Otra petición validó el mismo build entre la lectura y la escritura
+        when(buildRepository.completeAll(anyList())).thenReturn(Mono.just(Set.of()));
+        when(buildRepository.existsById("build123")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(buildService.validateBuild("player123", buildData))
+                .expectError(BuildAlreadyValidatedException.class)
+                .verify();
+
+        verify(playerStatsRepository, never()).recordCompletion(any());
+        verify(powerMasteryRepository, never()).addProgress(any(), any());
+        assertTrue(leaderboardRegistry.rankOf("char123", "player123").isEmpty());
+        assertThat(characterStatsRegistry.summary("char123").score().count()).isEqualTo(0L);
+    }
+
+    @Test
+    void validateBuild_buildBorradoAlGuardar_lanzaNoPendingBuildException() {
+        Piece piece = new Piece();
+        piece.setId("p1");
+
+        Character mockCharacter = createTestCharacter("char123");
+        mockCharacter.setPieces(List.of(piece));
+
+        User mockUser = new User();
+        mockUser.setNickname("player123");
+        mockUser.setId(1L);
+
+        Build existingBuild = new Build();
+        existingBuild.setId("build123");
+
+        Build buildData = new Build();
+        buildData.setCharacterId("char123");
+        buildData.setPiecesPlaced(List.of("p1"));
+        buildData.setDuration(120);
+
+        when(userRepository.findByNickname("player123")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char123")).thenReturn(Mono.just(true));
+        when(characterRepository.findById("char123")).thenReturn(Mono.just(mockCharacter));
+        when(buildRepository.findByPlayerIdAndCharacterIdAndValidFalse("player123", "char123")).thenReturn(Flux.just(existingBuild));
+        when(playerStatsRepository.findById(PlayerStats.idOf("player123", "char123"))).thenReturn(Mono.just(new PlayerStats()));
+        when(buildRepository.completeAll(anyList())).thenReturn(Mono.just(Set.of()));
+        when(buildRepository.existsById("build123")).thenReturn(Mono.just(false));
+
+        StepVerifier.create(buildService.validateBuild("player123", buildData))
+                .expectError(NoPendingBuildException.class)
+                .verify();
+
+        verify(playerStatsRepository, never()).recordCompletion(any());
+    }
+
+    @Test
+    void validateBuild_errorAlActualizarEstadisticas_propagaExcepcion() {
+        Piece piece = new Piece();
+        piece.setId("p1");
+
+        Character mockCharacter = createTestCharacter("char123");
+        mockCharacter.setPieces(List.of(piece));
+
+        User mockUser = new User();
+        mockUser.setNickname("player123");
+        mockUser.setId(1L);
+
+        Build existingBuild = new Build();
+        existingBuild.setId("build123");
+
+        Build buildData = new Build();
+        buildData.setCharacterId("char123");
+        buildData.setPiecesPlaced(List.of("p1"));
+        buildData.setDuration(120);
+
+        when(userRepository.findByNickname("player123")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char123")).thenReturn(Mono.just(true));
+        when(characterRepository.findById("char123")).thenReturn(Mono.just(mockCharacter));
+        when(buildRepository.findByPlayerIdAndCharacterIdAndValidFalse("player123", "char123")).thenReturn(Flux.just(existingBuild));
+        when(playerStatsRepository.findById(PlayerStats.idOf("player123", "char123"))).thenReturn(Mono.just(new PlayerStats()));
+        when(buildRepository.completeAll(anyList())).thenReturn(Mono.just(Set.of("build123")));
+        when(playerStatsRepository.recordCompletion(any(Build.class))).thenReturn(Mono.error(new RuntimeException("Error en MongoDB")));
+
+        StepVerifier.create(buildService.validateBuild("player123", buildData))
+                .expectErrorMessage("Error en MongoDB")
+                .verify();
+    }
+
+    @Test
+    void validateBuilds_loteMixto_devuelveResultadoPorElementoYGuardaConUnBulkWrite() {
+        Piece piece = new Piece();
+        piece.setId("p1");
+        piece.setLevel(1);
+        piece.setPower(Power.AIR_JUMP);
+
+        Character char1 = createTestCharacter("char1");
+        char1.setPieces(List.of(piece));
+
+        User mockUser = new User();
+        mockUser.setNickname("player123");
+        mockUser.setId(1L);
+
+        Build pendiente = createTestBuild("player123", "char1", false);
+        pendiente.setId("build1");
+
+        Build valido = new Build();
+        valido.setCharacterId("char1");
+        valido.setPiecesPlaced(List.of("p1"));
+        valido.setDuration(120);
+
+        Build repetido = new Build();
+        repetido.setCharacterId("char1");
+        repetido.setPiecesPlaced(List.of("p1"));
+        repetido.setDuration(90);
+
+        Build bloqueado = new Build();
+        bloqueado.setCharacterId("char2");
+        bloqueado.setPiecesPlaced(List.of("x"));
+        bloqueado.setDuration(60);
+
+        Build sinPiezas = new Build();
+        sinPiezas.setCharacterId("char3");
+        sinPiezas.setDuration(60);
+
+        when(userRepository.findByNickname("player123")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.findCharacterIdsByUserId(1L)).thenReturn(Flux.just("char1"));
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(char1));
+        when(characterRepository.findById("char2")).thenReturn(Mono.just(createTestCharacter("char2")));
+        when(buildRepository.findByPlayerIdAndValidFalseAndCharacterIdIn(eq("player123"), any())).thenReturn(Flux.just(pendiente));
+        when(playerStatsRepository.findAllById(any(Iterable.class))).thenReturn(Flux.empty());
+        when(buildRepository.countByPlayerIdAndCharacterIdAndValidTrue("player123", "char1")).thenReturn(Mono.just(0L));
+        when(buildRepository.completeAll(anyList())).thenReturn(Mono.just(Set.of("build1")));
+        when(playerStatsRepository.recordCompletions(anyList())).thenReturn(Mono.empty());
+        when(powerMasteryRepository.addProgress(eq("player123"), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(buildService.validateBuilds("player123", List.of(valido, repetido, bloqueado, sinPiezas)))
+                .assertNext(resultados -> {
+                    assertThat(resultados.size()).isEqualTo(4);
+                    BuildBatchResult primero = resultados.get(0);
+                    assertThat(primero.status()).isEqualTo(200);
+                    assertThat(primero.build().getId()).isEqualTo("build1");
+                    assertTrue(primero.build().isValid());
+                    assertThat(primero.build().getPercentiles()).isNotNull();
+                    assertThat(resultados.get(1).status()).isEqualTo(409);
+                    assertThat(resultados.get(2).status()).isEqualTo(403);
+                    assertThat(resultados.get(3).status()).isEqualTo(400);
+                })
+                .verifyComplete();
+
+        verify(buildRepository).completeAll(List.of(pendiente));
+        verify(buildRepository, never()).save(any(Build.class));
+        verify(playerStatsRepository).recordCompletions(List.of(pendiente));
+        verify(playerStatsRepository, never()).recordCompletion(any(Build.class));
+        verify(powerMasteryRepository).addProgress("player123", Map.of(Power.AIR_JUMP, 33));
+    }
+
+    @Test
+    void validateBuilds_buildsYaNoPendientesAlGuardar_noActualizanTablasDerivadas() {
+        Piece piece = new Piece();
+        piece.setId("p1");
+        piece.setLevel(1);
+
+        Character char1 = createTestCharacter("char1");
+        char1.setPieces(List.of(piece));
+        Character char2 = createTestCharacter("char2");
+        char2.setPieces(List.of(piece));
+
+        User mockUser = new User();
+        mockUser.setNickname("player123");
+        mockUser.setId(1L);
+
+        Build pendiente1 = createTestBuild("player123", "char1", false);
+        pendiente1.setId("build1");
+        Build pendiente2 = createTestBuild("player123", "char2", false);
+        pendiente2.setId("build2");
+        Build validadoPorOtro = createTestBuild("player123", "char1", true);
+        validadoPorOtro.setId("build1");
+
+        Build datos1 = new Build();
+        datos1.setCharacterId("char1");
+        datos1.setPiecesPlaced(List.of("p1"));
+        datos1.setDuration(120);
+        Build datos2 = new Build();
+        datos2.setCharacterId("char2");
+        datos2.setPiecesPlaced(List.of("p1"));
+        datos2.setDuration(120);
+
+        when(userRepository.findByNickname("player123")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.findCharacterIdsByUserId(1L)).thenReturn(Flux.just("char1", "char2"));
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(char1));
+        when(characterRepository.findById("char2")).thenReturn(Mono.just(char2));
+        when(buildRepository.findByPlayerIdAndValidFalseAndCharacterIdIn(eq("player123"), any())).thenReturn(Flux.just(pendiente1, pendiente2));
+        when(playerStatsRepository.findAllById(any(Iterable.class))).thenReturn(Flux.empty());
+        when(buildRepository.countByPlayerIdAndCharacterIdAndValidTrue(eq("player123"), any())).thenReturn(Mono.just(0L));
+        // Entre la lectura y el bulkWrite: build1 lo validó otra petición y build2 lo borró la limpieza
+        when(buildRepository.completeAll(anyList())).thenReturn(Mono.just(Set.of()));
+        when(buildRepository.findAllById(List.of("build1", "build2"))).thenReturn(Flux.just(validadoPorOtro));
+
+        StepVerifier.create(buildService.validateBuilds("player123", List.of(datos1, datos2)))
+                .assertNext(resultados -> {
+                    assertThat(resultados.get(0).status()).isEqualTo(409);
+                    assertThat(resultados.get(1).status()).isEqualTo(404);
+                })
+                .verifyComplete();
+
+        verify(playerStatsRepository, never()).recordCompletions(anyList());
+        verify(powerMasteryRepository, never()).addProgress(any(), any());
+        assertTrue(leaderboardRegistry.rankOf("char1", "player123").isEmpty());
+    }
+
+    @Test
+    void validateBuilds_loteDemasiadoGrande_lanzaIllegalArgumentException() {
+        List<Build> lote = Collections.nCopies(BuildServiceImpl.MAX_BATCH_SIZE + 1, new Build());
+
+        assertThrows(IllegalArgumentException.class, () -> buildService.validateBuilds("player123", lote));
+        assertThrows(IllegalArgumentException.class, () -> buildService.validateBuilds("player123", List.of()));
+    }
+
+    @Test
+    void getPlayerStats_devuelveEstadisticasDelJugador() {
+        PlayerStats stats = new PlayerStats();
+        stats.setPlayerId("player123");
+
+        when(playerStatsRepository.findByPlayerId("player123")).thenReturn(Flux.just(stats));
+
+        StepVerifier.create(buildService.getPlayerStats("player123"))
+                .expectNext(stats)
+                .verifyComplete();
     }
 
     @Test
@@ -367,9 +782,10 @@ class BuildServiceImplTest {
 
         User mockUser = new User();
         mockUser.setNickname("player123");
-        mockUser.setCharacterIds("[\"char123\"]");
+        mockUser.setId(1L);
 
         when(userRepository.findByNickname("player123")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char123")).thenReturn(Mono.just(true));
         when(characterRepository.findById("char123")).thenReturn(Mono.just(mockCharacter));
 
         when(buildRepository.findByPlayerIdAndCharacterIdAndValidFalse("player123", "char123"))
@@ -413,7 +829,7 @@ class BuildServiceImplTest {
 
         User mockUser = new User();
         mockUser.setNickname("player123");
-        mockUser.setCharacterIds("[\"char123\"]");
+        mockUser.setId(1L);
 
         when(userRepository.findByNickname("player123"))
                 .thenReturn(Mono.just(mockUser));
@@ -447,9 +863,10 @@ class BuildServiceImplTest {
 
         User mockUser = new User();
         mockUser.setNickname("player123");
-        mockUser.setCharacterIds("[\"otroPersonaje\"]");
+        mockUser.setId(1L);
 
         when(userRepository.findByNickname("player123")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char123")).thenReturn(Mono.just(false));
         when(characterRepository.findById("char123")).thenReturn(Mono.just(mockCharacter));
 
         StepVerifier.create(buildService.validateBuild("player123", mockBuild))
@@ -475,9 +892,10 @@ class BuildServiceImplTest {
 
         User mockUser = new User();
         mockUser.setNickname("player123");
-        mockUser.setCharacterIds("[\"char123\"]");
+        mockUser.setId(1L);
 
         when(userRepository.findByNickname("player123")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.existsByUserIdAndCharacterId(1L, "char123")).thenReturn(Mono.just(true));
         when(characterRepository.findById("char123")).thenReturn(Mono.just(mockCharacter));
 
         // ✅ Mock correcto tras la refactorización
@@ -1,6 +1,9 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.JsonResponseCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.InsufficientTokensException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterUpdateRequest;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Piece;
@@ -8,17 +11,20 @@ import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enum
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PieceRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserCharacterRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -43,11 +49,33 @@ class CharacterServiceImplTest {
     private PieceRepository pieceRepository;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private UserCharacterRepository userCharacterRepository;
+
+    @Mock
+    private JsonResponseCache responseCache;
+
+    private CharacterCatalog characterCatalog;
+
+    private UserCache userCache;
 
-    @InjectMocks
     private CharacterServiceImpl characterService;
 
+    @BeforeEach
+    void setUp() {
+        characterCatalog = spy(new CharacterCatalog(characterRepository, new SimpleMeterRegistry(), 256, Duration.ofMinutes(30)));
+        userCache = new UserCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        characterService = new CharacterServiceImpl(
+                characterRepository,
+                userRepository,
+                buildRepository,
+                pieceRepository,
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
+        );
+    }
+
 
     // Método helper para crear Characters de prueba
     private Character createTestCharacter(String id) {
@@ -112,36 +140,57 @@ class CharacterServiceImplTest {
         String playerId = "player1";
         User mockUser = new User();
         mockUser.setNickname(playerId);
-        mockUser.setCharacterIds("[1,3]");
+        mockUser.setId(1L);
 
         Character char1 = createTestCharacter("1"); // desbloqueado
         Character char2 = createTestCharacter("2"); // bloqueado
         Character char3 = createTestCharacter("3"); // desbloqueado
 
         when(userRepository.findByNickname(playerId)).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.findCharacterIdsByUserId(1L)).thenReturn(Flux.just("1", "3"));
         when(characterRepository.findAll()).thenReturn(Flux.just(char1, char2, char3));
 
-        StepVerifier.create(characterService.getUnlockedCharacters(playerId))
+        StepVerifier.create(characterService.getUnlockedCharacters(playerId, true))
                 .expectNextMatches(c -> c.getId().equals("1"))
                 .expectNextMatches(c -> c.getId().equals("3"))
                 .expectComplete()
                 .verify();
     }
 
+    @Test
+    void getUnlockedCharacters_SinPiezas_DevuelveProyeccionSinPiezas() {
+        User mockUser = new User();
+        mockUser.setNickname("player1");
+        mockUser.setId(1L);
+
+        Character char1 = createTestCharacter("1");
+        char1.setPieces(List.of(new Piece()));
+
+        when(userRepository.findByNickname("player1")).thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.findCharacterIdsByUserId(1L)).thenReturn(Flux.just("1"));
+        when(characterRepository.findAll()).thenReturn(Flux.just(char1, createTestCharacter("2")));
+
+        StepVerifier.create(characterService.getUnlockedCharacters("player1", false))
+                .expectNextMatches(c -> c.getId().equals("1") && c.getPieces() == null && c.getName().equals("Test-1"))
+                .verifyComplete();
+    }
+
     @Test
     void getUnlockedCharacters_ReturnsEmptyWhenNoMatches() {
 
         User mockUser = new User();
         mockUser.setNickname("player1");
-        mockUser.setCharacterIds("[]");
+        mockUser.setId(1L);
 
         when(userRepository.findByNickname("player1"))
                 .thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.findCharacterIdsByUserId(1L))
+                .thenReturn(Flux.empty());
 
         when(characterRepository.findAll())
                 .thenReturn(Flux.empty());
 
-        StepVerifier.create(characterService.getUnlockedCharacters("player1"))
+        StepVerifier.create(characterService.getUnlockedCharacters("player1", true))
                 .verifyComplete();
     }
 
@@ -150,15 +199,17 @@ class CharacterServiceImplTest {
 
         User mockUser = new User();
         mockUser.setNickname("player1");
-        mockUser.setCharacterIds("[]");
+        mockUser.setId(1L);
 
         when(userRepository.findByNickname("player1"))
                 .thenReturn(Mono.just(mockUser));
+        when(userCharacterRepository.findCharacterIdsByUserId(1L))
+                .thenReturn(Flux.empty());
 
         when(characterRepository.findAll())
                 .thenReturn(Flux.error(new RuntimeException("DB Error")));
 
-        StepVerifier.create(characterService.getUnlockedCharacters("player1"))
+        StepVerifier.create(characterService.getUnlockedCharacters("player1", true))
                 .expectError(RuntimeException.class)
                 .verify();
     }
@@ -166,28 +217,30 @@ class CharacterServiceImplTest {
     @Test
     void unlockCharacter_SuccessfullyUnlocks_ReturnsTrue() {
 
-        BuildService buildService = mock(BuildService.class);
 
         Character lockedChar = createTestCharacter("char1");
-        Character savedChar = createTestCharacter("char1");
+        lockedChar.setCost(30);
 
         User testUser = User.builder()
                 .nickname("player1")
+                .id(1L)
                 .tokens(100)
-                .characterIds("[]")
                 .build();
 
         when(characterRepository.findById("char1")).thenReturn(Mono.just(lockedChar));
         when(userRepository.findByNickname("player1")).thenReturn(Mono.just(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(Mono.just(testUser));
+        when(userCharacterRepository.insert(1L, "char1")).thenReturn(Mono.just(true));
+        when(userRepository.debitTokens("player1", 30)).thenReturn(Mono.just(1));
 
         CharacterServiceImpl characterService = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(characterService.unlockCharacter("player1", "char1"))
@@ -201,19 +254,68 @@ class CharacterServiceImplTest {
         Character unlockedChar = createTestCharacter("char1");
         User testUser = User.builder()
                 .nickname("player1")
+                .id(1L)
                 .tokens(100)
-                .characterIds("[\"char1\"]")
                 .build();
 
         when(characterRepository.findById("char1"))
                 .thenReturn(Mono.just(unlockedChar));
         when(userRepository.findByNickname("player1"))
                 .thenReturn(Mono.just(testUser));
+        when(userCharacterRepository.insert(1L, "char1"))
+                .thenReturn(Mono.just(false));
 
         // Ejecuta y verifica
         StepVerifier.create(characterService.unlockCharacter("player1", "char1"))
                 .expectNext(false)
                 .verifyComplete();
+
+        verify(userRepository, never()).debitTokens(anyString(), anyInt());
+    }
+
+    @Test
+    void unlockCharacter_sinTokensSuficientes_lanzaInsufficientTokensException() {
+
+        Character lockedChar = createTestCharacter("char1");
+        lockedChar.setCost(500);
+
+        User testUser = User.builder()
+                .nickname("player1")
+                .id(1L)
+                .tokens(100)
+                .build();
+
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(lockedChar));
+        when(userRepository.findByNickname("player1")).thenReturn(Mono.just(testUser));
+        when(userCharacterRepository.insert(1L, "char1")).thenReturn(Mono.just(true));
+        when(userRepository.debitTokens("player1", 500)).thenReturn(Mono.just(0));
+
+        StepVerifier.create(characterService.unlockCharacter("player1", "char1"))
+                .expectErrorMatches(ex -> ex instanceof InsufficientTokensException &&
+                        ex.getMessage().equals("No tienes tokens suficientes"))
+                .verify();
+
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void unlockCharacter_personajeGratuito_noDebitaTokens() {
+
+        User testUser = User.builder()
+                .nickname("player1")
+                .id(1L)
+                .tokens(0)
+                .build();
+
+        when(characterRepository.findById("char1")).thenReturn(Mono.just(createTestCharacter("char1")));
+        when(userRepository.findByNickname("player1")).thenReturn(Mono.just(testUser));
+        when(userCharacterRepository.insert(1L, "char1")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(characterService.unlockCharacter("player1", "char1"))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(userRepository, never()).debitTokens(anyString(), anyInt());
     }
 
     @Test
@@ -307,15 +409,16 @@ class CharacterServiceImplTest {
         when(characterRepository.save(any(Character.class)))
                 .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
 
-        BuildService buildService = mock(BuildService.class);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.updateCharacter(characterId, request))
@@ -355,15 +458,16 @@ class CharacterServiceImplTest {
         when(characterRepository.save(any(Character.class)))
                 .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
 
-        BuildService buildService = mock(BuildService.class);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.updateCharacter(characterId, request))
@@ -376,7 +480,8 @@ class CharacterServiceImplTest {
                                 actualizado.getPieces().equals(List.of(pieza)))
                 .verifyComplete();
 
-        verify(buildService).clearPiecesCache(characterId);
+        verify(characterCatalog).invalidate(characterId);
+        verify(responseCache).invalidateCharacter(characterId);
     }
 
     @Test
@@ -394,15 +499,16 @@ class CharacterServiceImplTest {
         when(characterRepository.findById(characterId))
                 .thenReturn(Mono.empty());
 
-        BuildService buildService = mock(BuildService.class);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.updateCharacter(characterId, request))
@@ -416,15 +522,16 @@ class CharacterServiceImplTest {
     void updateCharacter_conRequestNulo_lanzaNullPointerException() {
         String characterId = "char1";
 
-        BuildService buildService = mock(BuildService.class);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         assertThrows(NullPointerException.class,
@@ -432,7 +539,7 @@ class CharacterServiceImplTest {
     }
 
     @Test
-    void updateCharacter_conPiezasNulas_noInvocaClearPiecesCachePeroGuarda() {
+    void updateCharacter_conPiezasNulas_guardaEInvalidaCatalogo() {
         String characterId = "char1";
 
         Character personajeExistente = new Character();
@@ -453,15 +560,16 @@ class CharacterServiceImplTest {
         when(characterRepository.save(any(Character.class)))
                 .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
 
-        BuildService buildService = mock(BuildService.class);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.updateCharacter(characterId, request))
@@ -474,7 +582,8 @@ class CharacterServiceImplTest {
                                 actualizado.getPieces() == null)
                 .verifyComplete();
 
-        verify(buildService, never()).clearPiecesCache(any());
+        verify(characterCatalog).invalidate(characterId);
+        verify(responseCache).invalidateCharacter(characterId);
     }
 
     @Test
@@ -492,15 +601,16 @@ class CharacterServiceImplTest {
         when(characterRepository.findById(characterId))
                 .thenReturn(Mono.error(new RuntimeException("Error al buscar")));
 
-        BuildService buildService = mock(BuildService.class);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.updateCharacter(characterId, request))
@@ -532,15 +642,16 @@ class CharacterServiceImplTest {
         when(characterRepository.save(any(Character.class)))
                 .thenReturn(Mono.error(new RuntimeException("Error al guardar")));
 
-        BuildService buildService = mock(BuildService.class);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.updateCharacter(characterId, request))
@@ -551,7 +662,7 @@ class CharacterServiceImplTest {
     }
 
     @Test
-    void updateCharacter_invocaClearPiecesCacheSoloSiHayPiezas() {
+    void updateCharacter_invalidaCatalogoEnCadaActualizacion() {
         String characterId = "char1";
 
         Character personajeExistente = new Character();
@@ -583,28 +694,31 @@ class CharacterServiceImplTest {
         when(characterRepository.save(any(Character.class)))
                 .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
 
-        BuildService buildService = mock(BuildService.class);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.updateCharacter(characterId, requestConPiezas))
                 .expectNextCount(1)
                 .verifyComplete();
-        verify(buildService).clearPiecesCache(characterId);
+        verify(characterCatalog).invalidate(characterId);
+        verify(responseCache).invalidateCharacter(characterId);
 
-        reset(buildService);
+        reset(characterCatalog, responseCache);
 
         StepVerifier.create(service.updateCharacter(characterId, requestSinPiezas))
                 .expectNextCount(1)
                 .verifyComplete();
-        verify(buildService, never()).clearPiecesCache(any());
+        verify(characterCatalog).invalidate(characterId);
+        verify(responseCache).invalidateCharacter(characterId);
     }
 
     @Test
@@ -819,16 +933,16 @@ class CharacterServiceImplTest {
         when(characterRepository.save(any(Character.class)))
                 .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
 
-        BuildService buildService = mock(BuildService.class);
-        doNothing().when(buildService).clearPiecesCache(characterId);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.assignPiecesWithPowers(characterId, piezas))
@@ -855,16 +969,16 @@ class CharacterServiceImplTest {
         when(characterRepository.save(any(Character.class)))
                 .thenReturn(Mono.error(new RuntimeException("Error en MongoDB")));
 
-        BuildService buildService = mock(BuildService.class);
-        doNothing().when(buildService).clearPiecesCache(characterId);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.assignPiecesWithPowers(characterId, piezas))
@@ -875,7 +989,7 @@ class CharacterServiceImplTest {
     }
 
     @Test
-    void assignPiecesWithPowers_invocaClearPiecesCacheCorrectamente() {
+    void assignPiecesWithPowers_invalidaCatalogoCorrectamente() {
         String characterId = "char1";
         Piece pieza1 = new Piece();
         pieza1.setId("pieza1");
@@ -891,22 +1005,24 @@ class CharacterServiceImplTest {
         when(characterRepository.save(any(Character.class)))
                 .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
 
-        BuildService buildService = mock(BuildService.class);
 
         CharacterServiceImpl service = new CharacterServiceImpl(
                 characterRepository,
                 userRepository,
                 buildRepository,
-                buildService,
                 pieceRepository,
-                objectMapper
+                userCharacterRepository,
+                characterCatalog,
+                responseCache,
+                userCache
         );
 
         StepVerifier.create(service.assignPiecesWithPowers(characterId, piezas))
                 .expectNextCount(1)
                 .verifyComplete();
 
-        verify(buildService).clearPiecesCache(characterId);
+        verify(characterCatalog).invalidate(characterId);
+        verify(responseCache).invalidateCharacter(characterId);
     }
 
 }
\ No newline at end of file
@@ -1,37 +1,46 @@
 package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
 
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.web.JsonResponseCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.*;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.GalleryCursor;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PlayerStats;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.SharedModel;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PlayerStatsRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.SharedModelRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 
 @ExtendWith(MockitoExtension.class)
 class GalleryServiceImplTest {
 
-    @InjectMocks
     private GalleryServiceImpl galleryService;
 
     @Mock
@@ -46,6 +55,17 @@ class GalleryServiceImplTest {
     @Mock
     private SharedModelRepository sharedModelRepository;
 
+    @Mock
+    private JsonResponseCache responseCache;
+
+    @Mock
+    private PlayerStatsRepository playerStatsRepository;
+
+    @BeforeEach
+    void setUp() {
+        CharacterCatalog characterCatalog = new CharacterCatalog(characterRepository, new SimpleMeterRegistry(), 256, Duration.ofMinutes(30));
+        galleryService = new GalleryServiceImpl(sharedModelRepository, buildRepository, new UserCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)), characterCatalog, responseCache, playerStatsRepository);
+    }
 
     // Helper
     private Character createTestCharacter(String id) {
@@ -126,6 +146,9 @@ class GalleryServiceImplTest {
         when(characterRepository.findById(characterId))
                 .thenReturn(Mono.just(mockCharacter));
 
+        when(playerStatsRepository.findById(PlayerStats.idOf(playerId, characterId)))
+                .thenReturn(Mono.empty());
+
         when(buildRepository.findByPlayerIdAndCharacterIdAndValidTrue(playerId, characterId))
                 .thenReturn(Flux.empty());
 
@@ -163,6 +186,9 @@ class GalleryServiceImplTest {
         when(characterRepository.findById(characterId))
                 .thenReturn(Mono.just(mockCharacter));
 
+        when(playerStatsRepository.findById(PlayerStats.idOf(playerId, characterId)))
+                .thenReturn(Mono.empty());
+
         when(buildRepository.findByPlayerIdAndCharacterIdAndValidTrue(playerId, characterId))
                 .thenReturn(Flux.just(validBuild));
 
@@ -201,6 +227,9 @@ class GalleryServiceImplTest {
         when(characterRepository.findById(characterId))
                 .thenReturn(Mono.just(mockCharacter));
 
+        when(playerStatsRepository.findById(PlayerStats.idOf(playerId, characterId)))
+                .thenReturn(Mono.empty());
+
         when(buildRepository.findByPlayerIdAndCharacterIdAndValidTrue(playerId, characterId))
                 .thenReturn(Flux.just(validBuild));
 
@@ -242,6 +271,9 @@ class GalleryServiceImplTest {
         when(characterRepository.findById(characterId))
                 .thenReturn(Mono.just(mockCharacter));
 
+        when(playerStatsRepository.findById(PlayerStats.idOf(playerId, characterId)))
+                .thenReturn(Mono.empty());
+
         when(buildRepository.findByPlayerIdAndCharacterIdAndValidTrue(playerId, characterId))
                 .thenReturn(Flux.just(buildAntiguo, buildReciente));
 
@@ -258,73 +290,123 @@ class GalleryServiceImplTest {
     }
 
     @Test
-    void getPublicGallery_conModelosCompartidos_retornaFluxOrdenado() {
-        SharedModel modelo1 = new SharedModel();
-        modelo1.setPlayerId("player1");
-        modelo1.setCharacterId("char1");
-        modelo1.setSharedAt(Instant.parse("2024-01-01T10:00:00Z"));
+    void shareModel_conEstadisticas_usaUltimaPuntuacionSinLeerHistorial() {
+        String playerId = "player1";
+        String characterId = "char1";
 
-        SharedModel modelo2 = new SharedModel();
-        modelo2.setPlayerId("player2");
-        modelo2.setCharacterId("char2");
-        modelo2.setSharedAt(Instant.parse("2024-03-01T10:00:00Z"));
+        PlayerStats stats = new PlayerStats();
+        stats.setCompletions(4);
+        stats.setBestScore(120);
+        stats.setLastScore(95);
+
+        when(userRepository.findByNickname(playerId))
+                .thenReturn(Mono.just(User.builder().nickname(playerId).build()));
+
+        when(characterRepository.findById(characterId))
+                .thenReturn(Mono.just(createTestCharacter(characterId)));
 
-        when(sharedModelRepository.findAll())
-                .thenReturn(Flux.just(modelo1, modelo2));
+        when(playerStatsRepository.findById(PlayerStats.idOf(playerId, characterId)))
+                .thenReturn(Mono.just(stats));
 
-        StepVerifier.create(galleryService.getPublicGallery())
-                .expectNext(modelo2) // más reciente
-                .expectNext(modelo1)
+        when(sharedModelRepository.save(any(SharedModel.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(galleryService.shareModel(playerId, characterId))
+                .expectNextMatches(shared -> shared.getScore() == 95)
                 .verifyComplete();
+
+        verify(buildRepository, never()).findByPlayerIdAndCharacterIdAndValidTrue(any(), any());
+    }
+
+    // Helper
+    private SharedModel createSharedModel(String id, String sharedAt) {
+        SharedModel model = new SharedModel();
+        model.setId(id);
+        model.setPlayerId("player-" + id);
+        model.setCharacterId("char1");
+        model.setSharedAt(Instant.parse(sharedAt));
+        return model;
     }
 
     @Test
-    void getPublicGallery_sinModelosCompartidos_retornaFluxVacio() {
-        when(sharedModelRepository.findAll())
-                .thenReturn(Flux.empty());
+    void getPublicGallery_conMasResultados_devuelvePaginaYCursorSiguiente() {
+        SharedModel reciente = createSharedModel("m3", "2024-03-01T10:00:00Z");
+        SharedModel intermedio = createSharedModel("m2", "2024-02-01T10:00:00Z");
+        SharedModel antiguo = createSharedModel("m1", "2024-01-01T10:00:00Z");
+
+        when(sharedModelRepository.findPage(null, null, null, 3))
+                .thenReturn(Flux.just(reciente, intermedio, antiguo));
+
+        StepVerifier.create(galleryService.getPublicGallery(2, null, null, null))
+                .assertNext(page -> {
+                    assertEquals(List.of(reciente, intermedio), page.items());
+                    assertEquals(new GalleryCursor(intermedio.getSharedAt(), "m2"), GalleryCursor.decode(page.nextCursor()));
+                })
+                .verifyComplete();
+    }
 
-        StepVerifier.create(galleryService.getPublicGallery())
-                .expectNextCount(0)
+    @Test
+    void getPublicGallery_ultimaPagina_sinCursorSiguiente() {
+        SharedModel modelo = createSharedModel("m1", "2024-01-01T10:00:00Z");
+
+        when(sharedModelRepository.findPage(null, null, null, 21))
+                .thenReturn(Flux.just(modelo));
+
+        StepVerifier.create(galleryService.getPublicGallery(null, null, null, null))
+                .assertNext(page -> {
+                    assertEquals(List.of(modelo), page.items());
+                    assertNull(page.nextCursor());
+                })
                 .verifyComplete();
     }
 
     @Test
-    void getPublicGallery_errorEnBaseDeDatos_propagaExcepcion() {
-        when(sharedModelRepository.findAll())
-                .thenReturn(Flux.error(new RuntimeException("Error en la base de datos")));
+    void getPublicGallery_conCursorYFiltros_consultaDesdeElCursor() {
+        GalleryCursor cursor = new GalleryCursor(Instant.parse("2024-02-01T10:00:00Z"), "m2");
 
-        StepVerifier.create(galleryService.getPublicGallery())
-                .expectErrorMatches(ex ->
-                        ex instanceof RuntimeException &&
-                                ex.getMessage().equals("Error en la base de datos"))
-                .verify();
+        when(sharedModelRepository.findPage(cursor, "char1", 500, 11))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(galleryService.getPublicGallery(10, cursor.encode(), "char1", 500))
+                .assertNext(page -> {
+                    assertTrue(page.items().isEmpty());
+                    assertNull(page.nextCursor());
+                })
+                .verifyComplete();
     }
 
     @Test
-    void getPublicGallery_verificaOrdenPorFecha_descendente() {
-        SharedModel modeloAntiguo = new SharedModel();
-        modeloAntiguo.setPlayerId("playerA");
-        modeloAntiguo.setCharacterId("charA");
-        modeloAntiguo.setSharedAt(Instant.parse("2023-05-01T10:00:00Z"));
+    void getPublicGallery_limitFueraDeRango_lanzaIllegalArgumentException() {
+        StepVerifier.create(galleryService.getPublicGallery(0, null, null, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
 
-        SharedModel modeloReciente = new SharedModel();
-        modeloReciente.setPlayerId("playerB");
-        modeloReciente.setCharacterId("charB");
-        modeloReciente.setSharedAt(Instant.parse("2024-02-01T10:00:00Z"));
+        StepVerifier.create(galleryService.getPublicGallery(101, null, null, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
 
-        SharedModel modeloIntermedio = new SharedModel();
-        modeloIntermedio.setPlayerId("playerC");
-        modeloIntermedio.setCharacterId("charC");
-        modeloIntermedio.setSharedAt(Instant.parse("2023-12-01T10:00:00Z"));
+        verify(sharedModelRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
 
-        when(sharedModelRepository.findAll())
-                .thenReturn(Flux.just(modeloAntiguo, modeloReciente, modeloIntermedio));
+    @Test
+    void getPublicGallery_cursorInvalido_lanzaIllegalArgumentException() {
+        StepVerifier.create(galleryService.getPublicGallery(10, "no-es-un-cursor", null, null))
+                .expectErrorMatches(ex ->
+                        ex instanceof IllegalArgumentException &&
+                                ex.getMessage().equals("Cursor inválido"))
+                .verify();
+    }
 
-        StepVerifier.create(galleryService.getPublicGallery())
-                .expectNext(modeloReciente)
-                .expectNext(modeloIntermedio)
-                .expectNext(modeloAntiguo)
-                .verifyComplete();
+    @Test
+    void getPublicGallery_errorEnBaseDeDatos_propagaExcepcion() {
+        when(sharedModelRepository.findPage(null, null, null, 21))
+                .thenReturn(Flux.error(new RuntimeException("Error en la base de datos")));
+
+        StepVerifier.create(galleryService.getPublicGallery(null, null, null, null))
+                .expectErrorMatches(ex ->
+                        ex instanceof RuntimeException &&
+                                ex.getMessage().equals("Error en la base de datos"))
+                .verify();
     }
 
     @Test
@@ -528,6 +610,7 @@ class GalleryServiceImplTest {
                 .verifyComplete();
 
         verify(sharedModelRepository, times(1)).save(modeloDestacado); // se desmarca el modelo anterior
+        verify(responseCache).invalidate(JsonResponseCache.GALLERY_HIGHLIGHTED);
     }
 
     @Test
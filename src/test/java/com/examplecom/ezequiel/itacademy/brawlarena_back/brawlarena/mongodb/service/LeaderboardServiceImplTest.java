@@ -0,0 +1,132 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.BuildNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.CharacterNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.LeaderboardEntry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.leaderboard.LeaderboardRegistry;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceImplTest {
+
+    @Mock
+    private CharacterRepository characterRepository;
+
+    @Mock
+    private BuildRepository buildRepository;
+
+    private LeaderboardRegistry leaderboardRegistry;
+    private LeaderboardServiceImpl leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        CharacterCatalog characterCatalog = new CharacterCatalog(characterRepository, new SimpleMeterRegistry(), 256, Duration.ofMinutes(30));
+        leaderboardRegistry = new LeaderboardRegistry(buildRepository, false);
+        leaderboardService = new LeaderboardServiceImpl(leaderboardRegistry, characterCatalog);
+    }
+
+    // Helper
+    private Build createBuild(String playerId, String characterId, int score) {
+        Build build = new Build();
+        build.setPlayerId(playerId);
+        build.setCharacterId(characterId);
+        build.setScore(score);
+        return build;
+    }
+
+    // Helper
+    private void personajeExiste(String characterId) {
+        Character character = new Character();
+        character.setId(characterId);
+        when(characterRepository.findById(characterId)).thenReturn(Mono.just(character));
+    }
+
+    @Test
+    void seed_cargaLaMejorPuntuacionDeCadaJugadorDesdeBuilds() {
+        when(buildRepository.findValidBuildSummaries(any(Sort.class))).thenReturn(Flux.just(
+                createBuild("ana", "char1", 900),
+                createBuild("bea", "char1", 700),
+                createBuild("ana", "char1", 300),
+                createBuild("ana", "char2", 100)
+        ));
+        personajeExiste("char1");
+
+        StepVerifier.create(leaderboardRegistry.seed())
+                .expectNext(4L)
+                .verifyComplete();
+
+        StepVerifier.create(leaderboardService.getTop("char1", null))
+                .expectNext(List.of(
+                        new LeaderboardEntry(1, "ana", 900),
+                        new LeaderboardEntry(2, "bea", 700)))
+                .verifyComplete();
+    }
+
+    @Test
+    void getTop_respetaElLimite() {
+        personajeExiste("char1");
+        leaderboardRegistry.record("char1", "ana", 900);
+        leaderboardRegistry.record("char1", "bea", 700);
+
+        StepVerifier.create(leaderboardService.getTop("char1", 1))
+                .assertNext(top -> assertEquals(List.of(new LeaderboardEntry(1, "ana", 900)), top))
+                .verifyComplete();
+    }
+
+    @Test
+    void getTop_limiteFueraDeRango_lanzaIllegalArgumentException() {
+        StepVerifier.create(leaderboardService.getTop("char1", 101))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void getTop_personajeNoExiste_lanzaCharacterNotFoundException() {
+        when(characterRepository.findById("charX")).thenReturn(Mono.empty());
+
+        StepVerifier.create(leaderboardService.getTop("charX", 10))
+                .expectError(CharacterNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getPlayerRank_conPuntuacion_devuelvePosicion() {
+        personajeExiste("char1");
+        leaderboardRegistry.record("char1", "ana", 900);
+        leaderboardRegistry.record("char1", "bea", 700);
+
+        StepVerifier.create(leaderboardService.getPlayerRank("char1", "bea"))
+                .expectNext(new LeaderboardEntry(2, "bea", 700))
+                .verifyComplete();
+    }
+
+    @Test
+    void getPlayerRank_sinPuntuacion_lanzaBuildNotFoundException() {
+        personajeExiste("char1");
+
+        StepVerifier.create(leaderboardService.getPlayerRank("char1", "ana"))
+                .expectError(BuildNotFoundException.class)
+                .verify();
+    }
+}
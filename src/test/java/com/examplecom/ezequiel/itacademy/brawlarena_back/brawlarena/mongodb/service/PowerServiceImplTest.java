@@ -0,0 +1,97 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.service;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.PowerMastery;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.enums.Power;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.PowerMasteryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PowerServiceImplTest {
+
+    @Mock
+    private PowerMasteryRepository powerMasteryRepository;
+
+    private PowerServiceImpl powerService;
+
+    @BeforeEach
+    void setUp() {
+        powerService = new PowerServiceImpl(powerMasteryRepository);
+    }
+
+    @Test
+    void getPowerMastery_conDocumento_devuelveProgresoPorPoder() {
+        List<Integer> progress = new ArrayList<>(Arrays.asList(new Integer[Power.values().length]));
+        progress.set(Power.AIR_JUMP.ordinal(), 66);
+        progress.set(Power.ESCAPE_WRAP.ordinal(), 33);
+
+        when(powerMasteryRepository.findById("player1"))
+                .thenReturn(Mono.just(new PowerMastery("player1", progress, Instant.now())));
+
+        StepVerifier.create(powerService.getPowerMastery("player1"))
+                .assertNext(response -> {
+                    assertEquals("player1", response.playerId());
+                    assertEquals(Power.values().length, response.mastery().size());
+                    assertEquals(66, response.mastery().get(Power.AIR_JUMP));
+                    assertEquals(33, response.mastery().get(Power.ESCAPE_WRAP));
+                    assertEquals(0, response.mastery().get(Power.SUPERMUSCULADO));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getPowerMastery_arrayMasCortoQueElEnum_completaConCeros() {
+        when(powerMasteryRepository.findById("player1"))
+                .thenReturn(Mono.just(new PowerMastery("player1", List.of(10), Instant.now())));
+
+        StepVerifier.create(powerService.getPowerMastery("player1"))
+                .assertNext(response -> {
+                    assertEquals(10, response.mastery().get(Power.values()[0]));
+                    assertEquals(0, response.mastery().get(Power.SUPERMUSCULADO));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getPowerMastery_sinDocumento_devuelveTodoACero() {
+        when(powerMasteryRepository.findById("player1"))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(powerService.getPowerMastery("player1"))
+                .assertNext(response -> {
+                    assertEquals(Power.values().length, response.mastery().size());
+                    response.mastery().values().forEach(value -> assertEquals(0, value));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getPowerMastery_playerIdVacio_lanzaIllegalArgumentException() {
+        StepVerifier.create(powerService.getPowerMastery(" "))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void getPowerMastery_errorEnBaseDeDatos_propagaExcepcion() {
+        when(powerMasteryRepository.findById("player1"))
+                .thenReturn(Mono.error(new RuntimeException("Error en MongoDB")));
+
+        StepVerifier.create(powerService.getPowerMastery("player1"))
+                .expectErrorMessage("Error en MongoDB")
+                .verify();
+    }
+}
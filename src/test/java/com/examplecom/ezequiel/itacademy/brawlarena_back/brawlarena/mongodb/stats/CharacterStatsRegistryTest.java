@@ -0,0 +1,197 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.stats;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.BuildPercentiles;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.dto.CharacterStatsResponse;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Build;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.CharacterHistogram;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.BuildRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterHistogramRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CharacterStatsRegistryTest {
+
+    @Mock
+    private CharacterHistogramRepository histogramRepository;
+
+    @Mock
+    private BuildRepository buildRepository;
+
+    private CharacterStatsRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new CharacterStatsRegistry(histogramRepository, buildRepository, false);
+    }
+
+    // Helpers
+    private static long total(CharacterHistogram.Counts counts) {
+        return counts.getBuckets().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private Build createBuild(String characterId, int score, long duration) {
+        Build build = new Build();
+        build.setCharacterId(characterId);
+        build.setScore(score);
+        build.setDuration(duration);
+        return build;
+    }
+
+    @Test
+    void record_primerBuild_noSuperaANadie() {
+        BuildPercentiles percentiles = registry.record("char1", 500, 40);
+
+        assertEquals(0.0, percentiles.scoreBeatsPercent());
+        assertEquals(0.0, percentiles.durationBeatsPercent());
+    }
+
+    @Test
+    void record_comparaContraLosBuildsAnteriores() {
+        registry.record("char1", 100, 90);
+        registry.record("char1", 200, 80);
+        registry.record("char1", 300, 70);
+        registry.record("char1", 900, 10);
+
+        // Mejor puntuación que 3 de 4 y más rápido que 3 de 4
+        BuildPercentiles percentiles = registry.record("char1", 400, 20);
+
+        assertEquals(75.0, percentiles.scoreBeatsPercent());
+        assertEquals(75.0, percentiles.durationBeatsPercent());
+    }
+
+    @Test
+    void summary_devuelvePercentilesPorPersonaje() {
+        for (int i = 1; i <= 10; i++) {
+            registry.record("char1", i, i);
+        }
+
+        CharacterStatsResponse stats = registry.summary("char1");
+
+        assertEquals(10, stats.score().count());
+        assertEquals(5, stats.score().p50());
+        assertEquals(9, stats.score().p90());
+        assertEquals(10, stats.duration().p99());
+        assertEquals(0, registry.summary("char2").score().count());
+    }
+
+    @Test
+    void checkpoint_soloEnviaPersonajesConCambios() {
+        when(histogramRepository.addCounts(any(CharacterHistogram.class))).thenReturn(Mono.empty());
+
+        registry.record("char1", 100, 30);
+        StepVerifier.create(registry.checkpoint()).verifyComplete();
+        StepVerifier.create(registry.checkpoint()).verifyComplete();
+
+        ArgumentCaptor<CharacterHistogram> captor = ArgumentCaptor.forClass(CharacterHistogram.class);
+        verify(histogramRepository, times(1)).addCounts(captor.capture());
+        assertEquals("char1", captor.getValue().getId());
+    }
+
+    @Test
+    void checkpoint_enviaSoloLaDiferenciaDesdeElAnterior() {
+        when(histogramRepository.addCounts(any(CharacterHistogram.class))).thenReturn(Mono.empty());
+
+        registry.record("char1", 100, 30);
+        StepVerifier.create(registry.checkpoint()).verifyComplete();
+        registry.record("char1", 100, 30);
+        registry.record("char1", 300, 60);
+        StepVerifier.create(registry.checkpoint()).verifyComplete();
+
+        ArgumentCaptor<CharacterHistogram> captor = ArgumentCaptor.forClass(CharacterHistogram.class);
+        verify(histogramRepository, times(2)).addCounts(captor.capture());
+        assertEquals(1, total(captor.getAllValues().get(0).getScore()));
+        assertEquals(2, total(captor.getAllValues().get(1).getScore()));
+    }
+
+    @Test
+    void checkpoint_errorAlGuardar_seReintentaEnElSiguiente() {
+        when(histogramRepository.addCounts(any(CharacterHistogram.class)))
+                .thenReturn(Mono.error(new RuntimeException("Error en MongoDB")))
+                .thenReturn(Mono.empty());
+
+        registry.record("char1", 100, 30);
+        StepVerifier.create(registry.checkpoint()).expectErrorMessage("Error en MongoDB").verify();
+        StepVerifier.create(registry.checkpoint()).verifyComplete();
+
+        ArgumentCaptor<CharacterHistogram> captor = ArgumentCaptor.forClass(CharacterHistogram.class);
+        verify(histogramRepository, times(2)).addCounts(captor.capture());
+        // El reintento lleva lo que no llegó a guardarse
+        assertEquals(1, total(captor.getAllValues().get(1).getScore()));
+    }
+
+    @Test
+    void load_conCheckpoints_restauraSinLeerBuildsNiReenviarlos() {
+        CharacterStatsRegistry origen = new CharacterStatsRegistry(histogramRepository, buildRepository, false);
+        origen.record("char1", 100, 30);
+        origen.record("char1", 300, 60);
+        when(histogramRepository.addCounts(any(CharacterHistogram.class))).thenReturn(Mono.empty());
+        StepVerifier.create(origen.checkpoint()).verifyComplete();
+
+        ArgumentCaptor<CharacterHistogram> captor = ArgumentCaptor.forClass(CharacterHistogram.class);
+        verify(histogramRepository).addCounts(captor.capture());
+        when(histogramRepository.findAll()).thenReturn(Flux.just(captor.getValue()));
+
+        StepVerifier.create(registry.load())
+                .expectNext(1)
+                .verifyComplete();
+
+        assertEquals(2, registry.summary("char1").score().count());
+        verify(buildRepository, never()).findValidBuildSummaries(any());
+
+        // Lo restaurado ya está en Mongo: el siguiente checkpoint solo suma lo nuevo
+        registry.record("char1", 200, 45);
+        StepVerifier.create(registry.checkpoint()).verifyComplete();
+        verify(histogramRepository, times(2)).addCounts(captor.capture());
+        assertEquals(1, total(captor.getValue().getScore()));
+    }
+
+    @Test
+    void load_sinCheckpoints_reconstruyeDesdeBuilds() {
+        when(histogramRepository.findAll()).thenReturn(Flux.empty());
+        when(buildRepository.findValidBuildSummaries(any(Sort.class))).thenReturn(Flux.just(
+                createBuild("char1", 100, 30),
+                createBuild("char2", 200, 60)));
+        when(histogramRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        StepVerifier.create(registry.load())
+                .expectNext(2)
+                .verifyComplete();
+
+        assertEquals(1, registry.summary("char1").score().count());
+        verify(histogramRepository).saveAll(anyList());
+    }
+
+    @Test
+    void load_sinCheckpoints_noSumaLoRegistradoDesdeElArranque() {
+        // Esta validación ya está en builds: la reconstrucción no debe contarla dos veces
+        registry.record("char1", 100, 30);
+        when(histogramRepository.findAll()).thenReturn(Flux.empty());
+        when(buildRepository.findValidBuildSummaries(any(Sort.class))).thenReturn(Flux.just(createBuild("char1", 100, 30)));
+        when(histogramRepository.saveAll(anyList())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+        StepVerifier.create(registry.load())
+                .expectNext(1)
+                .verifyComplete();
+
+        assertEquals(1, registry.summary("char1").score().count());
+        // Tras sobrescribir los documentos no queda nada pendiente de sumar
+        StepVerifier.create(registry.checkpoint()).verifyComplete();
+        verify(histogramRepository, never()).addCounts(any());
+    }
+}
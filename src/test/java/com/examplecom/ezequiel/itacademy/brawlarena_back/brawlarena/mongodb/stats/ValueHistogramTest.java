@@ -0,0 +1,89 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueHistogramTest {
+
+    @Test
+    void indexOf_cubetasContiguasYSinHuecos() {
+        for (int i = 0; i < ValueHistogram.BUCKET_COUNT - 1; i++) {
+            assertEquals(ValueHistogram.upperBound(i) + 1, ValueHistogram.lowerBound(i + 1));
+            assertEquals(i, ValueHistogram.indexOf(ValueHistogram.lowerBound(i)));
+            assertEquals(i, ValueHistogram.indexOf(ValueHistogram.upperBound(i)));
+        }
+    }
+
+    @Test
+    void valueAtPercentile_valoresPequenos_sonExactos() {
+        ValueHistogram histogram = new ValueHistogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(25, histogram.valueAtPercentile(50));
+        assertEquals(45, histogram.valueAtPercentile(90));
+        assertEquals(50, histogram.valueAtPercentile(99));
+        assertEquals(1, histogram.getMin());
+        assertEquals(50, histogram.getMax());
+    }
+
+    @Test
+    void valueAtPercentile_valoresGrandes_errorRelativoMenorAl3PorCiento() {
+        ValueHistogram histogram = new ValueHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 10L);
+        }
+
+        assertEquals(5000, histogram.valueAtPercentile(50), 5000 * 0.03);
+        assertEquals(9000, histogram.valueAtPercentile(90), 9000 * 0.03);
+        assertEquals(9900, histogram.valueAtPercentile(99), 9900 * 0.03);
+    }
+
+    @Test
+    void percentBelowYAbove_calculanElPorcentajeSuperado() {
+        ValueHistogram histogram = new ValueHistogram();
+        for (int i = 0; i < 10; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(50.0, histogram.percentBelow(5), 0.001);
+        assertEquals(40.0, histogram.percentAbove(5), 0.001);
+        assertEquals(0.0, new ValueHistogram().percentBelow(5));
+    }
+
+    @Test
+    void record_valoresFueraDeRango_seAcotan() {
+        ValueHistogram histogram = new ValueHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getMin());
+        assertEquals(ValueHistogram.MAX_VALUE, histogram.getMax());
+        assertEquals(2, histogram.getTotalCount());
+    }
+
+    @Test
+    void merge_restauraUnCheckpoint() {
+        ValueHistogram original = new ValueHistogram();
+        original.record(10);
+        original.record(200);
+
+        ValueHistogram restaurado = new ValueHistogram();
+        restaurado.merge(Arrays.stream(original.snapshotCounts()).boxed().toList(), original.getMin(), original.getMax());
+
+        assertEquals(2, restaurado.getTotalCount());
+        assertEquals(10, restaurado.getMin());
+        assertEquals(200, restaurado.getMax());
+        assertArrayEquals(original.snapshotCounts(), restaurado.snapshotCounts());
+    }
+
+    @Test
+    void merge_checkpointIncompatible_lanzaIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new ValueHistogram().merge(List.of(1L, 2L), 0, 1));
+    }
+}
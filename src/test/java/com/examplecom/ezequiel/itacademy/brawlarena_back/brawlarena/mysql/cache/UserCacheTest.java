@@ -0,0 +1,128 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(userRepository, meterRegistry, 100, Duration.ofMinutes(5));
+    }
+
+    // Helper
+    private User createTestUser(String nickname, int tokens) {
+        return new User(1L, nickname, "password", tokens, "USER", null);
+    }
+
+    @Test
+    void findByNickname_segundaLectura_noConsultaMySQL() {
+        when(userRepository.findByNickname("ana")).thenReturn(Mono.just(createTestUser("ana", 50)));
+
+        StepVerifier.create(userCache.findByNickname("ana"))
+                .expectNextMatches(user -> user.getNickname().equals("ana") && user.getTokens() == 50)
+                .verifyComplete();
+        StepVerifier.create(userCache.findByNickname("ana"))
+                .expectNextMatches(user -> user.getTokens() == 50)
+                .verifyComplete();
+
+        verify(userRepository, times(1)).findByNickname("ana");
+        assertEquals(0.5, meterRegistry.get("user.cache.hit_ratio").gauge().value());
+    }
+
+    @Test
+    void findByNickname_lecturasConcurrentes_compartenLaConsulta() {
+        Sinks.One<User> respuesta = Sinks.one();
+        when(userRepository.findByNickname("ana")).thenReturn(respuesta.asMono());
+
+        List<User> recibidos = new ArrayList<>();
+        userCache.findByNickname("ana").subscribe(recibidos::add);
+        userCache.findByNickname("ana").subscribe(recibidos::add);
+        respuesta.tryEmitValue(createTestUser("ana", 50));
+
+        assertEquals(2, recibidos.size());
+        verify(userRepository, times(1)).findByNickname("ana");
+    }
+
+    @Test
+    void findByNickname_usuarioInexistente_noSeCachea() {
+        when(userRepository.findByNickname("ana")).thenReturn(Mono.empty());
+
+        StepVerifier.create(userCache.findByNickname("ana")).verifyComplete();
+        StepVerifier.create(userCache.findByNickname("ana")).verifyComplete();
+
+        verify(userRepository, times(2)).findByNickname("ana");
+    }
+
+    @Test
+    void findByNickname_errorEnMySQL_propagaErrorYNoSeCachea() {
+        when(userRepository.findByNickname("ana"))
+                .thenReturn(Mono.error(new RuntimeException("Error en MySQL")))
+                .thenReturn(Mono.just(createTestUser("ana", 50)));
+
+        StepVerifier.create(userCache.findByNickname("ana"))
+                .expectErrorMessage("Error en MySQL")
+                .verify();
+        StepVerifier.create(userCache.findByNickname("ana"))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void findByNickname_modificarElUsuarioDevuelto_noAfectaALaCache() {
+        when(userRepository.findByNickname("ana")).thenReturn(Mono.just(createTestUser("ana", 50)));
+
+        StepVerifier.create(userCache.findByNickname("ana"))
+                .consumeNextWith(user -> {
+                    user.setTokens(0);
+                    user.setCharacterIds("[\"char1\"]");
+                })
+                .verifyComplete();
+        StepVerifier.create(userCache.findByNickname("ana"))
+                .expectNextMatches(user -> user.getTokens() == 50 && user.getCharacterIds() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    void invalidate_siguienteLecturaVuelveAMySQL() {
+        when(userRepository.findByNickname("ana"))
+                .thenReturn(Mono.just(createTestUser("ana", 50)))
+                .thenReturn(Mono.just(createTestUser("ana", 30)));
+
+        StepVerifier.create(userCache.findByNickname("ana"))
+                .expectNextMatches(user -> user.getTokens() == 50)
+                .verifyComplete();
+
+        userCache.invalidate("ana");
+
+        StepVerifier.create(userCache.findByNickname("ana"))
+                .expectNextMatches(user -> user.getTokens() == 30)
+                .verifyComplete();
+        verify(userRepository, times(2)).findByNickname("ana");
+    }
+}
@@ -2,35 +2,48 @@ package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.handl
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.Role;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.NicknameAlreadyExistsException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.catalog.CharacterCatalog;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.dto.LoginRequest;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.Character;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.service.UserService;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.CharacterRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.JwtService;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.LoginThrottle;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.PasswordHasher;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.netty.handler.codec.Headers;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.reactive.function.server.EntityResponse;
 import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,7 +53,7 @@ class AuthHandlerTest {
     private UserService userService;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
     private JwtService jwtService;
@@ -54,9 +67,17 @@ class AuthHandlerTest {
     @Mock
     private ServerRequest request;
 
-    @InjectMocks
+    @Spy
+    private LoginThrottle loginThrottle = new LoginThrottle(new SimpleMeterRegistry(), null, 2, 20, Duration.ofMinutes(15), 1000, false);
+
     private AuthHandler authHandler;
 
+    @BeforeEach
+    void setUp() {
+        CharacterCatalog characterCatalog = new CharacterCatalog(characterRepository, new SimpleMeterRegistry(), 256, Duration.ofMinutes(30));
+        authHandler = new AuthHandler(userService, passwordHasher, jwtService, characterCatalog, loginThrottle);
+    }
+
     @Test
     void registerUser_Success() {
         User newUser = new User(null, "newUser", "password123", 100, "USER", "[]");
@@ -69,7 +90,7 @@ class AuthHandlerTest {
         when(characterRepository.findAll()).thenReturn(Flux.just(freeCharacter));
 
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        when(userService.save(userCaptor.capture())).thenAnswer(invocation -> Mono.just(userCaptor.getValue()));
+        when(userService.register(userCaptor.capture(), eq(List.of("free1")))).thenAnswer(invocation -> Mono.just(userCaptor.getValue()));
 
         StepVerifier.create(authHandler.registerUser(request))
                 .expectNextMatches(response -> response.statusCode() == HttpStatus.CREATED)
@@ -81,6 +102,53 @@ class AuthHandlerTest {
         assertEquals("[\"free1\"]", captured.getCharacterIds());
     }
 
+    @Test
+    void registerUser_SegundoRegistro_NoConsultaMongo() {
+        Character freeCharacter = new Character();
+        freeCharacter.setId("free1");
+        freeCharacter.setCost(0);
+        Character paidCharacter = new Character();
+        paidCharacter.setId("paid1");
+        paidCharacter.setCost(50);
+
+        when(request.bodyToMono(User.class))
+                .thenReturn(Mono.just(new User(null, "primero", "password123", 100, "USER", "[]")))
+                .thenReturn(Mono.just(new User(null, "segundo", "password123", 100, "USER", "[]")));
+        when(characterRepository.findAll()).thenReturn(Flux.just(freeCharacter, paidCharacter));
+
+        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
+        when(userService.register(userCaptor.capture(), anyList())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(authHandler.registerUser(request))
+                .expectNextMatches(response -> response.statusCode() == HttpStatus.CREATED)
+                .verifyComplete();
+        StepVerifier.create(authHandler.registerUser(request))
+                .expectNextMatches(response -> response.statusCode() == HttpStatus.CREATED)
+                .verifyComplete();
+
+        verify(characterRepository, times(1)).findAll();
+        assertEquals("[\"free1\"]", userCaptor.getAllValues().get(1).getCharacterIds());
+    }
+
+    @Test
+    void registerUser_FallaAlInsertarPersonajes_Returns500SinCrearUsuarioAparte() {
+        Character freeCharacter = new Character();
+        freeCharacter.setId("free1");
+        freeCharacter.setCost(0);
+
+        when(request.bodyToMono(User.class)).thenReturn(Mono.just(new User(null, "newUser", "password123", 100, "USER", "[]")));
+        when(characterRepository.findAll()).thenReturn(Flux.just(freeCharacter));
+        when(userService.register(any(User.class), eq(List.of("free1"))))
+                .thenReturn(Mono.error(new RuntimeException("Error al insertar user_characters")));
+
+        StepVerifier.create(authHandler.registerUser(request))
+                .expectNextMatches(response -> response.statusCode() == HttpStatus.INTERNAL_SERVER_ERROR)
+                .verifyComplete();
+
+        // Usuario y personajes van en la misma llamada transaccional: no hay un save previo que quede huérfano
+        verify(userService, never()).save(any());
+    }
+
     @Test
     void registerUser_ConflictWhenNicknameExists() {
         User existingUser = new User(null, "existingUser", "password123", 100, "USER", "[]");
@@ -91,7 +159,7 @@ class AuthHandlerTest {
         when(characterRepository.findAll())
                 .thenReturn(Flux.empty());
 
-        when(userService.save(any(User.class)))
+        when(userService.register(any(User.class), anyList()))
                 .thenReturn(Mono.error(new NicknameAlreadyExistsException("Nickname already exists")));
 
         StepVerifier.create(authHandler.registerUser(request))
@@ -107,7 +175,7 @@ class AuthHandlerTest {
 
         when(request.bodyToMono(LoginRequest.class)).thenReturn(Mono.just(loginRequest));
         when(userService.findByNickname("user1")).thenReturn(Mono.just(mockUser));
-        when(passwordEncoder.matches("pass123", "hashedPass")).thenReturn(true);
+        when(passwordHasher.matches("pass123", "hashedPass")).thenReturn(Mono.just(true));
         when(jwtService.generateToken("user1", Role.USER)).thenReturn("mockToken");
 
         StepVerifier.create(authHandler.loginUser(request))
@@ -121,7 +189,7 @@ class AuthHandlerTest {
         User mockUser = new User(1L, "user1", "hashedPass", 100, "USER", "[]");
         when(request.bodyToMono(LoginRequest.class)).thenReturn(Mono.just(loginRequest));
         when(userService.findByNickname("user1")).thenReturn(Mono.just(mockUser));
-        when(passwordEncoder.matches("wrongPass", "hashedPass")).thenReturn(false);
+        when(passwordHasher.matches("wrongPass", "hashedPass")).thenReturn(Mono.just(false));
 
         StepVerifier.create(authHandler.loginUser(request))
                 .expectNextMatches(res -> res.statusCode() == HttpStatus.UNAUTHORIZED)
@@ -139,6 +207,64 @@ class AuthHandlerTest {
                 .verifyComplete();
     }
 
+    @Test
+    void loginUser_TooManyFailures_Returns429WithoutCheckingPassword() {
+        LoginRequest loginRequest = new LoginRequest("user1", "wrongPass");
+        User mockUser = new User(1L, "user1", "hashedPass", 100, "USER", "[]");
+        when(request.bodyToMono(LoginRequest.class)).thenReturn(Mono.just(loginRequest));
+        when(userService.findByNickname("user1")).thenReturn(Mono.just(mockUser));
+        when(passwordHasher.matches("wrongPass", "hashedPass")).thenReturn(Mono.just(false));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(authHandler.loginUser(request))
+                    .expectNextMatches(res -> res.statusCode() == HttpStatus.UNAUTHORIZED)
+                    .verifyComplete();
+        }
+
+        StepVerifier.create(authHandler.loginUser(request))
+                .expectNextMatches(res -> res.statusCode() == HttpStatus.TOO_MANY_REQUESTS &&
+                        res.headers().getFirst("Retry-After") != null)
+                .verifyComplete();
+
+        verify(userService, times(2)).findByNickname("user1");
+        verify(passwordHasher, times(2)).matches("wrongPass", "hashedPass");
+    }
+
+    @Test
+    void loginUser_NicknameNulo_Returns400SinConsultarElBloqueo() {
+        when(request.bodyToMono(LoginRequest.class)).thenReturn(Mono.just(new LoginRequest(null, "pass123")));
+
+        StepVerifier.create(authHandler.loginUser(request))
+                .expectNextMatches(res -> res.statusCode() == HttpStatus.BAD_REQUEST)
+                .verifyComplete();
+
+        verify(loginThrottle, never()).isBlocked(any(), any());
+        verify(userService, never()).findByNickname(any());
+    }
+
+    @Test
+    void loginUser_NicknameEnBlanco_Returns400() {
+        when(request.bodyToMono(LoginRequest.class)).thenReturn(Mono.just(new LoginRequest("   ", "pass123")));
+
+        StepVerifier.create(authHandler.loginUser(request))
+                .expectNextMatches(res -> res.statusCode() == HttpStatus.BAD_REQUEST)
+                .verifyComplete();
+    }
+
+    @Test
+    void loginUser_BcryptPoolSaturated_Returns503() {
+        LoginRequest loginRequest = new LoginRequest("user1", "pass123");
+        User mockUser = new User(1L, "user1", "hashedPass", 100, "USER", "[]");
+        when(request.bodyToMono(LoginRequest.class)).thenReturn(Mono.just(loginRequest));
+        when(userService.findByNickname("user1")).thenReturn(Mono.just(mockUser));
+        when(passwordHasher.matches("pass123", "hashedPass"))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiadas peticiones")));
+
+        StepVerifier.create(authHandler.loginUser(request))
+                .expectNextMatches(res -> res.statusCode() == HttpStatus.SERVICE_UNAVAILABLE)
+                .verifyComplete();
+    }
+
     @Test
     void validateToken_ValidToken() {
 
@@ -148,8 +274,7 @@ class AuthHandlerTest {
 
         Claims mockClaims = Jwts.claims().setSubject("user1");
         mockClaims.put("role", "USER");
-        when(jwtService.validateToken("validToken")).thenReturn(true);
-        when(jwtService.getClaims("validToken")).thenReturn(mockClaims);
+        when(jwtService.parseToken("validToken")).thenReturn(Optional.of(mockClaims));
 
         StepVerifier.create(authHandler.validateToken(request))
                 .expectNextMatches(res -> {
@@ -170,7 +295,7 @@ class AuthHandlerTest {
         when(request.headers()).thenReturn(headersMock);
         when(headersMock.firstHeader("Authorization")).thenReturn("Bearer invalidToken");
 
-        when(jwtService.validateToken("invalidToken")).thenReturn(false);
+        when(jwtService.parseToken("invalidToken")).thenReturn(Optional.empty());
 
         StepVerifier.create(authHandler.validateToken(request))
                 .expectNextMatches(res -> {
@@ -60,8 +60,8 @@ class UserHandlerTest {
                 when(request.bodyToMono(User.class)).thenReturn(Mono.just((User) requestBody));
             } else if (requestBody instanceof Integer) {
                 when(request.bodyToMono(Integer.class)).thenReturn(Mono.just((Integer) requestBody));
-            } else if (requestBody instanceof Long) {
-                when(request.bodyToMono(Long.class)).thenReturn(Mono.just((Long) requestBody));
+            } else if (requestBody instanceof String) {
+                when(request.bodyToMono(String.class)).thenReturn(Mono.just((String) requestBody));
             }
         }
         return request;
@@ -74,6 +74,7 @@ class UserHandlerTest {
         ServerRequest request = createMockRequest(nickname, null);
 
         when(userService.findByNickname(nickname)).thenReturn(Mono.just(mockUser));
+        when(userService.loadCharacterIds(mockUser)).thenReturn(Mono.just(mockUser));
 
         Mono<ServerResponse> response = userHandler.getCurrentUser(request);
 
@@ -145,7 +146,7 @@ class UserHandlerTest {
     @Test
     void getUserGallery_AuthenticatedUser_ReturnsOkWithIds() {
         String playerId = "player123";
-        List<Long> characterIds = List.of(1L, 2L);
+        List<String> characterIds = List.of("char1", "char2");
 
         Authentication auth = new UsernamePasswordAuthenticationToken(playerId, "");
 
@@ -163,11 +164,11 @@ class UserHandlerTest {
                     assertInstanceOf(List.class, body);
 
                     @SuppressWarnings("unchecked")
-                    List<Long> result = (List<Long>) body;
+                    List<String> result = (List<String>) body;
 
                     assertEquals(2, result.size());
-                    assertEquals(1L, result.get(0));
-                    assertEquals(2L, result.get(1));
+                    assertEquals("char1", result.get(0));
+                    assertEquals("char2", result.get(1));
                 })
                 .verifyComplete();
     }
@@ -214,7 +215,7 @@ class UserHandlerTest {
     void addCharacterId_Success() throws JsonProcessingException {
 
         String nickname = "testUser";
-        Long characterId = 123L;
+        String characterId = "680743b8485a1c9f6c909003";
 
         String characterIdsJson = new ObjectMapper()
                 .writeValueAsString(new ArrayList<>(List.of(characterId)));
@@ -229,7 +230,7 @@ class UserHandlerTest {
 
         ServerRequest request = createMockRequest(nickname, characterId);
 
-        request.bodyToMono(Long.class).subscribe(b ->
+        request.bodyToMono(String.class).subscribe(b ->
                 System.out.println("[TEST] Body del request mockeado: " + b));
         request.principal().subscribe(p ->
                 System.out.println("[TEST] Principal mockeado: " + p));
@@ -249,7 +250,7 @@ class UserHandlerTest {
     void addCharacterId_UserNotFound() {
 
         String nickname = "usuarioInexistente";
-        Long characterId = 123L;
+        String characterId = "680743b8485a1c9f6c909003";
 
         ServerRequest request = createMockRequest(nickname, characterId);
         when(userService.addCharacterId(nickname, characterId))
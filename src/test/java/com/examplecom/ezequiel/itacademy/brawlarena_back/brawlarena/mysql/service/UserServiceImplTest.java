@@ -2,16 +2,27 @@ package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.servi
 
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.NicknameAlreadyExistsException;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.exception.UserNotFoundException;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserCharacterRepository;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -23,12 +34,20 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCharacterRepository userCharacterRepository;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
-    @InjectMocks
     private UserServiceImpl userService;
 
+    @BeforeEach
+    void setUp() {
+        UserCache userCache = new UserCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        userService = new UserServiceImpl(userRepository, userCharacterRepository, new PasswordHasher(passwordEncoder, new SimpleMeterRegistry(), 1, 16), userCache);
+    }
+
     @Test
     void findById_WhenUserExists_ReturnsUser() {
         // Arrange
@@ -61,10 +80,51 @@ class UserServiceImplTest {
         User expectedUser = new User(1L, nickname, "password", 100, "USER", "[]");
         when(userRepository.findByNickname(nickname)).thenReturn(Mono.just(expectedUser));
 
+        // Act & Assert: la caché devuelve una copia del usuario
+        StepVerifier.create(userService.findByNickname(nickname))
+                .expectNextMatches(user ->
+                        user.getId().equals(expectedUser.getId()) &&
+                                user.getNickname().equals(nickname) &&
+                                user.getTokens() == 100
+                )
+                .verifyComplete();
+    }
+
+    @Test
+    void findByNickname_SecondLookup_IsServedFromCache() {
+        // Arrange
+        String nickname = "testUser";
+        when(userRepository.findByNickname(nickname)).thenReturn(Mono.just(new User(1L, nickname, "password", 100, "USER", "[]")));
+
+        // Act & Assert
+        StepVerifier.create(userService.findByNickname(nickname)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(userService.findByNickname(nickname)).expectNextCount(1).verifyComplete();
+
+        verify(userRepository, times(1)).findByNickname(nickname);
+    }
+
+    @Test
+    void updateTokens_InvalidatesCachedUser() {
+        // Arrange
+        String nickname = "testUser";
+        when(userRepository.findByNickname(nickname))
+                .thenReturn(Mono.just(new User(1L, nickname, "password", 100, "USER", "[]")))
+                .thenReturn(Mono.just(new User(1L, nickname, "password", 100, "USER", "[]")))
+                .thenReturn(Mono.just(new User(1L, nickname, "password", 200, "USER", "[]")));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
         // Act & Assert
         StepVerifier.create(userService.findByNickname(nickname))
-                .expectNext(expectedUser)
+                .expectNextMatches(user -> user.getTokens() == 100)
+                .verifyComplete();
+        StepVerifier.create(userService.updateTokens(nickname, 200))
+                .expectNextMatches(user -> user.getTokens() == 200)
                 .verifyComplete();
+        StepVerifier.create(userService.findByNickname(nickname))
+                .expectNextMatches(user -> user.getTokens() == 200)
+                .verifyComplete();
+
+        verify(userRepository, times(3)).findByNickname(nickname);
     }
 
     @Test
@@ -98,6 +158,42 @@ class UserServiceImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    void register_WhenNewUser_SavesUserAndCharacters() {
+        User newUser = new User(null, "newUser", "rawPassword", 100, "USER", "[]");
+        User savedUser = new User(1L, "newUser", "encodedPassword", 50, "USER", "[]");
+
+        when(userRepository.findByNickname("newUser")).thenReturn(Mono.empty());
+        when(passwordEncoder.encode("rawPassword")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(Mono.just(savedUser));
+        when(userCharacterRepository.insertAll(1L, List.of("free1"))).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.register(newUser, List.of("free1")))
+                .expectNext(savedUser)
+                .verifyComplete();
+    }
+
+    @Test
+    void register_WhenCharacterInsertFails_PropagatesError() {
+        User newUser = new User(null, "newUser", "rawPassword", 100, "USER", "[]");
+        User savedUser = new User(1L, "newUser", "encodedPassword", 50, "USER", "[]");
+
+        when(userRepository.findByNickname("newUser")).thenReturn(Mono.empty());
+        when(passwordEncoder.encode("rawPassword")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(Mono.just(savedUser));
+        when(userCharacterRepository.insertAll(1L, List.of("free1"))).thenReturn(Mono.error(new RuntimeException("Error en MySQL")));
+
+        // El error llega a la transacción de register, que deshace también el alta del usuario
+        StepVerifier.create(userService.register(newUser, List.of("free1")))
+                .expectErrorMessage("Error en MySQL")
+                .verify();
+    }
+
+    @Test
+    void register_EsTransaccional() throws NoSuchMethodException {
+        assertNotNull(UserServiceImpl.class.getMethod("register", User.class, List.class).getAnnotation(Transactional.class));
+    }
+
     @Test
     void save_WhenNicknameExists_ThrowsException() {
         // Arrange
@@ -150,4 +246,50 @@ class UserServiceImplTest {
                 .expectError(UserNotFoundException.class)
                 .verify();
     }
-}
\ No newline at end of file
+
+    @Test
+    void addCharacterId_WhenUserExists_InsertsEntitlement() {
+        User user = new User(1L, "testUser", "password", 100, "USER", null);
+        when(userRepository.findByNickname("testUser")).thenReturn(Mono.just(user));
+        when(userCharacterRepository.insert(1L, "char1")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userService.addCharacterId("testUser", "char1"))
+                .expectNext(user)
+                .verifyComplete();
+
+        verify(userCharacterRepository).insert(1L, "char1");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void addCharacterId_WhenUserNotExists_ThrowsException() {
+        when(userRepository.findByNickname("unknown")).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.addCharacterId("unknown", "char1"))
+                .expectError(UserNotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(userCharacterRepository);
+    }
+
+    @Test
+    void getCharacterIds_WhenUserExists_ReturnsIdsFromUserCharacters() {
+        User user = new User(1L, "testUser", "password", 100, "USER", null);
+        when(userRepository.findByNickname("testUser")).thenReturn(Mono.just(user));
+        when(userCharacterRepository.findCharacterIdsByUserId(1L)).thenReturn(Flux.just("char1", "char2"));
+
+        StepVerifier.create(userService.getCharacterIds("testUser"))
+                .expectNext(List.of("char1", "char2"))
+                .verifyComplete();
+    }
+
+    @Test
+    void loadCharacterIds_FillsCharacterIdsAsJson() {
+        User user = new User(1L, "testUser", "password", 100, "USER", null);
+        when(userCharacterRepository.findCharacterIdsByUserId(1L)).thenReturn(Flux.just("char1"));
+
+        StepVerifier.create(userService.loadCharacterIds(user))
+                .expectNextMatches(loaded -> "[\"char1\"]".equals(loaded.getCharacterIds()))
+                .verifyComplete();
+    }
+}
@@ -3,16 +3,17 @@ package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
 import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.common.constant.Role;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,8 +25,10 @@ class JwtServiceTest {
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(jwtService, "key", Keys.secretKeyFor(SignatureAlgorithm.HS256));
+        ReflectionTestUtils.setField(jwtService, "secret", "clave-de-pruebas-de-al-menos-32-bytes");
         ReflectionTestUtils.setField(jwtService, "expirationMs", 3600000L); // 1 hora de validez
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 100L);
+        jwtService.init();
     }
 
     @Test
@@ -87,4 +90,56 @@ class JwtServiceTest {
 
         assertThrows(JwtException.class, () -> jwtService.getClaims(invalidToken));
     }
-}
\ No newline at end of file
+
+    @Test
+    void parseToken_tokenValido_devuelveClaims() {
+        String token = jwtService.generateToken("user1", Role.USER);
+
+        Optional<Claims> claims = jwtService.parseToken(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("user1", claims.get().getSubject());
+    }
+
+    @Test
+    void parseToken_tokenInvalido_devuelveVacio() {
+        assertTrue(jwtService.parseToken("token.invalido.123").isEmpty());
+    }
+
+    @Test
+    void authenticate_tokenValido_devuelveAuthenticationConRol() {
+        String token = jwtService.generateToken("admin1", Role.ADMIN);
+
+        Authentication auth = jwtService.authenticate(token).orElseThrow();
+
+        assertEquals("admin1", auth.getName());
+        assertEquals("ROLE_ADMIN", auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst()
+                .orElse(null));
+    }
+
+    @Test
+    void authenticate_segundaLlamada_reutilizaTokenVerificado() {
+        String token = jwtService.generateToken("user1", Role.USER);
+
+        Authentication primera = jwtService.authenticate(token).orElseThrow();
+        Authentication segunda = jwtService.authenticate(token).orElseThrow();
+
+        assertSame(primera, segunda);
+    }
+
+    @Test
+    void authenticate_tokenExpirado_devuelveVacio() {
+        ReflectionTestUtils.setField(jwtService, "expirationMs", -3600000L);
+        String expiredToken = jwtService.generateToken("user1", Role.USER);
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 3600000L);
+
+        assertTrue(jwtService.authenticate(expiredToken).isEmpty());
+    }
+
+    @Test
+    void authenticate_tokenInvalido_devuelveVacio() {
+        assertTrue(jwtService.authenticate("token.invalido.123").isEmpty());
+    }
+}
@@ -0,0 +1,139 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.entity.LoginFailure;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mongodb.repository.LoginFailureRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginThrottleTest {
+
+    @Mock
+    private LoginFailureRepository failureRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    // Helper
+    private LoginThrottle throttle(boolean shared) {
+        return new LoginThrottle(meterRegistry, failureRepository, 3, 5, Duration.ofMinutes(15), 1000, shared);
+    }
+
+    private void fallar(LoginThrottle throttle, String nickname, String ip, int veces) {
+        for (int i = 0; i < veces; i++) {
+            throttle.recordFailure(nickname, ip).block();
+        }
+    }
+
+    @Test
+    void isBlocked_fallosPorNickname_bloqueaAlLlegarAlLimite() {
+        LoginThrottle throttle = throttle(false);
+
+        fallar(throttle, "ana", "10.0.0.1", 2);
+        StepVerifier.create(throttle.isBlocked("ana", "10.0.0.2")).expectNext(false).verifyComplete();
+
+        fallar(throttle, "ana", "10.0.0.1", 1);
+        StepVerifier.create(throttle.isBlocked("ana", "10.0.0.2")).expectNext(true).verifyComplete();
+        // El nickname se compara sin distinguir mayúsculas
+        StepVerifier.create(throttle.isBlocked("ANA", null)).expectNext(true).verifyComplete();
+        StepVerifier.create(throttle.isBlocked("bob", "10.0.0.2")).expectNext(false).verifyComplete();
+
+        assertEquals(2.0, meterRegistry.get("auth.login.throttle.blocked").counter().count());
+        verifyNoInteractions(failureRepository);
+    }
+
+    @Test
+    void isBlocked_fallosDesdeUnaIp_bloqueaCualquierNickname() {
+        LoginThrottle throttle = throttle(false);
+
+        fallar(throttle, "ana", "10.0.0.1", 2);
+        fallar(throttle, "bob", "10.0.0.1", 2);
+        fallar(throttle, "eva", "10.0.0.1", 1);
+
+        StepVerifier.create(throttle.isBlocked("zoe", "10.0.0.1")).expectNext(true).verifyComplete();
+        StepVerifier.create(throttle.isBlocked("zoe", "10.0.0.9")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void recordSuccess_limpiaLosFallosDelNickname() {
+        LoginThrottle throttle = throttle(false);
+        fallar(throttle, "ana", null, 3);
+
+        throttle.recordSuccess("ana").block();
+
+        StepVerifier.create(throttle.isBlocked("ana", null)).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void isBlocked_fallosFueraDeLaVentana_noCuentan() throws InterruptedException {
+        LoginThrottle throttle = new LoginThrottle(meterRegistry, failureRepository, 1, 5, Duration.ofMillis(150), 1000, false);
+        fallar(throttle, "ana", null, 1);
+        StepVerifier.create(throttle.isBlocked("ana", null)).expectNext(true).verifyComplete();
+
+        Thread.sleep(250);
+
+        StepVerifier.create(throttle.isBlocked("ana", null)).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void isBlocked_compartido_consultaLosFallosDeOtrosNodos() {
+        when(failureRepository.countByKeyAndAtAfter(eq("nick:ana"), any(Instant.class))).thenReturn(Mono.just(3L));
+        when(failureRepository.countByKeyAndAtAfter(eq("ip:10.0.0.1"), any(Instant.class))).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(throttle(true).isBlocked("ana", "10.0.0.1"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void isBlocked_compartidoConMongoCaido_aplicaSoloElBloqueoLocal() {
+        when(failureRepository.countByKeyAndAtAfter(anyString(), any(Instant.class))).thenReturn(Mono.error(new RuntimeException("Error en MongoDB")));
+
+        StepVerifier.create(throttle(true).isBlocked("ana", null))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordFailure_compartido_guardaUnFalloPorClave() {
+        ArgumentCaptor<Publisher<LoginFailure>> guardados = ArgumentCaptor.forClass(Publisher.class);
+        when(failureRepository.saveAll(guardados.capture())).thenAnswer(invocation -> Flux.from((Publisher<LoginFailure>) invocation.getArgument(0)));
+
+        StepVerifier.create(throttle(true).recordFailure("Ana", "10.0.0.1"))
+                .verifyComplete();
+
+        StepVerifier.create(Flux.from(guardados.getValue()).map(LoginFailure::getKey))
+                .expectNext("nick:ana", "ip:10.0.0.1")
+                .verifyComplete();
+    }
+
+    @Test
+    void constructor_configuracionInvalida_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new LoginThrottle(meterRegistry, failureRepository, 0, 5, Duration.ofMinutes(15), 1000, false));
+    }
+}
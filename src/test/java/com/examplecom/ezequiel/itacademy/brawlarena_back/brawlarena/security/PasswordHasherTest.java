@@ -0,0 +1,95 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PasswordHasherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHasher passwordHasher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (passwordHasher != null) {
+            passwordHasher.shutdown();
+        }
+    }
+
+    @Test
+    void encodeYMatches_seEjecutanFueraDelHiloLlamante() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), meterRegistry, 1, 4);
+        String llamante = Thread.currentThread().getName();
+
+        String hash = passwordHasher.encode("miPassword123").block();
+
+        assertNotNull(hash);
+        StepVerifier.create(passwordHasher.matches("miPassword123", hash))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(passwordHasher.matches("otraPassword", hash))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(passwordHasher.encode("x").map(h -> Thread.currentThread().getName()))
+                .assertNext(hilo -> {
+                    assertNotEquals(llamante, hilo);
+                    assertTrue(hilo.startsWith("bcrypt-"));
+                })
+                .verifyComplete();
+
+        assertEquals(2, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void encode_poolSaturado_rechazaCon503() throws InterruptedException {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        PasswordEncoder lento = mock(PasswordEncoder.class);
+        when(lento.encode(any())).thenAnswer(invocation -> {
+            enCurso.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        passwordHasher = new PasswordHasher(lento, meterRegistry, 1, 1);
+
+        // Uno ocupa el único hilo y otro la única plaza de la cola
+        passwordHasher.encode("a").subscribe();
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+        passwordHasher.encode("b").subscribe();
+
+        StepVerifier.create(passwordHasher.encode("c"))
+                .expectErrorSatisfies(error -> {
+                    assertInstanceOf(ResponseStatusException.class, error);
+                    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((ResponseStatusException) error).getStatusCode());
+                })
+                .verify();
+
+        assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+        liberar.countDown();
+    }
+
+    @Test
+    void constructor_configuracionInvalida_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PasswordHasher(new BCryptPasswordEncoder(4), meterRegistry, 1, 0));
+    }
+}
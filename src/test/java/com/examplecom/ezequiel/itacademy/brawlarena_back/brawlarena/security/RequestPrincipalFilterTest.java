@@ -0,0 +1,133 @@
+package com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.security;
+
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.cache.UserCache;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.entity.User;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserCharacterRepository;
+import com.examplecom.ezequiel.itacademy.brawlarena_back.brawlarena.mysql.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestPrincipalFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCharacterRepository userCharacterRepository;
+
+    private RequestPrincipalFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        UserCache userCache = new UserCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        filter = new RequestPrincipalFilter(userCache, userCharacterRepository);
+    }
+
+    // Helpers
+    private MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/builds/validate"));
+    }
+
+    private Authentication authentication(String nickname) {
+        return new UsernamePasswordAuthenticationToken(nickname, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+
+    private Mono<Void> filtrar(WebFilterChain chain, Authentication authentication) {
+        return filter.filter(exchange(), chain)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    // Simula un handler que pide el usuario y los desbloqueados varias veces en la misma petición
+    private WebFilterChain chainQueLee(String nickname, List<Object> leidos) {
+        return exchange -> RequestPrincipal.user(nickname, () -> Mono.error(new IllegalStateException("No debería cargar fuera del contexto")))
+                .doOnNext(leidos::add)
+                .then(RequestPrincipal.user(nickname, Mono::empty).doOnNext(leidos::add))
+                .then(RequestPrincipal.unlockedCharacterIds(nickname, Mono::empty).doOnNext(leidos::add))
+                .then(RequestPrincipal.isUnlocked(nickname, "char1", () -> Mono.just(false)).doOnNext(leidos::add))
+                .then();
+    }
+
+    @Test
+    void filter_usuarioAutenticado_cargaUsuarioYDesbloqueadosUnaSolaVez() {
+        when(userRepository.findByNickname("ana")).thenReturn(Mono.just(new User(1L, "ana", "password", 50, "USER", null)));
+        when(userCharacterRepository.findCharacterIdsByUserId(1L)).thenReturn(Flux.just("char1", "char2"));
+        List<Object> leidos = new ArrayList<>();
+
+        StepVerifier.create(filtrar(chainQueLee("ana", leidos), authentication("ana")))
+                .verifyComplete();
+
+        assertEquals(4, leidos.size());
+        assertSame(leidos.get(0), leidos.get(1));
+        assertEquals(Set.of("char1", "char2"), leidos.get(2));
+        assertEquals(true, leidos.get(3));
+        verify(userRepository, times(1)).findByNickname("ana");
+        verify(userCharacterRepository, times(1)).findCharacterIdsByUserId(1L);
+    }
+
+    @Test
+    void filter_sinConsultas_noCargaNada() {
+        StepVerifier.create(filtrar(exchange -> Mono.empty(), authentication("ana")))
+                .verifyComplete();
+
+        verifyNoInteractions(userRepository, userCharacterRepository);
+    }
+
+    @Test
+    void filter_otroJugador_usaLaCargaDelLlamante() {
+        WebFilterChain chain = exchange -> RequestPrincipal.user("bob", () -> Mono.just(new User(2L, "bob", "password", 10, "USER", null)))
+                .then();
+
+        StepVerifier.create(filtrar(chain, authentication("ana")))
+                .verifyComplete();
+
+        verify(userRepository, never()).findByNickname(anyString());
+    }
+
+    @Test
+    void filter_peticionAnonima_noPublicaPrincipal() {
+        Authentication anonimo = new AnonymousAuthenticationToken("key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+        WebFilterChain chain = exchange -> RequestPrincipal.user("anonymousUser", Mono::empty)
+                .then();
+
+        StepVerifier.create(filtrar(chain, anonimo))
+                .verifyComplete();
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void filter_sinSecurityContext_continuaLaCadenaUnaVez() {
+        WebFilterChain chain = mock(WebFilterChain.class);
+        when(chain.filter(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(filter.filter(exchange(), chain))
+                .verifyComplete();
+
+        verify(chain, times(1)).filter(any());
+    }
+}
@@ -22,6 +22,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -29,6 +32,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +40,7 @@ import static org.mockito.ArgumentMatchers.any;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 
 @AutoConfigureWebTestClient
@@ -66,14 +71,22 @@ class SecurityConfigIntegrationTest {
         System.setProperty("test.env", "true");
     }
 
+    // Misma Authentication que construye JwtService a partir de los claims verificados
+    private static Optional<Authentication> authentication(Claims claims) {
+        return Optional.of(new UsernamePasswordAuthenticationToken(
+                claims.getSubject(),
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + claims.get("role", String.class)))
+        ));
+    }
+
     @BeforeEach
     void setupJwtMock() {
         Claims claims = Jwts.claims();
         claims.setSubject("player1");
         claims.put("role", "USER");
 
-        when(jwtService.validateToken(anyString())).thenReturn(true);
-        when(jwtService.getClaims(anyString())).thenReturn(claims);
+        when(jwtService.authenticate(anyString())).thenReturn(authentication(claims));
     }
 
     @Test
@@ -94,7 +107,7 @@ class SecurityConfigIntegrationTest {
 
     @Test
     void publicRouteShouldBeAccessibleWithoutAuthentication() {
-        when(sharedModelRepository.findAll()).thenReturn(Flux.empty());
+        when(sharedModelRepository.findPage(any(), any(), any(), anyInt())).thenReturn(Flux.empty());
 
         webTestClient.get()
                 .uri("/gallery")
@@ -118,8 +131,7 @@ class SecurityConfigIntegrationTest {
         claims.setSubject("player1");
         claims.put("role", "USER");
 
-        when(jwtService.validateToken(anyString())).thenReturn(true);
-        when(jwtService.getClaims(anyString())).thenReturn(claims);
+        when(jwtService.authenticate(anyString())).thenReturn(authentication(claims));
 
         User user = User.builder().nickname("player1").build();
 
@@ -178,8 +190,7 @@ class SecurityConfigIntegrationTest {
         claims.setSubject("player1");
         claims.put("role", "USER");
 
-        when(jwtService.validateToken(anyString())).thenReturn(true);
-        when(jwtService.getClaims(anyString())).thenReturn(claims);
+        when(jwtService.authenticate(anyString())).thenReturn(authentication(claims));
 
         webTestClient.put()
                 .uri("/gallery/highlighted")
@@ -196,8 +207,7 @@ class SecurityConfigIntegrationTest {
         claims.setSubject("adminUser");
         claims.put("role", "ADMIN");
 
-        when(jwtService.validateToken(anyString())).thenReturn(true);
-        when(jwtService.getClaims(anyString())).thenReturn(claims);
+        when(jwtService.authenticate(anyString())).thenReturn(authentication(claims));
 
         // Mock necesario para evitar error interno (mínimo viable)
         SharedModel destacado = new SharedModel();
@@ -233,8 +243,7 @@ class SecurityConfigIntegrationTest {
         claims.setSubject("player1");
         claims.put("role", "ROLE_USER"); // ← adaptado
 
-        when(jwtService.validateToken(anyString())).thenReturn(true);
-        when(jwtService.getClaims(anyString())).thenReturn(claims);
+        when(jwtService.authenticate(anyString())).thenReturn(authentication(claims));
 
         SharedModel model = new SharedModel();
         model.setId("model123");
@@ -265,8 +274,7 @@ class SecurityConfigIntegrationTest {
         claims.setSubject("player1");
         claims.put("role", "USER");
 
-        when(jwtService.validateToken(anyString())).thenReturn(true);
-        when(jwtService.getClaims(anyString())).thenReturn(claims);
+        when(jwtService.authenticate(anyString())).thenReturn(authentication(claims));
 
         // Mock mínimo para que el endpoint responda sin error interno
         User user = User.builder().nickname("player1").build();
@@ -294,7 +302,7 @@ class SecurityConfigIntegrationTest {
     void requestWithInvalidBearerToken_shouldReturnUnauthorized() {
         String invalidToken = "Bearer invalid.token.value";
 
-        when(jwtService.validateToken(anyString())).thenReturn(false);
+        when(jwtService.authenticate(anyString())).thenReturn(Optional.empty());
 
         webTestClient.get()
                 .uri("/users/me")
@@ -311,8 +319,7 @@ class SecurityConfigIntegrationTest {
         claims.setSubject("adminUser");
         claims.put("role", "ADMIN");
 
-        when(jwtService.validateToken(anyString())).thenReturn(true);
-        when(jwtService.getClaims(anyString())).thenReturn(claims);
+        when(jwtService.authenticate(anyString())).thenReturn(authentication(claims));
 
         SharedModel model = new SharedModel();
         model.setId("model123");